@@ -0,0 +1,29 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.ToyRobotApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Spring context of the Toy Robot application for benchmarks.
+ *
+ * @author N/A
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Start the application without web server. The "test" profile is used so that the console is not started, and
+     * the journal and the snapshots are disabled so that the commands are measured without disk I/O.
+     *
+     * @return Application context
+     */
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ToyRobotApplication.class).web(WebApplicationType.NONE)
+                .profiles("test").properties("journal.enabled=false", "snapshot.enabled=false").logStartupInfo(false)
+                .run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.ToyRobotApplication;
+import com.somecompany.model.Command;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Benchmarks of the REST API, i.e. ToyRobotController, on a seeded random mix of MOVE/LEFT/RIGHT requests each
+ * followed by a REPORT request.
+ * <p>
+ * MockMvc measures the Spring MVC dispatch and the controller without the network; WebTestClient measures the full
+ * round trip through Tomcat on a local port. Rejected moves are part of the mix, answered with 400.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class ControllerBenchmark {
+
+    private static final String SESSION_PATH = "/api/toyrobot/controller-benchmark";
+
+    private static final String[] PATHS = new String[Command.values().length];
+
+    static {
+        PATHS[Command.MOVE.ordinal()] = SESSION_PATH + "/move";
+        PATHS[Command.LEFT.ordinal()] = SESSION_PATH + "/left";
+        PATHS[Command.RIGHT.ordinal()] = SESSION_PATH + "/right";
+    }
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private WebTestClient webTestClient;
+    private int[] commands;
+    private RequestBuilder report;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(ToyRobotApplication.class).profiles("test").logStartupInfo(false)
+                .run("--server.port=0", "--journal.enabled=false", "--snapshot.enabled=false");
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort())
+                .responseTimeout(Duration.ofSeconds(10)).build();
+
+        mockMvc.perform(put(SESSION_PATH + "/place").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"facing\":\"NORTH\",\"xcor\":2,\"ycor\":2}"));
+
+        commands = Workload.transitions(seed);
+        report = get(SESSION_PATH + "/report");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int mockMvc() throws Exception {
+        int status = mockMvc.perform(post(PATHS[commands[next++ & Workload.MASK]])).andReturn().getResponse()
+                .getStatus();
+        return status + mockMvc.perform(report).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public byte[] webTestClient() {
+        webTestClient.post().uri(PATHS[commands[next++ & Workload.MASK]]).exchange().expectBody().returnResult();
+        return webTestClient.get().uri(SESSION_PATH + "/report").exchange().expectBody().returnResult()
+                .getResponseBody();
+    }
+}
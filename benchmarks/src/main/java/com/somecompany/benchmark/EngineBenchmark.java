@@ -0,0 +1,67 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the allocation-free engine path of ToyRobotService.
+ * <p>
+ * Run with the GC profiler (-prof gc) to verify that gc.alloc.rate.norm stays at 0 B/op.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ToyRobotService toyRobotService;
+    private World world;
+    private StringBuilder report;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        toyRobotService = context.getBean(ToyRobotService.class);
+        world = context.getBean(SessionService.class).getWorld("engine-benchmark");
+        toyRobotService.place(world, "2", "2", "NORTH");
+        report = new StringBuilder(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean move() {
+        // Walk around the edge of the grid, turning whenever the robot would fall off
+        return toyRobotService.applyMove(world) || toyRobotService.applyRight(world);
+    }
+
+    @Benchmark
+    public boolean left() {
+        return toyRobotService.applyLeft(world);
+    }
+
+    @Benchmark
+    public boolean right() {
+        return toyRobotService.applyRight(world);
+    }
+
+    @Benchmark
+    public int report() {
+        report.setLength(0);
+        toyRobotService.appendReport(world, report);
+        return report.length();
+    }
+}
@@ -0,0 +1,99 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of processing a line the way ToyRobotApplication.handleUserInput does for the console and the command
+ * file, including printing its output, on a seeded random workload with a share of malformed lines.
+ * <p>
+ * Compares the outcome-based path of handleUserInput with the exception-based execute it replaced. The output is
+ * printed to a stream which discards it, so that only the formatting is measured, not the terminal.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class LineBenchmark {
+
+    @Param({"0", "10"})
+    public int malformedPercent;
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private ToyRobotService toyRobotService;
+    private ValidationService validationService;
+    private World world;
+    private String[] lines;
+    private PrintStream out;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        toyRobotService = context.getBean(ToyRobotService.class);
+        validationService = context.getBean(ValidationService.class);
+        world = context.getBean(SessionService.class).getWorld("line-benchmark");
+        lines = Workload.lines(seed, world.getGrid().getWidth(), malformedPercent);
+        out = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void handleUserInput() {
+        StringBuilder report = new StringBuilder(64);
+
+        Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(nextLine()), report);
+
+        if (outcome.isRejected()) {
+            out.println(validationService.logRejection(outcome, world));
+        } else if (report.length() > 0) {
+            out.println(report);
+        }
+    }
+
+    @Benchmark
+    public void execute() {
+        try {
+            String output = toyRobotService.execute(world, nextLine());
+
+            if (output != null) {
+                out.println(output);
+            }
+        } catch (IllegalArgumentException exception) {
+            out.println(exception.getMessage());
+        }
+    }
+
+    private String nextLine() {
+        return lines[next++ & Workload.MASK];
+    }
+}
@@ -0,0 +1,84 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of handling a line of command, i.e. the single-pass parser with dispatch by ordinal against the former
+ * split/toUpperCase validation followed by the exception-based execute.
+ * <p>
+ * Each invocation handles one line of a fixed mix of commands. Run with the GC profiler (-prof gc) to verify that the
+ * parse path stays at 0 B/op.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final String[] LINES = {"PLACE 1,2,NORTH", "MOVE", "left", "MOVE", "RIGHT", "RIGHT", "MOVE",
+            "REPORT"};
+
+    private ConfigurableApplicationContext context;
+    private ToyRobotService toyRobotService;
+    private ValidationService validationService;
+    private World world;
+    private StringBuilder report;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        toyRobotService = context.getBean(ToyRobotService.class);
+        validationService = context.getBean(ValidationService.class);
+        world = context.getBean(SessionService.class).getWorld("parser-benchmark");
+        report = new StringBuilder(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long parse() {
+        return ParsedCommand.parse(nextLine());
+    }
+
+    @Benchmark
+    public Outcome parseAndApply() {
+        report.setLength(0);
+        return toyRobotService.applyCommand(world, ParsedCommand.parse(nextLine()), report);
+    }
+
+    @Benchmark
+    public String execute() {
+        return toyRobotService.execute(world, nextLine());
+    }
+
+    @Benchmark
+    public int splitAndCompare() {
+        // Tokenizing of the former validateUserInput and execute, which both split and upper-case the line
+        String line = nextLine();
+        validationService.validateUserInput(line);
+        return line.split(" ")[0].toUpperCase().length();
+    }
+
+    private String nextLine() {
+        String line = LINES[next];
+        next = next == LINES.length - 1 ? 0 : next + 1;
+        return line;
+    }
+}
@@ -0,0 +1,114 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.DistanceField;
+import com.somecompany.model.Location;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.PathfindingService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of planning GOTO routes on a 1000x1000 grid, with a cached distance field (plan) and without one
+ * (computeField).
+ * <p>
+ * The grid is strewn with "obstaclePercent" obstacles from a seeded random, and the routes start from
+ * {@link Workload#SIZE} seeded random states which can reach the target.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+
+    private static final int GRID_SIZE = 1000;
+
+    @Param({"0", "20"})
+    public int obstaclePercent;
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private PathfindingService pathfindingService;
+    private World world;
+    private long command;
+    private int[] starts;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        pathfindingService = context.getBean(PathfindingService.class);
+        world = context.getBean(SessionService.class).getWorld("pathfinding-benchmark");
+        world.getGrid().setWidth(GRID_SIZE);
+        world.getGrid().setHeight(GRID_SIZE);
+
+        Random random = new Random(seed);
+        List<Location> locations = new ArrayList<>();
+
+        for (int yCor = 0; yCor <= GRID_SIZE; yCor++) {
+            for (int xCor = 0; xCor <= GRID_SIZE; xCor++) {
+                if (random.nextInt(100) < obstaclePercent && (xCor != GRID_SIZE || yCor != GRID_SIZE)) {
+                    Location location = new Location();
+                    location.setXCor(xCor);
+                    location.setYCor(yCor);
+                    locations.add(location);
+                }
+            }
+        }
+
+        context.getBean(ToyRobotService.class).addObstacles(world, locations);
+
+        command = ParsedCommand.parse("GOTO " + GRID_SIZE + "," + GRID_SIZE);
+        DistanceField distanceField = getDistanceField();
+        starts = new int[Workload.SIZE];
+
+        for (int i = 0; i < starts.length; ) {
+            int xCor = random.nextInt(GRID_SIZE + 1);
+            int yCor = random.nextInt(GRID_SIZE + 1);
+            int facing = random.nextInt(4);
+
+            if (distanceField.getDistance(xCor, yCor, facing) >= 0) {
+                starts[i++] = (yCor << 12 | xCor) << 2 | facing;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] plan() {
+        int start = starts[index++ & Workload.MASK];
+
+        synchronized (world) {
+            return pathfindingService.plan(world, (start >>> 2) & 0xFFF, start >>> 14, start & 3, command);
+        }
+    }
+
+    @Benchmark
+    public DistanceField computeField() {
+        return DistanceField.compute(world.getGrid(), world.getObstacle(), GRID_SIZE, GRID_SIZE,
+                ParsedCommand.ANY_FACING);
+    }
+
+    private DistanceField getDistanceField() {
+        synchronized (world) {
+            return pathfindingService.getDistanceField(world, command);
+        }
+    }
+}
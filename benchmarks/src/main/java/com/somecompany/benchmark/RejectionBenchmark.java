@@ -0,0 +1,81 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of rejected commands, i.e. the outcome-based validation against the exception-based wrapper (with and
+ * without stack traces).
+ * <p>
+ * The robot faces the fringe, so every MOVE falls off, and the other lines are malformed. Logging is turned off, so
+ * that only the cost of the rejection itself is measured.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class RejectionBenchmark {
+
+    private static final String[] LINES = {"MOVE", "PLACE 9,0,EAST", "JUMP", "LEFT 1"};
+
+    @Param({"false", "true"})
+    public String stacklessExceptions;
+
+    private ConfigurableApplicationContext context;
+    private ToyRobotService toyRobotService;
+    private ValidationService validationService;
+    private World world;
+    private StringBuilder report;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("validation.stacklessExceptions", stacklessExceptions);
+        context = BenchmarkContext.start();
+        toyRobotService = context.getBean(ToyRobotService.class);
+        validationService = context.getBean(ValidationService.class);
+        world = context.getBean(SessionService.class).getWorld("rejection-benchmark");
+        toyRobotService.place(world, "0", "5", "NORTH");
+        report = new StringBuilder(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.clearProperty("validation.stacklessExceptions");
+    }
+
+    @Benchmark
+    public String outcome() {
+        report.setLength(0);
+        Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(nextLine()), report);
+        return validationService.getMessage(outcome, world);
+    }
+
+    @Benchmark
+    public String exception() {
+        try {
+            return toyRobotService.execute(world, nextLine());
+        } catch (IllegalArgumentException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    private String nextLine() {
+        String line = LINES[next];
+        next = next == LINES.length - 1 ? 0 : next + 1;
+        return line;
+    }
+}
@@ -0,0 +1,137 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.Facing;
+import com.somecompany.model.JournalRecord;
+import com.somecompany.model.ReplayReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import com.somecompany.service.ReplayService;
+import com.somecompany.service.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Benchmark of the offline replay of a journal by the ReplayService, in nanoseconds per command.
+ * <p>
+ * The journal is a single segment of one session, written up front from a seeded random walk of MOVE, LEFT, RIGHT and
+ * REPORT commands on a grid with a few obstacles. Only the commands accepted on the grid are recorded, as in a real
+ * journal, so that the replay has no mismatch.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class ReplayBenchmark {
+
+    private static final int COMMAND_COUNT = 1 << 20;
+
+    private static final String SESSION_ID = "replay-benchmark";
+
+    private static final int[] COMMANDS = {Command.MOVE.ordinal(), Command.MOVE.ordinal(), Command.LEFT.ordinal(),
+            Command.RIGHT.ordinal(), Command.REPORT.ordinal()};
+
+    @Param({"true", "false"})
+    public boolean verifyReports;
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private ReplayService replayService;
+    private File folder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        replayService = context.getBean(ReplayService.class);
+
+        World world = context.getBean(SessionService.class).createWorld();
+        world.getGrid().setWidth(100);
+        world.getGrid().setHeight(100);
+
+        Random random = new Random(seed);
+
+        for (int i = 0; i < 500; i++) {
+            world.getObstacle().add(random.nextInt(101), random.nextInt(101));
+        }
+
+        byte[] sessionId = SESSION_ID.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer segment = ByteBuffer.allocate(JournalRecord.SEGMENT_HEADER_SIZE
+                + JournalRecord.sessionSize(sessionId.length) + JournalRecord.COMMAND_SIZE * (COMMAND_COUNT + 1) + 1);
+        ByteBuffer view = segment.duplicate();
+        CRC32 crc = new CRC32();
+
+        segment.putInt(JournalRecord.MAGIC).putShort(JournalRecord.FORMAT_VERSION).putLong(1);
+        int position = segment.position();
+        segment.put(JournalRecord.SESSION).putShort((short) 0).putShort((short) 100).putShort((short) 100)
+                .putShort((short) sessionId.length).put(sessionId);
+        seal(segment, view, crc, position);
+
+        long state = RobotState.next(RobotState.NO_LOCATION, RobotState.pack(50, 50, Facing.NORTH));
+        world.getObstacle().remove(50, 50);
+        position = segment.position();
+        segment.put(JournalRecord.type(Command.PLACE.ordinal())).putShort((short) 0).putLong(state);
+        seal(segment, view, crc, position);
+
+        for (int i = 0; i < COMMAND_COUNT; ) {
+            int commandOrdinal = COMMANDS[random.nextInt(COMMANDS.length)];
+
+            if (commandOrdinal != Command.REPORT.ordinal()) {
+                long location = RobotState.transition(state, commandOrdinal, world);
+
+                if (RobotState.isRejected(location)) {
+                    continue;
+                }
+
+                state = RobotState.next(state, location);
+            }
+
+            position = segment.position();
+            segment.put(JournalRecord.type(commandOrdinal)).putShort((short) 0).putLong(state);
+            seal(segment, view, crc, position);
+            i++;
+        }
+
+        folder = Files.createTempDirectory("replay-benchmark").toFile();
+        Files.write(new File(folder, "journal-00000000000000000001.log").toPath(), segment.array());
+
+        if (replayService.replay(folder, 0, true).getMismatches() != 0) {
+            throw new IllegalStateException("The generated journal does not replay");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileSystemUtils.deleteRecursively(folder);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMAND_COUNT)
+    public ReplayReport replay() throws IOException {
+        return replayService.replay(folder, 0, verifyReports);
+    }
+
+    /**
+     * Append the checksum of the record which has been written from a position up to the position of the segment.
+     */
+    private static void seal(ByteBuffer segment, ByteBuffer view, CRC32 crc, int position) {
+        int size = segment.position() - position + JournalRecord.CHECKSUM_SIZE;
+        segment.putInt(JournalRecord.checksum(view, crc, segment.get(position), position, size));
+    }
+}
@@ -0,0 +1,152 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Facing;
+import com.somecompany.model.Location;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the public API of ToyRobotService (move/left/right/report) and ValidationService (validateUserInput
+ * and validateMove), i.e. the methods which throw when a command is rejected.
+ * <p>
+ * The worlds are seeded: a number of worlds with a random robot and random obstacles (about 1 location in 8), so that
+ * MOVE is rejected now and then for hitting an obstacle or falling off. The robot turns right whenever it cannot
+ * move. Run with the GC profiler (-prof gc) to see the cost of the rejections.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class ServiceBenchmark {
+
+    private static final int WORLD_COUNT = 64;
+
+    @Param({"5", "100"})
+    public int gridSize;
+
+    @Param({"42"})
+    public long seed;
+
+    private ConfigurableApplicationContext context;
+    private ToyRobotService toyRobotService;
+    private ValidationService validationService;
+    private SessionService sessionService;
+    private World[] worlds;
+    private String[] lines;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        toyRobotService = context.getBean(ToyRobotService.class);
+        validationService = context.getBean(ValidationService.class);
+        sessionService = context.getBean(SessionService.class);
+
+        Random random = new Random(seed);
+        worlds = new World[WORLD_COUNT];
+
+        for (int i = 0; i < WORLD_COUNT; i++) {
+            World world = sessionService.getWorld("service-benchmark-" + i);
+            world.getGrid().setWidth(gridSize);
+            world.getGrid().setHeight(gridSize);
+
+            int robotXCor = random.nextInt(gridSize + 1);
+            int robotYCor = random.nextInt(gridSize + 1);
+            toyRobotService.place(world, String.valueOf(robotXCor), String.valueOf(robotYCor),
+                    Facing.values()[random.nextInt(4)].name());
+
+            List<Location> obstacles = new ArrayList<>();
+            for (int xCor = 0; xCor <= gridSize; xCor++) {
+                for (int yCor = 0; yCor <= gridSize; yCor++) {
+                    if (random.nextInt(8) == 0 && (xCor != robotXCor || yCor != robotYCor)) {
+                        Location location = new Location();
+                        location.setXCor(xCor);
+                        location.setYCor(yCor);
+                        obstacles.add(location);
+                    }
+                }
+            }
+            toyRobotService.addObstacles(world, obstacles);
+
+            worlds[i] = world;
+        }
+
+        lines = Workload.lines(seed, gridSize, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public World move() {
+        World world = nextWorld();
+
+        try {
+            toyRobotService.move(world);
+        } catch (IllegalArgumentException exception) {
+            toyRobotService.right(world);
+        }
+
+        return world;
+    }
+
+    @Benchmark
+    public World left() {
+        World world = nextWorld();
+        toyRobotService.left(world);
+        return world;
+    }
+
+    @Benchmark
+    public World right() {
+        World world = nextWorld();
+        toyRobotService.right(world);
+        return world;
+    }
+
+    @Benchmark
+    public String report() {
+        return toyRobotService.report(nextWorld());
+    }
+
+    @Benchmark
+    public String validateUserInput() {
+        String line = lines[next++ & Workload.MASK];
+
+        try {
+            validationService.validateUserInput(line);
+            return line;
+        } catch (IllegalArgumentException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String validateMove() {
+        try {
+            validationService.validateMove(nextWorld());
+            return null;
+        } catch (IllegalArgumentException exception) {
+            return exception.getMessage();
+        }
+    }
+
+    private World nextWorld() {
+        return worlds[next++ & (WORLD_COUNT - 1)];
+    }
+}
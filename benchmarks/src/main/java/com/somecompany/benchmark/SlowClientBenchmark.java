@@ -0,0 +1,97 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.ToyRobotApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of 10k concurrent slow clients driving the API endpoints, served by Tomcat on platform threads against
+ * virtual threads.
+ * <p>
+ * Every client sends the head of its "PLACE" request right away but the rest of the body only after a delay, so the
+ * request holds a Tomcat thread while it waits for the body. The clients arrive evenly over one such delay, so that
+ * about 10k of them are slow at the same time. With platform threads only 200 requests (the threads of Tomcat) can
+ * wait at once and the others queue up behind them; with virtual threads (JDK 21 or later) they all wait at once. One
+ * operation is the full wave of 10k requests.
+ *
+ * @author N/A
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Dlogging.level.com.somecompany=OFF")
+public class SlowClientBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private static final Duration BODY_DELAY = Duration.ofSeconds(1);
+
+    private static final byte[] BODY_HEAD = "{\"facing\":\"NORTH\",".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] BODY_TAIL = "\"xcor\":1,\"ycor\":2}".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"false", "true"})
+    public String virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ToyRobotApplication.class).profiles("test").logStartupInfo(false)
+                .run("--server.port=0", "--journal.enabled=false", "--snapshot.enabled=false",
+                        "--threads.virtual=" + virtualThreads, "--server.tomcat.max-connections=" + CLIENTS,
+                        "--server.tomcat.accept-count=" + CLIENTS);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        connectionProvider = ConnectionProvider.builder("slow-clients").maxConnections(CLIENTS)
+                .pendingAcquireMaxCount(-1).build();
+        webClient = WebClient.builder().baseUrl("http://localhost:" + port + "/api/toyrobot")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider))).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionProvider.dispose();
+        context.close();
+    }
+
+    @Benchmark
+    public Long slowClients() {
+        return Flux.range(0, CLIENTS)
+                .flatMap(i -> Mono.delay(BODY_DELAY.multipliedBy(i).dividedBy(CLIENTS))
+                        .then(webClient.put().uri("/slow-client-" + (i % 100) + "/place")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(BodyInserters.fromDataBuffers(slowBody()))
+                                .retrieve().toBodilessEntity()), CLIENTS)
+                .count().block();
+    }
+
+    /**
+     * Body sent in 2 chunks, so that the headers and the first chunk are sent right away and the rest after a delay.
+     */
+    private Flux<DataBuffer> slowBody() {
+        return Flux.concat(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(BODY_HEAD)),
+                Mono.delay(BODY_DELAY).map(tick -> DefaultDataBufferFactory.sharedInstance.wrap(BODY_TAIL)));
+    }
+}
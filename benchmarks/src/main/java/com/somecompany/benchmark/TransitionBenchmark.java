@@ -0,0 +1,141 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the table-driven {@link RobotState#transition} with the if/else chains it replaced, on a seeded random mix
+ * of MOVE/LEFT/RIGHT commands.
+ *
+ * @author N/A
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionBenchmark {
+
+    private static final int COMMAND_COUNT = 1 << 16;
+    private static final int[] COMMANDS_BY_INDEX = { Command.MOVE.ordinal(), Command.LEFT.ordinal(),
+            Command.RIGHT.ordinal() };
+
+    @Param({ "5", "100" })
+    private int gridSize;
+
+    @Param({ "42" })
+    private long seed;
+
+    private World world;
+    private int[] commands;
+    private long state;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Grid grid = new Grid();
+        grid.setWidth(gridSize);
+        grid.setHeight(gridSize);
+
+        Location obstacleLocation = new Location();
+        obstacleLocation.setXCor(gridSize / 2);
+        obstacleLocation.setYCor(gridSize / 2 + 1);
+        Obstacle obstacle = new Obstacle();
+        obstacle.setLocation(obstacleLocation);
+
+        world = new World();
+        world.setRobot(new Robot());
+        world.setObstacle(obstacle);
+        world.setGrid(grid);
+
+        Random random = new Random(seed);
+        commands = new int[COMMAND_COUNT];
+
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            commands[i] = COMMANDS_BY_INDEX[random.nextInt(COMMANDS_BY_INDEX.length)];
+        }
+
+        state = RobotState.pack(gridSize / 2, gridSize / 2, Facing.NORTH);
+    }
+
+    @Benchmark
+    public long tableDriven() {
+        long result = RobotState.transition(state, commands[next++ & (COMMAND_COUNT - 1)], world);
+
+        if (!RobotState.isRejected(result)) {
+            state = result;
+        }
+
+        return state;
+    }
+
+    @Benchmark
+    public long ifElseChains() {
+        long result = legacyTransition(state, commands[next++ & (COMMAND_COUNT - 1)], world);
+
+        if (!RobotState.isRejected(result)) {
+            state = result;
+        }
+
+        return state;
+    }
+
+    /**
+     * The if/else chains of ToyRobotService and ValidationService before they were replaced by the transition tables.
+     */
+    private static long legacyTransition(long state, int commandOrdinal, World world) {
+        if (!RobotState.hasLocation(state)) {
+            return RobotState.REJECTED_NO_LOCATION;
+        }
+
+        int XCor = RobotState.xCor(state);
+        int YCor = RobotState.yCor(state);
+        Facing facing = RobotState.facing(state);
+
+        if (commandOrdinal == Command.MOVE.ordinal()) {
+            if (facing.equals(Facing.EAST)) {
+                XCor++;
+            } else if (facing.equals(Facing.SOUTH)) {
+                YCor--;
+            } else if (facing.equals(Facing.WEST)) {
+                XCor--;
+            } else if (facing.equals(Facing.NORTH)) {
+                YCor++;
+            }
+
+            if (XCor < 0 || XCor > world.getGrid().getWidth() || YCor < 0 || YCor > world.getGrid().getHeight()) {
+                return RobotState.REJECTED_FALL_OFF;
+            }
+
+            if (world.getObstacle().isAt(XCor, YCor)) {
+                return RobotState.REJECTED_HIT_OBSTACLE;
+            }
+        } else if (commandOrdinal == Command.LEFT.ordinal()) {
+            if (facing.equals(Facing.EAST)) {
+                facing = Facing.NORTH;
+            } else if (facing.equals(Facing.SOUTH)) {
+                facing = Facing.EAST;
+            } else if (facing.equals(Facing.WEST)) {
+                facing = Facing.SOUTH;
+            } else if (facing.equals(Facing.NORTH)) {
+                facing = Facing.WEST;
+            }
+        } else if (commandOrdinal == Command.RIGHT.ordinal()) {
+            if (facing.equals(Facing.EAST)) {
+                facing = Facing.SOUTH;
+            } else if (facing.equals(Facing.SOUTH)) {
+                facing = Facing.WEST;
+            } else if (facing.equals(Facing.WEST)) {
+                facing = Facing.NORTH;
+            } else if (facing.equals(Facing.NORTH)) {
+                facing = Facing.EAST;
+            }
+        }
+
+        return RobotState.pack(XCor, YCor, facing);
+    }
+}
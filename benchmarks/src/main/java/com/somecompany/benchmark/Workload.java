@@ -0,0 +1,79 @@
+package com.somecompany.benchmark;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.Facing;
+
+import java.util.Random;
+
+/**
+ * Seeded random workloads of the benchmarks, so that results are comparable across changes.
+ * <p>
+ * The same seed always yields the same commands, in the same order. Sizes are powers of 2, so that a benchmark can
+ * cycle through a workload by masking its index.
+ *
+ * @author N/A
+ */
+public final class Workload {
+
+    public static final int SIZE = 1 << 12;
+
+    public static final int MASK = SIZE - 1;
+
+    private static final Facing[] FACINGS = Facing.values();
+
+    private static final String[] NON_PLACE_COMMANDS = {"MOVE", "MOVE", "MOVE", "LEFT", "RIGHT", "REPORT",
+            "PLACE_OBSTACLE", "move", "Left"};
+
+    private static final String[] MALFORMED_LINES = {"JUMP", "MOVE 1", "PLACE 1,2", "PLACE a,2,NORTH",
+            "PLACE 1,2,UP", "", "REPORT NOW"};
+
+    private Workload() {
+    }
+
+    /**
+     * Lines of command as typed on the console or found in a command file, i.e. mostly well-formed commands with
+     * about 1 PLACE in 16 lines, some of which are off the grid, and the given share of malformed lines.
+     *
+     * @param seed
+     * @param gridSize
+     * @param malformedPercent
+     * @return {@link #SIZE} lines
+     */
+    public static String[] lines(long seed, int gridSize, int malformedPercent) {
+        Random random = new Random(seed);
+        String[] lines = new String[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            if (random.nextInt(100) < malformedPercent) {
+                lines[i] = MALFORMED_LINES[random.nextInt(MALFORMED_LINES.length)];
+            } else if (i == 0 || random.nextInt(16) == 0) {
+                // Mostly on the grid, sometimes just beyond it
+                lines[i] = "PLACE " + random.nextInt(gridSize + 2) + "," + random.nextInt(gridSize + 2) + ","
+                        + FACINGS[random.nextInt(FACINGS.length)];
+            } else {
+                lines[i] = NON_PLACE_COMMANDS[random.nextInt(NON_PLACE_COMMANDS.length)];
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Ordinals of MOVE/LEFT/RIGHT commands, about half of them MOVE.
+     *
+     * @param seed
+     * @return {@link #SIZE} command ordinals
+     */
+    public static int[] transitions(long seed) {
+        Random random = new Random(seed);
+        int[] commands = new int[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            int pick = random.nextInt(4);
+            commands[i] = pick < 2 ? Command.MOVE.ordinal() : pick == 2 ? Command.LEFT.ordinal()
+                    : Command.RIGHT.ordinal();
+        }
+
+        return commands;
+    }
+}
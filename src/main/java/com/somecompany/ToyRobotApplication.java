@@ -1,7 +1,13 @@
 package com.somecompany;
 
-import com.somecompany.model.Command;
 import com.somecompany.model.Grid;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.FileIngestionService;
+import com.somecompany.service.LoadGeneratorService;
+import com.somecompany.service.ReplayService;
+import com.somecompany.service.SessionService;
 import com.somecompany.service.ToyRobotService;
 import com.somecompany.service.ValidationService;
 import lombok.extern.slf4j.Slf4j;
@@ -11,10 +17,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
 
 import java.io.*;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 @SpringBootApplication
 @Slf4j
@@ -26,13 +36,38 @@ public class ToyRobotApplication implements CommandLineRunner {
     @Autowired
     private ToyRobotService toyRobotService;
 
+    @Autowired
+    private FileIngestionService fileIngestionService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private LoadGeneratorService loadGeneratorService;
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ExecutorService jobExecutor;
+
     @Autowired
     @Qualifier("grid")
     private Grid grid;
     @Autowired
     private Environment env;
+    @Value("${grid.width.defaultSize}")
+    private int gridWidthDefaultSize;
+    @Value("${grid.height.defaultSize}")
+    private int gridHeightDefaultSize;
     @Value("${inputFile.Path}")
     private String inputFilePath;
+    @Value("${inputFile.memoryMapped}")
+    private boolean inputFileMemoryMapped;
     @Value("${inputFile.Renamed.folder}")
     private String inputFileRenamedFolder;
     @Value("${inputFile.Renamed.suffix}")
@@ -47,6 +82,18 @@ public class ToyRobotApplication implements CommandLineRunner {
     @Override
     public void run(String... args) {
 
+        if (Arrays.asList(env.getActiveProfiles()).contains("loadgen")) {
+            // Capacity test of this node against itself instead of the console
+            loadGeneratorService.run(System.out);
+            return;
+        }
+
+        if (Arrays.asList(env.getActiveProfiles()).contains("replay")) {
+            // Offline replay of the journal instead of the console, then exit
+            int exitCode = replayJournal();
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+
         if (env.getActiveProfiles().length == 0 || !env.getActiveProfiles()[0].equals("test")) {
             // Using non-test Spring profile
 
@@ -63,8 +110,8 @@ public class ToyRobotApplication implements CommandLineRunner {
                     try {
                         // Set default if there is no input specified
                         if (gridSizeInput.equals("")) {
-                            grid.setWidth(5);
-                            grid.setHeight(5);
+                            grid.setWidth(gridWidthDefaultSize);
+                            grid.setHeight(gridHeightDefaultSize);
                             break;
                         }
 
@@ -95,34 +142,12 @@ public class ToyRobotApplication implements CommandLineRunner {
             System.out.println("Begin handling file input...");
 
             try {
-                File inputFile = new File(inputFilePath);
-
-                BufferedReader fileBR = new BufferedReader(new FileReader(inputFile));
-
-                try {
-                    String usrInput;
-                    while ((usrInput = fileBR.readLine()) != null) {
-                        // Handle one line of command
-                        handleUserInput(usrInput);
-                    }
-
-                    // Rename file after processing
-
-                    String inputFileName = inputFile.getName();
-                    Instant instant = Instant.now();
-
-                    // Append current timestamp to file, and move to processed folder
-                    File renamedFile = new File(
-                            inputFileRenamedFolder + inputFileName + inputFileRenamedSuffix + instant);
-
-                    inputFile.renameTo(renamedFile);
-                } catch (IOException e) {
+                // Run the file-processing job on a thread of the job executor, i.e. a virtual thread if enabled
+                jobExecutor.submit(this::handleFileInput).get();
+            } catch (ExecutionException | InterruptedException exception) {
 
-                    System.out.println(ERROR_MSG_IO_EXCEPTION);
-                    log.error(ERROR_MSG_IO_EXCEPTION);
-                }
-            } catch (FileNotFoundException e) {
-                // No file input, just proceed
+                System.out.println(ERROR_MSG_IO_EXCEPTION);
+                log.error(ERROR_MSG_IO_EXCEPTION, exception);
             }
 
             System.out.println("Finished handling file input.");
@@ -138,6 +163,7 @@ public class ToyRobotApplication implements CommandLineRunner {
             System.out.println("LEFT");
             System.out.println("RIGHT");
             System.out.println("REPORT");
+            System.out.println("GOTO <x-coordinate>,<y-coordinate>[,<facing>]");
 
             while (true) {
                 System.out.println("Please enter your command:");
@@ -157,52 +183,75 @@ public class ToyRobotApplication implements CommandLineRunner {
     }
 
     /**
-     * Handle the user input. This may be a command from file or by manual input at command line.
+     * Replay the journal offline, see {@link ReplayService}.
      *
-     * @param usrInput
+     * @return Exit code: 0 if the replay matches the journal, 1 if it has any mismatch, 2 if it has failed
      */
-    private void handleUserInput(String usrInput) {
+    private int replayJournal() {
         try {
-            // Validate user input
-            validationService.validateUserInput(usrInput);
+            return replayService.run(System.out).getMismatches() == 0 ? 0 : 1;
+        } catch (IOException exception) {
 
-            String[] usrInputArr = usrInput.split(" ");
+            System.out.println(ERROR_MSG_IO_EXCEPTION);
+            log.error(ERROR_MSG_IO_EXCEPTION, exception);
+            return 2;
+        }
+    }
 
-            String command = usrInputArr[0].toUpperCase();
+    /**
+     * Handle the commands of the input file, then move the file to the processed folder.
+     */
+    private void handleFileInput() {
+        File inputFile = new File(inputFilePath);
 
-            if (command.equals(Command.PLACE.name())) {
-                // PLACE command
+        try {
+            if (inputFileMemoryMapped) {
+                // Parse the commands straight from the mapped file
+                fileIngestionService.ingest(sessionService.getDefaultWorld(), inputFile, System.out);
+            } else {
+                try (BufferedReader fileBR = new BufferedReader(new FileReader(inputFile))) {
+                    String usrInput;
+                    while ((usrInput = fileBR.readLine()) != null) {
+                        // Handle one line of command
+                        handleUserInput(usrInput);
+                    }
+                }
+            }
 
-                String[] placeParamArr = usrInputArr[1].split(",");
+            // Rename file after processing
 
-                String XCor = placeParamArr[0];
-                String YCor = placeParamArr[1];
-                String facing = placeParamArr[2];
+            String inputFileName = inputFile.getName();
+            Instant instant = Instant.now();
 
-                toyRobotService.place(XCor, YCor, facing);
-            } else if (command.equals(Command.MOVE.name())) {
-                // MOVE command
+            // Append current timestamp to file, and move to processed folder
+            File renamedFile = new File(
+                    inputFileRenamedFolder + inputFileName + inputFileRenamedSuffix + instant);
 
-                toyRobotService.move();
-            } else if (command.equals(Command.LEFT.name())) {
-                // LEFT command
+            inputFile.renameTo(renamedFile);
+        } catch (FileNotFoundException e) {
+            // No file input, just proceed
+        } catch (IOException e) {
 
-                toyRobotService.left();
-            } else if (command.equals(Command.RIGHT.name())) {
-                // RIGHT command
+            System.out.println(ERROR_MSG_IO_EXCEPTION);
+            log.error(ERROR_MSG_IO_EXCEPTION);
+        }
+    }
 
-                toyRobotService.right();
-            } else if (command.equals(Command.REPORT.name())) {
-                // REPORT command
+    /**
+     * Handle the user input. This may be a command from file or by manual input at command line.
+     *
+     * @param usrInput
+     */
+    private void handleUserInput(String usrInput) {
+        World world = sessionService.getDefaultWorld();
+        StringBuilder report = new StringBuilder(64);
 
-                System.out.println(toyRobotService.report());
-            } else if (command.equals(Command.PLACE_OBSTACLE.name())) {
-                // PLACE_OBSTACLE command
+        Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(usrInput), report);
 
-                toyRobotService.placeObstacle();
-            }
-        } catch (IllegalArgumentException exception) {
-            System.out.println(exception.getMessage());
+        if (outcome.isRejected()) {
+            System.out.println(validationService.logRejection(outcome, world));
+        } else if (report.length() > 0) {
+            System.out.println(report);
         }
     }
 }
@@ -3,8 +3,11 @@ package com.somecompany.configuration;
 import com.somecompany.model.Grid;
 import com.somecompany.model.Obstacle;
 import com.somecompany.model.Robot;
+import com.somecompany.model.World;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Configurations for the Toy Robot application.
@@ -12,6 +15,7 @@ import org.springframework.context.annotation.Configuration;
  * @author N/A
  */
 @Configuration
+@EnableScheduling
 public class ToyRobotConfiguration {
 
     /**
@@ -41,4 +45,19 @@ public class ToyRobotConfiguration {
         Grid grid = new Grid();
         return grid;
     }
+
+    /**
+     * World bean of the default session, i.e. the one used by the console and the session-less API endpoints.
+     *
+     * @return World bean
+     */
+    @Bean("world")
+    public World getWorld(@Qualifier("robot") Robot robot, @Qualifier("obstacle") Obstacle obstacle,
+                          @Qualifier("grid") Grid grid) {
+        World world = new World();
+        world.setRobot(robot);
+        world.setObstacle(obstacle);
+        world.setGrid(grid);
+        return world;
+    }
 }
@@ -0,0 +1,84 @@
+package com.somecompany.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configurations of the threads which run HTTP requests and file-processing jobs.
+ * <p>
+ * With "threads.virtual" set to true on a JDK which has virtual threads (21 or later), every HTTP request served by
+ * Tomcat and every file-processing job runs on a virtual thread of its own, so that a request blocked on a slow client
+ * no longer holds one of the (by default 200) platform threads of Tomcat. The application still targets Java 8, so the
+ * virtual thread executor is looked up reflectively, and platform threads are used if it is not available.
+ *
+ * @author N/A
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfiguration {
+
+    /**
+     * Executor of file-processing jobs, and of the requests of Tomcat with virtual threads: one virtual thread per
+     * task, or a platform thread per job otherwise.
+     *
+     * @param virtualThreads
+     * @return ExecutorService bean
+     */
+    @Bean(name = "jobExecutor", destroyMethod = "shutdown")
+    public ExecutorService getJobExecutor(@Value("${threads.virtual}") boolean virtualThreads) {
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+            if (executor != null) {
+                return executor;
+            }
+        }
+
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Serve every request of Tomcat on a virtual thread of its own, by the executor of file-processing jobs. Tomcat
+     * does not shut down an executor it has been given, the executor bean is shut down with the context instead.
+     * Without virtual threads Tomcat keeps its own (bounded) pool rather than the unbounded pool of the jobs.
+     *
+     * @param jobExecutor
+     * @return TomcatProtocolHandlerCustomizer bean
+     */
+    @Bean
+    @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+    @ConditionalOnProperty(name = "threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            @Qualifier("jobExecutor") ExecutorService jobExecutor) {
+        return protocolHandler -> {
+            if (!(jobExecutor instanceof ThreadPoolExecutor)) {
+                protocolHandler.setExecutor(jobExecutor);
+            }
+        };
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for each task.
+     *
+     * @return ExecutorService, or null if the JDK has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exception) {
+            log.warn("Virtual threads are not available on Java {}, using platform threads",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
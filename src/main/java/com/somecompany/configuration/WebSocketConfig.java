@@ -0,0 +1,51 @@
+package com.somecompany.configuration;
+
+import com.somecompany.controller.ToyRobotWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.ServletWebSocketHandlerRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * WebSocket configuration of the servlet stack, i.e. the "/api/toyrobot/ws" endpoint.
+ * <p>
+ * The message buffers of each connection are limited to "webSocket.maxMessageSize" characters (instead of 8K), since
+ * a command is only a few characters long and the buffers would otherwise make up most of the memory of an open
+ * connection.
+ *
+ * @author N/A
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private ToyRobotWebSocketHandler toyRobotWebSocketHandler;
+
+    @Value("${webSocket.maxMessageSize}")
+    private int maxMessageSize;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(toyRobotWebSocketHandler, "/api/toyrobot/ws");
+
+        // Ahead of the controller, whose "DELETE /api/toyrobot/{sessionId}" would otherwise reject the handshake
+        ((ServletWebSocketHandlerRegistry) registry).setOrder(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageSize);
+        container.setMaxBinaryMessageBufferSize(maxMessageSize);
+        return container;
+    }
+}
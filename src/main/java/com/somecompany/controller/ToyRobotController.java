@@ -1,123 +1,486 @@
 package com.somecompany.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.somecompany.model.Command;
+import com.somecompany.model.CommandBatch;
+import com.somecompany.model.CommandBatchResult;
 import com.somecompany.model.Location;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.RenderedReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.CommandStreamService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.SnapshotService;
 import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import com.somecompany.service.WatchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+
+/**
+ * API endpoints of the Toy Robot application.
+ * <p>
+ * Every endpoint is available both for the default session (e.g. "/api/toyrobot/move") and for a named session (e.g.
+ * "/api/toyrobot/{sessionId}/move"). A named session is created with the default grid size by its first command.
+ * <p>
+ * Served on the servlet stack, i.e. unless "spring.main.web-application-type" is reactive, see
+ * {@link ToyRobotRouter}.
+ *
+ * @author N/A
+ */
 @RestController
 @RequestMapping("/api/toyrobot")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ToyRobotController {
 
+    private static final String SESSION_PATH = "/{sessionId:[\\w-]+}";
+
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private ToyRobotService toyRobotService;
 
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private CommandStreamService commandStreamService;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private WatchService watchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Value("${errorMsg.invalidApiParams}")
     private String ERROR_INVALID_API_PARAMS;
 
+    @Value("${errorMsg.ioException}")
+    private String ERROR_MSG_IO_EXCEPTION;
+
     /**
      * API endpoint for "REPORT" function.
+     * <p>
+     * The responses which show the location of the robot (REPORT, MOVE, LEFT and RIGHT) carry its version as ETag.
+     * PLACE, PLACE_OBSTACLE, MOVE, LEFT and RIGHT accept it as If-Match header and are rejected with 412 Precondition
+     * Failed if the robot has been changed since.
+     * <p>
+     * REPORT answers 304 Not Modified without a body if the If-None-Match header holds the current version, e.g. for
+     * dashboards which poll it. Otherwise the report rendered for the current version is reused, if any.
      *
+     * @param request
      * @return ResponseEntity<String>
      */
     @GetMapping("/report")
-    public ResponseEntity<Mono<String>> report() {
+    public ResponseEntity<Mono<String>> report(HttpServletRequest request) {
+        return report(sessionService.getDefaultWorld(), request);
+    }
 
-        try {
-            return ResponseEntity.status(HttpStatus.OK).body(Mono.just(toyRobotService.report()));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
+    /**
+     * API endpoint for "REPORT" function of a session. Answers 404 Not Found if the session does not exist, rather
+     * than creating it.
+     *
+     * @param sessionId
+     * @param request
+     * @return ResponseEntity<String>
+     */
+    @GetMapping(SESSION_PATH + "/report")
+    public ResponseEntity<Mono<String>> report(@PathVariable String sessionId, HttpServletRequest request) {
+        World world = sessionService.findWorld(sessionId);
+
+        if (world == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Mono.just(ERROR_INVALID_API_PARAMS));
         }
+
+        return report(world, request);
+    }
+
+    /**
+     * API endpoint for "REPORT" function as long poll, e.g. "/api/toyrobot/report?sinceVersion=42&timeout=30s". The
+     * request waits, without holding a thread, until the version of the robot exceeds "sinceVersion" and then answers
+     * the new REPORT. It answers 304 Not Modified if the version has not been exceeded within the timeout, which
+     * defaults to "watch.pollTimeoutMs".
+     *
+     * @param sinceVersion
+     * @param timeout      e.g. "30s" or "500ms", in seconds if no unit is given
+     * @return DeferredResult<ResponseEntity<String>>
+     */
+    @GetMapping(value = "/report", params = "sinceVersion")
+    public DeferredResult<ResponseEntity<String>> report(@RequestParam String sinceVersion,
+            @RequestParam(required = false) String timeout) {
+        return report(sessionService.getDefaultWorld(), sinceVersion, timeout);
+    }
+
+    /**
+     * API endpoint for "REPORT" function of a session as long poll. Answers 404 Not Found if the session does not
+     * exist.
+     *
+     * @param sessionId
+     * @param sinceVersion
+     * @param timeout
+     * @return DeferredResult<ResponseEntity<String>>
+     */
+    @GetMapping(value = SESSION_PATH + "/report", params = "sinceVersion")
+    public DeferredResult<ResponseEntity<String>> report(@PathVariable String sessionId,
+            @RequestParam String sinceVersion, @RequestParam(required = false) String timeout) {
+        World world = sessionService.findWorld(sessionId);
+
+        if (world == null) {
+            DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ERROR_INVALID_API_PARAMS));
+            return result;
+        }
+
+        return report(world, sinceVersion, timeout);
+    }
+
+    /**
+     * API endpoint for watching the "REPORT" of the robot as Server-Sent Events, i.e. an event with the report and
+     * the version of the robot as id whenever it changes. A slow client skips to the latest report.
+     *
+     * @return Flux<ServerSentEvent<String>>
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> events() {
+        return watchService.events(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * API endpoint for watching the "REPORT" of the robot of a session as Server-Sent Events. Answers 404 Not Found
+     * if the session does not exist.
+     *
+     * @param sessionId
+     * @return ResponseEntity<Flux<ServerSentEvent<String>>>
+     */
+    @GetMapping(value = SESSION_PATH + "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<String>>> events(@PathVariable String sessionId) {
+        World world = sessionService.findWorld(sessionId);
+
+        if (world == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        return ResponseEntity.ok(watchService.events(world));
     }
 
     /**
      * API endpoint for "PLACE" function.
      *
      * @param location
+     * @param ifMatch  expected version of the robot, see {@link #report(HttpServletRequest)}
      * @return ResponseEntity<String>
      */
     @PutMapping("/place")
-    public ResponseEntity<Mono<String>> place(@RequestBody Location location) {
-
-        try {
-            toyRobotService.place(String.valueOf(location.getXCor()), String.valueOf(location.getYCor()),
-                    location.getFacing().name());
-            return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully placed robot on grid."));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
-        }
+    public ResponseEntity<Mono<String>> place(@RequestBody Location location,
+                                              @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return place(sessionService.getDefaultWorld(), location, ifMatch);
+    }
 
+    /**
+     * API endpoint for "PLACE" function of a session.
+     *
+     * @param sessionId
+     * @param location
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<String>
+     */
+    @PutMapping(SESSION_PATH + "/place")
+    public ResponseEntity<Mono<String>> place(@PathVariable String sessionId, @RequestBody Location location,
+                                              @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return place(sessionService.getWorld(sessionId), location, ifMatch);
     }
 
     /**
      * API endpoint for "PLACE_OBSTACLE" function.
      *
+     * @param ifMatch expected version of the robot, see {@link #report(HttpServletRequest)}
      * @return ResponseEntity<String>
      */
     @PutMapping("/placeObstacle")
-    public ResponseEntity<Mono<String>> placeObstacle() {
+    public ResponseEntity<Mono<String>> placeObstacle(
+            @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return placeObstacle(sessionService.getDefaultWorld(), ifMatch);
+    }
 
-        try {
-            toyRobotService.placeObstacle();
-            return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully placed obstacle on grid."));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
-        }
+    /**
+     * API endpoint for "PLACE_OBSTACLE" function of a session.
+     *
+     * @param sessionId
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<String>
+     */
+    @PutMapping(SESSION_PATH + "/placeObstacle")
+    public ResponseEntity<Mono<String>> placeObstacle(
+            @PathVariable String sessionId, @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return placeObstacle(sessionService.getWorld(sessionId), ifMatch);
+    }
+
+    /**
+     * API endpoint for adding obstacles in bulk.
+     *
+     * @param locations of the obstacles
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PutMapping("/obstacles")
+    public ResponseEntity<Mono<String>> addObstacles(@RequestBody List<Location> locations) {
+        return addObstacles(sessionService.getDefaultWorld(), locations);
+    }
+
+    /**
+     * API endpoint for adding obstacles of a session in bulk.
+     *
+     * @param sessionId
+     * @param locations of the obstacles
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PutMapping(SESSION_PATH + "/obstacles")
+    public ResponseEntity<Mono<String>> addObstacles(@PathVariable String sessionId,
+                                                     @RequestBody List<Location> locations) {
+        return addObstacles(sessionService.getWorld(sessionId), locations);
+    }
+
+    /**
+     * API endpoint for removing obstacles in bulk.
+     *
+     * @param locations of the obstacles
+     * @return ResponseEntity<Mono < String>>
+     */
+    @DeleteMapping("/obstacles")
+    public ResponseEntity<Mono<String>> removeObstacles(@RequestBody List<Location> locations) {
+        return removeObstacles(sessionService.getDefaultWorld(), locations);
+    }
+
+    /**
+     * API endpoint for removing obstacles of a session in bulk.
+     *
+     * @param sessionId
+     * @param locations of the obstacles
+     * @return ResponseEntity<Mono < String>>
+     */
+    @DeleteMapping(SESSION_PATH + "/obstacles")
+    public ResponseEntity<Mono<String>> removeObstacles(@PathVariable String sessionId,
+                                                        @RequestBody List<Location> locations) {
+        return removeObstacles(sessionService.getWorld(sessionId), locations);
     }
 
     /**
      * API endpoint for "MOVE" function.
      *
+     * @param ifMatch expected version of the robot, see {@link #report(HttpServletRequest)}
      * @return ResponseEntity<Mono < String>>
      */
     @PostMapping("/move")
-    public ResponseEntity<Mono<String>> move() {
+    public ResponseEntity<Mono<String>> move(@RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return move(sessionService.getDefaultWorld(), ifMatch);
+    }
 
-        try {
-            toyRobotService.move();
-            return ResponseEntity.status(HttpStatus.OK)
-                    .body(Mono.just("Successfully moved robot, new location is " + toyRobotService.report()));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
-        }
+    /**
+     * API endpoint for "MOVE" function of a session.
+     *
+     * @param sessionId
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping(SESSION_PATH + "/move")
+    public ResponseEntity<Mono<String>> move(@PathVariable String sessionId,
+                                             @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return move(sessionService.getWorld(sessionId), ifMatch);
     }
 
     /**
      * API endpoint for "LEFT" function.
      *
+     * @param ifMatch expected version of the robot, see {@link #report(HttpServletRequest)}
      * @return ResponseEntity<Mono < String>>
      */
     @PostMapping("/left")
-    public ResponseEntity<Mono<String>> left() {
+    public ResponseEntity<Mono<String>> left(@RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return left(sessionService.getDefaultWorld(), ifMatch);
+    }
 
-        try {
-            toyRobotService.left();
-            return ResponseEntity.status(HttpStatus.OK)
-                    .body(Mono.just("Successfully turned robot to the left, new location is " + toyRobotService.report()));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
-        }
+    /**
+     * API endpoint for "LEFT" function of a session.
+     *
+     * @param sessionId
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping(SESSION_PATH + "/left")
+    public ResponseEntity<Mono<String>> left(@PathVariable String sessionId,
+                                             @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return left(sessionService.getWorld(sessionId), ifMatch);
     }
 
     /**
      * API endpoint for "RIGHT" function.
      *
+     * @param ifMatch expected version of the robot, see {@link #report(HttpServletRequest)}
      * @return ResponseEntity<Mono < String>>
      */
     @PostMapping("/right")
-    public ResponseEntity<Mono<String>> right() {
+    public ResponseEntity<Mono<String>> right(@RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return right(sessionService.getDefaultWorld(), ifMatch);
+    }
+
+    /**
+     * API endpoint for "RIGHT" function of a session.
+     *
+     * @param sessionId
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping(SESSION_PATH + "/right")
+    public ResponseEntity<Mono<String>> right(@PathVariable String sessionId,
+                                              @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return right(sessionService.getWorld(sessionId), ifMatch);
+    }
+
+    /**
+     * API endpoint for "GOTO" function, i.e. moving the robot to a location by the shortest sequence of MOVE, LEFT and
+     * RIGHT commands around the obstacles. The robot may end up in any facing if the location has none.
+     *
+     * @param location to go to
+     * @param ifMatch  expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping("/goto")
+    public ResponseEntity<Mono<String>> goTo(@RequestBody Location location,
+                                             @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return goTo(sessionService.getDefaultWorld(), location, ifMatch);
+    }
+
+    /**
+     * API endpoint for "GOTO" function of a session.
+     *
+     * @param sessionId
+     * @param location  to go to
+     * @param ifMatch   expected version of the robot, see {@link #report(HttpServletRequest)}
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping(SESSION_PATH + "/goto")
+    public ResponseEntity<Mono<String>> goTo(@PathVariable String sessionId, @RequestBody Location location,
+                                             @RequestHeader(value = IF_MATCH, required = false) String ifMatch) {
+        return goTo(sessionService.getWorld(sessionId), location, ifMatch);
+    }
+
+    /**
+     * API endpoint for running a batch of commands.
+     *
+     * @param batch
+     * @return ResponseEntity<Mono < CommandBatchResult>>, or the error message if the batch has no commands
+     */
+    @PostMapping("/commands")
+    public ResponseEntity<Mono<?>> commands(@RequestBody CommandBatch batch) {
+        return commands(sessionService.getDefaultWorld(), batch);
+    }
+
+    /**
+     * API endpoint for running a batch of commands of a session.
+     *
+     * @param sessionId
+     * @param batch
+     * @return ResponseEntity<Mono < CommandBatchResult>>, or the error message if the batch has no commands
+     */
+    @PostMapping(SESSION_PATH + "/commands")
+    public ResponseEntity<Mono<?>> commands(@PathVariable String sessionId, @RequestBody CommandBatch batch) {
+        return commands(sessionService.getWorld(sessionId), batch);
+    }
+
+    /**
+     * API endpoint for streaming commands. The request body is a stream of newline delimited commands, the response
+     * is a stream of newline delimited JSON with the result of each REPORT command and each rejected command.
+     *
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @PostMapping(value = "/stream", produces = NDJSON)
+    public void stream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(sessionService.getDefaultWorld(), request, response);
+    }
+
+    /**
+     * API endpoint for streaming commands of a session.
+     *
+     * @param sessionId
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @PostMapping(value = SESSION_PATH + "/stream", produces = NDJSON)
+    public void stream(@PathVariable String sessionId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        stream(sessionService.getWorld(sessionId), request, response);
+    }
+
+    /**
+     * API endpoint for ending a session and discarding its world.
+     *
+     * @param sessionId
+     * @return ResponseEntity<Mono < String>>
+     */
+    @DeleteMapping(SESSION_PATH)
+    public ResponseEntity<Mono<String>> endSession(@PathVariable String sessionId) {
+
+        if (sessionService.removeSession(sessionId)) {
+            return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully ended session."));
+        }
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Mono.just(ERROR_INVALID_API_PARAMS));
+    }
+
+    /**
+     * API endpoint for taking a snapshot of the worlds of all sessions, see {@link SnapshotService}.
+     *
+     * @return ResponseEntity<Mono < String>>
+     */
+    @PostMapping("/snapshots")
+    public ResponseEntity<Mono<String>> snapshot() {
+
+        if (!snapshotService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Mono.just(ERROR_INVALID_API_PARAMS));
+        }
 
         try {
-            toyRobotService.right();
-            return ResponseEntity.status(HttpStatus.OK)
-                    .body(Mono.just("Successfully turned robot to the left, new location is " + toyRobotService.report()));
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
+            snapshotService.takeSnapshot();
+            return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully taken snapshot."));
+        } catch (IOException exception) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Mono.just(ERROR_MSG_IO_EXCEPTION));
         }
     }
 
@@ -131,4 +494,194 @@ public class ToyRobotController {
 
         return ResponseEntity.badRequest().body(ERROR_INVALID_API_PARAMS);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<Mono<String>> report(World world, HttpServletRequest request) {
+
+        long state = world.getRobot().getState();
+
+        if (RobotState.hasLocation(state)) {
+            String eTag = validationService.getETag(world, state);
+
+            if (new ServletWebRequest(request).checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
+        RenderedReport report = toyRobotService.applyRenderedReport(world);
+
+        if (report == null) {
+            return rejected(world, Outcome.NO_LOCATION);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(validationService.getETag(world, report.getState()))
+                .body(Mono.just(report.getText()));
+    }
+
+    private DeferredResult<ResponseEntity<String>> report(World world, String sinceVersion, String timeout) {
+
+        long version = validationService.parseSinceVersion(sinceVersion);
+        Duration pollTimeout = validationService.parsePollTimeout(timeout);
+
+        if (version < 0 || pollTimeout == null) {
+            DeferredResult<ResponseEntity<String>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.badRequest().body(ERROR_INVALID_API_PARAMS));
+            return result;
+        }
+
+        // The timeout of the request is a backstop only, the poll itself times out first
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(pollTimeout.toMillis() + 5000);
+
+        Disposable subscription = watchService.await(world, version, pollTimeout)
+                .map(report -> ResponseEntity.status(HttpStatus.OK)
+                        .eTag(validationService.getETag(world, report.getState())).body(report.getText()))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build())
+                .subscribe(result::setResult, result::setErrorResult);
+
+        // Stop watching once the request is over, e.g. when the client has gone away
+        result.onTimeout(() -> result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+        result.onCompletion(subscription::dispose);
+
+        return result;
+    }
+
+    private ResponseEntity<Mono<String>> place(World world, Location location, String ifMatch) {
+
+        Outcome outcome = toyRobotService.applyPlace(world, ParsedCommand.parsePlace(
+                String.valueOf(location.getXCor()), String.valueOf(location.getYCor()),
+                location.getFacing() == null ? null : location.getFacing().name()),
+                validationService.parseIfMatch(world, ifMatch));
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully placed robot on grid."));
+    }
+
+    private ResponseEntity<Mono<String>> placeObstacle(World world, String ifMatch) {
+
+        Outcome outcome = toyRobotService.applyPlaceObstacle(world, validationService.parseIfMatch(world, ifMatch));
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully placed obstacle on grid."));
+    }
+
+    private ResponseEntity<Mono<?>> commands(World world, CommandBatch batch) {
+
+        try {
+            CommandBatchResult result = batchService.run(world, batch);
+
+            // An atomic batch that has been rolled back is a bad request as a whole
+            HttpStatus status = result.isSuccess() || !batch.isAtomic() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(Mono.just(result));
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.TEXT_PLAIN)
+                    .body(Mono.just(exception.getMessage()));
+        }
+    }
+
+    private void stream(World world, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+
+        BufferedReader reader = request.getReader();
+        OutputStream out = response.getOutputStream();
+
+        // The servlet streams are blocking: a command is only read once the previous result has been written, so a
+        // slow client slows down reading instead of building up a queue. Flush whenever no more input is buffered.
+        commandStreamService.pipe(world, Flux.fromStream(reader.lines())).doOnNext(result -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+
+                if (!reader.ready()) {
+                    out.flush();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }).blockLast();
+
+        out.flush();
+    }
+
+    private ResponseEntity<Mono<String>> addObstacles(World world, List<Location> locations) {
+
+        try {
+            int added = toyRobotService.addObstacles(world, locations);
+            return ResponseEntity.status(HttpStatus.OK).body(Mono.just("Successfully added " + added + " obstacle(s)."));
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Mono<String>> removeObstacles(World world, List<Location> locations) {
+
+        try {
+            int removed = toyRobotService.removeObstacles(world, locations);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(Mono.just("Successfully removed " + removed + " obstacle(s)."));
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Mono.just(exception.getMessage()));
+        }
+    }
+
+    private ResponseEntity<Mono<String>> move(World world, String ifMatch) {
+        return transition(world, Command.MOVE, ifMatch, "Successfully moved robot, new location is ");
+    }
+
+    private ResponseEntity<Mono<String>> left(World world, String ifMatch) {
+        return transition(world, Command.LEFT, ifMatch, "Successfully turned robot to the left, new location is ");
+    }
+
+    private ResponseEntity<Mono<String>> right(World world, String ifMatch) {
+        return transition(world, Command.RIGHT, ifMatch, "Successfully turned robot to the left, new location is ");
+    }
+
+    private ResponseEntity<Mono<String>> goTo(World world, Location location, String ifMatch) {
+        StringBuilder report = new StringBuilder(128).append("Successfully moved robot by ");
+        int length = report.length();
+
+        Outcome outcome = toyRobotService.applyGoto(world, ParsedCommand.parseGoto(
+                String.valueOf(location.getXCor()), String.valueOf(location.getYCor()),
+                location.getFacing() == null ? null : location.getFacing().name()),
+                validationService.parseIfMatch(world, ifMatch), report);
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        report.append(report.length() == length ? "no command" : "").append(", new location is ");
+        long state = toyRobotService.appendReport(world, world.getRobot().getState(), report);
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(validationService.getETag(world, state))
+                .body(Mono.just(report.toString()));
+    }
+
+    private ResponseEntity<Mono<String>> transition(World world, Command command, String ifMatch,
+                                                    String successMessage) {
+        long result = toyRobotService.applyTransition(world, command.ordinal(),
+                validationService.parseIfMatch(world, ifMatch));
+        Outcome outcome = validationService.checkTransition(result);
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        StringBuilder report = new StringBuilder(128).append(successMessage);
+        long state = toyRobotService.appendReport(world, result, report);
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(validationService.getETag(world, state))
+                .body(Mono.just(report.toString()));
+    }
+
+    private ResponseEntity<Mono<String>> rejected(World world, Outcome outcome) {
+        // A command rejected by an If-Match header has failed its precondition rather than being a bad request
+        HttpStatus status = outcome == Outcome.VERSION_MISMATCH ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.BAD_REQUEST;
+
+        return ResponseEntity.status(status).body(Mono.just(validationService.logRejection(outcome, world)));
+    }
+}
@@ -0,0 +1,386 @@
+package com.somecompany.controller;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.CommandBatch;
+import com.somecompany.model.CommandBatchResult;
+import com.somecompany.model.CommandResult;
+import com.somecompany.model.Location;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.RenderedReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.CommandStreamService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.SnapshotService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import com.somecompany.service.WatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Handlers of the functional routes of the Toy Robot API, see {@link ToyRobotRouter}.
+ * <p>
+ * The commands themselves are short, so they run right on the event loop. Only reading the request body and writing
+ * the response are asynchronous, and taking a snapshot runs on a worker thread. A command may still block the event
+ * loop for a while: with "journal.fsync" ALWAYS it waits until its journal record has been forced to disk, it maps
+ * the next journal segment when the current one is full, and it waits for the lock of its world while a batch or a
+ * change of the obstacles runs on it. Prefer "journal.fsync" INTERVAL with the reactive stack.
+ *
+ * @author N/A
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ToyRobotHandler {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private static final ParameterizedTypeReference<List<Location>> LOCATIONS =
+            new ParameterizedTypeReference<List<Location>>() {
+            };
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private CommandStreamService commandStreamService;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private WatchService watchService;
+
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_INVALID_API_PARAMS;
+
+    @Value("${errorMsg.ioException}")
+    private String ERROR_MSG_IO_EXCEPTION;
+
+    /**
+     * Answer 304 Not Modified if the If-None-Match header holds the current version, otherwise write the report
+     * rendered for the current version as is, see {@link ToyRobotService#applyRenderedReport}. With a "sinceVersion"
+     * query parameter, wait for the version to exceed it first, see {@link WatchService#await}.
+     */
+    public Mono<ServerResponse> report(ServerRequest request) {
+        World world = findWorld(request);
+
+        if (world == null) {
+            return ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(ERROR_INVALID_API_PARAMS);
+        }
+
+        Optional<String> sinceVersion = request.queryParam("sinceVersion");
+
+        if (sinceVersion.isPresent()) {
+            return awaitReport(world, sinceVersion.get(), request.queryParam("timeout").orElse(null));
+        }
+
+        long state = world.getRobot().getState();
+
+        if (RobotState.hasLocation(state)) {
+            // Empty unless not modified
+            return request.checkNotModified(validationService.getETag(world, state))
+                    .switchIfEmpty(Mono.defer(() -> report(world)));
+        }
+
+        return report(world);
+    }
+
+    public Mono<ServerResponse> events(ServerRequest request) {
+        World world = findWorld(request);
+
+        if (world == null) {
+            return ServerResponse.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(watchService.events(world)));
+    }
+
+    public Mono<ServerResponse> place(ServerRequest request) {
+        World world = getWorld(request);
+
+        return readBody(request.bodyToMono(Location.class).flatMap(location -> {
+            Outcome outcome = toyRobotService.applyPlace(world, ParsedCommand.parsePlace(
+                    String.valueOf(location.getXCor()), String.valueOf(location.getYCor()),
+                    location.getFacing() == null ? null : location.getFacing().name()), ifMatch(world, request));
+
+            if (outcome.isRejected()) {
+                return rejected(world, outcome);
+            }
+
+            return ok("Successfully placed robot on grid.");
+        }));
+    }
+
+    public Mono<ServerResponse> placeObstacle(ServerRequest request) {
+        World world = getWorld(request);
+        Outcome outcome = toyRobotService.applyPlaceObstacle(world, ifMatch(world, request));
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        return ok("Successfully placed obstacle on grid.");
+    }
+
+    public Mono<ServerResponse> addObstacles(ServerRequest request) {
+        World world = getWorld(request);
+
+        return readBody(request.bodyToMono(LOCATIONS).flatMap(locations -> {
+            try {
+                int added = toyRobotService.addObstacles(world, locations);
+                return ok("Successfully added " + added + " obstacle(s).");
+            } catch (IllegalArgumentException exception) {
+                return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(exception.getMessage());
+            }
+        }));
+    }
+
+    public Mono<ServerResponse> removeObstacles(ServerRequest request) {
+        World world = getWorld(request);
+
+        return readBody(request.bodyToMono(LOCATIONS).flatMap(locations -> {
+            try {
+                int removed = toyRobotService.removeObstacles(world, locations);
+                return ok("Successfully removed " + removed + " obstacle(s).");
+            } catch (IllegalArgumentException exception) {
+                return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(exception.getMessage());
+            }
+        }));
+    }
+
+    public Mono<ServerResponse> move(ServerRequest request) {
+        return transition(request, Command.MOVE, "Successfully moved robot, new location is ");
+    }
+
+    public Mono<ServerResponse> left(ServerRequest request) {
+        return transition(request, Command.LEFT, "Successfully turned robot to the left, new location is ");
+    }
+
+    public Mono<ServerResponse> right(ServerRequest request) {
+        return transition(request, Command.RIGHT, "Successfully turned robot to the left, new location is ");
+    }
+
+    public Mono<ServerResponse> goTo(ServerRequest request) {
+        World world = getWorld(request);
+
+        return readBody(request.bodyToMono(Location.class).flatMap(location -> {
+            StringBuilder report = new StringBuilder(128).append("Successfully moved robot by ");
+            int length = report.length();
+
+            Outcome outcome = toyRobotService.applyGoto(world, ParsedCommand.parseGoto(
+                    String.valueOf(location.getXCor()), String.valueOf(location.getYCor()),
+                    location.getFacing() == null ? null : location.getFacing().name()), ifMatch(world, request),
+                    report);
+
+            if (outcome.isRejected()) {
+                return rejected(world, outcome);
+            }
+
+            report.append(report.length() == length ? "no command" : "").append(", new location is ");
+            long state = toyRobotService.appendReport(world, world.getRobot().getState(), report);
+
+            return ok(world, report.toString(), state);
+        }));
+    }
+
+    public Mono<ServerResponse> commands(ServerRequest request) {
+        World world = getWorld(request);
+
+        return readBody(request.bodyToMono(CommandBatch.class).flatMap(batch -> {
+            CommandBatchResult result;
+
+            try {
+                result = batchService.run(world, batch);
+            } catch (IllegalArgumentException exception) {
+                return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(exception.getMessage());
+            }
+
+            // An atomic batch that has been rolled back is a bad request as a whole
+            HttpStatus status = result.isSuccess() || !batch.isAtomic() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+            return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(result);
+        }));
+    }
+
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        // The body is decoded line by line, and a line is only requested once the previous result has been written
+        return ServerResponse.ok().contentType(NDJSON)
+                .body(commandStreamService.pipe(getWorld(request), request.bodyToFlux(String.class)),
+                        CommandResult.class);
+    }
+
+    public Mono<ServerResponse> endSession(ServerRequest request) {
+
+        if (sessionService.removeSession(request.pathVariable("sessionId"))) {
+            return ok("Successfully ended session.");
+        }
+
+        return ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(ERROR_INVALID_API_PARAMS);
+    }
+
+    public Mono<ServerResponse> snapshot(ServerRequest request) {
+
+        if (!snapshotService.isEnabled()) {
+            return ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(ERROR_INVALID_API_PARAMS);
+        }
+
+        // Writing the snapshot waits for the disk, so it runs off the event loop
+        return Mono.fromCallable(snapshotService::takeSnapshot).subscribeOn(Schedulers.boundedElastic())
+                .flatMap(file -> ok("Successfully taken snapshot."))
+                .onErrorResume(IOException.class, exception -> ServerResponse
+                        .status(HttpStatus.INTERNAL_SERVER_ERROR).bodyValue(ERROR_MSG_IO_EXCEPTION));
+    }
+
+    /**
+     * WebSocket command channel, the same as {@link ToyRobotWebSocketHandler} on the servlet stack: each connection
+     * owns a world, every message is one command, and REPORT outputs and the codes of rejected commands are sent back.
+     *
+     * @param session
+     * @return Completion of the connection
+     */
+    public Mono<Void> webSocket(WebSocketSession session) {
+        World world = sessionService.createWorld();
+
+        return session.send(session.receive().handle((message, sink) -> {
+            StringBuilder report = new StringBuilder(64);
+
+            Outcome outcome = toyRobotService.applyCommand(world,
+                    ParsedCommand.parse(ToyRobotWebSocketHandler.stripLineBreak(message.getPayloadAsText())), report);
+
+            if (outcome.isRejected()) {
+                validationService.logRejection(outcome, world);
+                sink.next(session.textMessage(outcome.name()));
+            } else if (report.length() > 0) {
+                sink.next(session.textMessage(report.toString()));
+            }
+        }));
+    }
+
+    private Mono<ServerResponse> transition(ServerRequest request, Command command, String successMessage) {
+        World world = getWorld(request);
+        long result = toyRobotService.applyTransition(world, command.ordinal(), ifMatch(world, request));
+        Outcome outcome = validationService.checkTransition(result);
+
+        if (outcome.isRejected()) {
+            return rejected(world, outcome);
+        }
+
+        StringBuilder report = new StringBuilder(128).append(successMessage);
+        long state = toyRobotService.appendReport(world, result, report);
+
+        return ok(world, report.toString(), state);
+    }
+
+    private long ifMatch(World world, ServerRequest request) {
+        return validationService.parseIfMatch(world,
+                request.headers().asHttpHeaders().getFirst(HttpHeaders.IF_MATCH));
+    }
+
+    private World getWorld(ServerRequest request) {
+        return request.pathVariables().containsKey("sessionId")
+                ? sessionService.getWorld(request.pathVariable("sessionId"))
+                : sessionService.getDefaultWorld();
+    }
+
+    /**
+     * Look up the world of the read-only endpoints without creating a session.
+     *
+     * @return World, or null if the session does not exist
+     */
+    private World findWorld(ServerRequest request) {
+        return request.pathVariables().containsKey("sessionId")
+                ? sessionService.findWorld(request.pathVariable("sessionId"))
+                : sessionService.getDefaultWorld();
+    }
+
+    /**
+     * Map a missing or unreadable request body to a bad request, like the servlet controller does.
+     */
+    private Mono<ServerResponse> readBody(Mono<ServerResponse> response) {
+        return response
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.badRequest().bodyValue(ERROR_INVALID_API_PARAMS)))
+                .onErrorResume(ServerWebInputException.class,
+                        exception -> ServerResponse.badRequest().bodyValue(ERROR_INVALID_API_PARAMS));
+    }
+
+    private Mono<ServerResponse> ok(String body) {
+        return ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).bodyValue(body);
+    }
+
+    private Mono<ServerResponse> report(World world) {
+        RenderedReport report = toyRobotService.applyRenderedReport(world);
+
+        if (report == null) {
+            return rejected(world, Outcome.NO_LOCATION);
+        }
+
+        return ServerResponse.ok().contentType(TEXT_PLAIN_UTF8)
+                .eTag(validationService.getETag(world, report.getState())).bodyValue(report.getBytes());
+    }
+
+    /**
+     * Wait for the version of the robot to exceed the given one, like the long poll of the servlet controller does.
+     */
+    private Mono<ServerResponse> awaitReport(World world, String sinceVersion, String timeout) {
+        long version = validationService.parseSinceVersion(sinceVersion);
+        Duration pollTimeout = validationService.parsePollTimeout(timeout);
+
+        if (version < 0 || pollTimeout == null) {
+            return ServerResponse.badRequest().bodyValue(ERROR_INVALID_API_PARAMS);
+        }
+
+        return watchService.await(world, version, pollTimeout)
+                .flatMap(report -> ServerResponse.ok().contentType(TEXT_PLAIN_UTF8)
+                        .eTag(validationService.getETag(world, report.getState())).bodyValue(report.getBytes()))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_MODIFIED).build()));
+    }
+
+    /**
+     * Respond with the report of a state of the robot, tagged with its entity tag like the servlet controller does.
+     */
+    private Mono<ServerResponse> ok(World world, String body, long state) {
+        return ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).eTag(validationService.getETag(world, state))
+                .bodyValue(body);
+    }
+
+    private Mono<ServerResponse> rejected(World world, Outcome outcome) {
+        HttpStatus status = outcome == Outcome.VERSION_MISMATCH ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.BAD_REQUEST;
+
+        return ServerResponse.status(status).contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(validationService.logRejection(outcome, world));
+    }
+}
@@ -0,0 +1,277 @@
+package com.somecompany.controller;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain-text line protocol server of the Toy Robot application, for local clients to which HTTP and JSON would cost
+ * far more than the commands themselves.
+ * <p>
+ * Enabled by "lineServer.enabled". It listens on TCP port "lineServer.port" and, if "lineServer.socketPath" is set, on
+ * a Unix domain socket at that path (Linux only, as it needs the native epoll transport). Every line sent is one
+ * command in the same format as on the console, applied to the world of the default session, and the output is the
+ * same as on the console too: one line with the output of each "REPORT" command, one line with the error message of
+ * each rejected command, and nothing for the other commands. A client can pipeline any number of commands; the
+ * outputs of all the commands read at once are written and flushed together.
+ * <p>
+ * The commands run right on the event loop of their connection, which they may block for a while, like on the
+ * reactive stack (see ToyRobotHandler): with "journal.fsync" ALWAYS until the journal record of each command has been
+ * forced to disk, so prefer INTERVAL with the line server.
+ * <p>
+ * The time from reading a command until its output is queued, i.e. before it is flushed with the outputs of the other
+ * commands read at once, is recorded by the "toyrobot.lineserver.latency" timer, whose median and 99th percentile are
+ * logged every "lineServer.statsIntervalMs" while there is traffic.
+ *
+ * @author N/A
+ */
+@Component
+@ConditionalOnProperty(name = "lineServer.enabled", havingValue = "true")
+@Slf4j
+public class ToyRobotLineServer {
+
+    private static final double[] PERCENTILES = {0.5, 0.99};
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${lineServer.port}")
+    private int port;
+
+    @Value("${lineServer.socketPath}")
+    private String socketPath;
+
+    @Value("${lineServer.maxLineLength}")
+    private int maxLineLength;
+
+    private EventLoopGroup bossGroup;
+
+    private EventLoopGroup workerGroup;
+
+    private Channel tcpChannel;
+
+    private Channel domainSocketChannel;
+
+    private Timer latency;
+
+    private long loggedCount;
+
+    @PostConstruct
+    public void start() throws InterruptedException {
+        latency = Timer.builder("toyrobot.lineserver.latency").publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+
+        boolean epoll = Epoll.isAvailable();
+        bossGroup = epoll ? new EpollEventLoopGroup(1) : new NioEventLoopGroup(1);
+        workerGroup = epoll ? new EpollEventLoopGroup() : new NioEventLoopGroup();
+
+        tcpChannel = bootstrap(epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true).bind(new InetSocketAddress(port)).sync().channel();
+
+        if (!socketPath.isEmpty()) {
+            if (epoll) {
+                // A socket file left over by a previous run would fail the bind
+                new File(socketPath).delete();
+                domainSocketChannel = bootstrap(EpollServerDomainSocketChannel.class)
+                        .bind(new DomainSocketAddress(socketPath)).sync().channel();
+            } else {
+                log.error("Unix domain sockets are not available on this platform, not listening on {}", socketPath);
+            }
+        }
+
+        log.info("Line server listening on port {}{}", getPort(),
+                domainSocketChannel == null ? "" : " and on " + socketPath);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (tcpChannel != null) {
+            tcpChannel.close().syncUninterruptibly();
+        }
+
+        if (domainSocketChannel != null) {
+            domainSocketChannel.close().syncUninterruptibly();
+        }
+
+        bossGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the TCP port the server is listening on, e.g. when "lineServer.port" is 0.
+     *
+     * @return TCP port
+     */
+    public int getPort() {
+        return ((InetSocketAddress) tcpChannel.localAddress()).getPort();
+    }
+
+    /**
+     * Log the median and the 99th percentile of the latency, if any command has been handled since the last time.
+     */
+    @Scheduled(fixedRateString = "${lineServer.statsIntervalMs}")
+    public void logLatency() {
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+
+        if (snapshot.count() == loggedCount) {
+            return;
+        }
+
+        loggedCount = snapshot.count();
+        ValueAtPercentile[] percentiles = snapshot.percentileValues();
+        log.info("Line server handled {} commands, latency p50 {} us, p99 {} us", snapshot.count(),
+                (long) percentiles[0].value(TimeUnit.MICROSECONDS), (long) percentiles[1].value(TimeUnit.MICROSECONDS));
+    }
+
+    private ServerBootstrap bootstrap(Class<? extends ServerChannel> channelClass) {
+        return new ServerBootstrap().group(bossGroup, workerGroup).channel(channelClass)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        channel.pipeline().addLast(new LineBasedFrameDecoder(maxLineLength), new LineHandler());
+                    }
+                });
+    }
+
+    /**
+     * Handler of the commands of one connection.
+     */
+    private class LineHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final World world = sessionService.getDefaultWorld();
+
+        private final StringBuilder report = new StringBuilder(64);
+
+        private final ByteBufSequence line = new ByteBufSequence();
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            long startNanos = System.nanoTime();
+
+            line.set(frame);
+            report.setLength(0);
+
+            Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(line), report);
+
+            if (outcome.isRejected()) {
+                write(ctx, validationService.logRejection(outcome, world));
+            } else if (report.length() > 0) {
+                write(ctx, report);
+            }
+
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            // Flush the outputs of all the commands read at once together
+            ctx.flush();
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+            // Stop reading commands from a client which does not read its outputs
+            ctx.channel().config().setAutoRead(ctx.channel().isWritable());
+            ctx.fireChannelWritabilityChanged();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (cause instanceof TooLongFrameException) {
+                // The rest of the line has been discarded, just like the line is not a valid command
+                write(ctx, validationService.logRejection(Outcome.INVALID_COMMAND, world));
+                return;
+            }
+
+            log.error("Closing line server connection {}", ctx.channel().remoteAddress(), cause);
+            ctx.close();
+        }
+
+        private void write(ChannelHandlerContext ctx, CharSequence output) {
+            ByteBuf buffer = ctx.alloc().buffer(output.length() + 1);
+            ByteBufUtil.writeAscii(buffer, output);
+            buffer.writeByte('\n');
+            ctx.write(buffer, ctx.voidPromise());
+        }
+    }
+
+    /**
+     * View of a line as a sequence of characters, so that it can be parsed without decoding it into a String.
+     */
+    private static class ByteBufSequence implements CharSequence {
+
+        private ByteBuf buffer;
+
+        private void set(ByteBuf buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.readableBytes();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.getByte(buffer.readerIndex() + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString(buffer.readerIndex(), buffer.readableBytes(), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.somecompany.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+
+import java.util.Collections;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Functional routes of the Toy Robot API on Reactor Netty.
+ * <p>
+ * Active when "spring.main.web-application-type" is reactive, in place of {@link ToyRobotController}. The endpoints
+ * are the same, both for the default session and for a named session. The routes of the default session come first,
+ * so that e.g. "DELETE /api/toyrobot/obstacles" is not taken for ending a session called "obstacles".
+ *
+ * @author N/A
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ToyRobotRouter {
+
+    private static final String API_PATH = "/api/toyrobot";
+
+    private static final String SESSION_PATH = API_PATH + "/{sessionId:[\\w-]+}";
+
+    /**
+     * Serve on Reactor Netty, which Spring Boot would otherwise pass over for Tomcat since both are on the classpath.
+     *
+     * @return NettyReactiveWebServerFactory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> toyRobotRoutes(ToyRobotHandler handler) {
+        return route()
+                .GET(API_PATH + "/report", handler::report)
+                .GET(API_PATH + "/events", handler::events)
+                .PUT(API_PATH + "/place", handler::place)
+                .PUT(API_PATH + "/placeObstacle", handler::placeObstacle)
+                .PUT(API_PATH + "/obstacles", handler::addObstacles)
+                .DELETE(API_PATH + "/obstacles", handler::removeObstacles)
+                .POST(API_PATH + "/move", handler::move)
+                .POST(API_PATH + "/left", handler::left)
+                .POST(API_PATH + "/right", handler::right)
+                .POST(API_PATH + "/goto", handler::goTo)
+                .POST(API_PATH + "/commands", handler::commands)
+                .POST(API_PATH + "/stream", handler::stream)
+                .POST(API_PATH + "/snapshots", handler::snapshot)
+                .GET(SESSION_PATH + "/report", handler::report)
+                .GET(SESSION_PATH + "/events", handler::events)
+                .PUT(SESSION_PATH + "/place", handler::place)
+                .PUT(SESSION_PATH + "/placeObstacle", handler::placeObstacle)
+                .PUT(SESSION_PATH + "/obstacles", handler::addObstacles)
+                .DELETE(SESSION_PATH + "/obstacles", handler::removeObstacles)
+                .POST(SESSION_PATH + "/move", handler::move)
+                .POST(SESSION_PATH + "/left", handler::left)
+                .POST(SESSION_PATH + "/right", handler::right)
+                .POST(SESSION_PATH + "/goto", handler::goTo)
+                .POST(SESSION_PATH + "/commands", handler::commands)
+                .POST(SESSION_PATH + "/stream", handler::stream)
+                .DELETE(SESSION_PATH, handler::endSession)
+                .build();
+    }
+
+    /**
+     * WebSocket endpoint, i.e. "/api/toyrobot/ws", see {@link ToyRobotHandler#webSocket}.
+     *
+     * @param handler
+     * @return HandlerMapping
+     */
+    @Bean
+    public HandlerMapping toyRobotWebSocketMapping(ToyRobotHandler handler) {
+        WebSocketHandler webSocketHandler = handler::webSocket;
+        return new SimpleUrlHandlerMapping(Collections.singletonMap(API_PATH + "/ws", webSocketHandler), -1);
+    }
+
+    /**
+     * Upgrade WebSocket handshakes on Reactor Netty, which Spring would otherwise pass over for Tomcat as well.
+     *
+     * @return WebSocketHandlerAdapter
+     */
+    @Bean
+    public WebSocketHandlerAdapter webSocketHandlerAdapter() {
+        return new WebSocketHandlerAdapter(new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.somecompany.controller;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+
+/**
+ * WebSocket command channel of the Toy Robot application on the servlet stack, see {@link com.somecompany.configuration.WebSocketConfig}.
+ * <p>
+ * Each connection owns a world of its own, created with the default grid size when the connection is established and
+ * discarded when it is closed. Every text message is one command in the same format as on the console. The output of
+ * a "REPORT" command is sent back as is, and a rejected command is answered with the code of its outcome, e.g.
+ * "ROBOT_FALL_OFF". Other commands are not answered.
+ * <p>
+ * The world is the only state kept per connection, i.e. a few small objects, so that a node can hold many open
+ * connections.
+ *
+ * @author N/A
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ToyRobotWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String WORLD_ATTRIBUTE = "world";
+
+    private static final TextMessage[] REJECTIONS = new TextMessage[Outcome.values().length];
+
+    static {
+        for (Outcome outcome : Outcome.values()) {
+            REJECTIONS[outcome.ordinal()] = new TextMessage(outcome.name());
+        }
+    }
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.getAttributes().put(WORLD_ATTRIBUTE, sessionService.createWorld());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        World world = (World) session.getAttributes().get(WORLD_ATTRIBUTE);
+        StringBuilder report = new StringBuilder(64);
+
+        Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(stripLineBreak(message.getPayload())),
+                report);
+
+        if (outcome.isRejected()) {
+            validationService.logRejection(outcome, world);
+            session.sendMessage(REJECTIONS[outcome.ordinal()]);
+        } else if (report.length() > 0) {
+            session.sendMessage(new TextMessage(report));
+        }
+    }
+
+    /**
+     * Strip the line break of a command, if any, as the console does not see it either.
+     *
+     * @param usrInput
+     * @return Command without line break
+     */
+    public static String stripLineBreak(String usrInput) {
+        int end = usrInput.length();
+
+        while (end > 0 && (usrInput.charAt(end - 1) == '\n' || usrInput.charAt(end - 1) == '\r')) {
+            end--;
+        }
+
+        return end == usrInput.length() ? usrInput : usrInput.substring(0, end);
+    }
+}
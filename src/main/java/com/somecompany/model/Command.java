@@ -2,9 +2,11 @@ package com.somecompany.model;
 
 /**
  * Allowed commands of the Toy Robot application.
+ * <p>
+ * GOTO is planned as a sequence of MOVE/LEFT/RIGHT commands, which are performed and journaled as such.
  *
  * @author N/A
  */
 public enum Command {
-    PLACE, MOVE, LEFT, RIGHT, REPORT, PLACE_OBSTACLE
+    PLACE, MOVE, LEFT, RIGHT, REPORT, PLACE_OBSTACLE, GOTO
 }
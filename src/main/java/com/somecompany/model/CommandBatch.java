@@ -0,0 +1,30 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Model of a batch of commands to be run in one request.
+ * <p>
+ * The commands are given either as a list (e.g. ["PLACE 1,2,NORTH", "MOVE"]) or as a newline separated script, in
+ * the same format as the console input.
+ *
+ * @author N/A
+ */
+@Data
+public class CommandBatch {
+
+    private List<String> commands;
+    private String script;
+
+    /**
+     * Whether the batch is all-or-nothing, i.e. stops at the first rejected command and restores the world.
+     */
+    private boolean atomic = true;
+
+    /**
+     * Whether only the final state is returned, instead of the result of each command.
+     */
+    private boolean finalStateOnly;
+}
@@ -0,0 +1,34 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Model of the result of a batch of commands.
+ *
+ * @author N/A
+ */
+@Data
+public class CommandBatchResult {
+
+    /**
+     * Whether all commands have been performed.
+     */
+    private boolean success;
+
+    /**
+     * Index of the first rejected command, if any.
+     */
+    private Integer failedAt;
+
+    /**
+     * Result of each command that has been run. Not set if only the final state has been requested.
+     */
+    private List<CommandResult> results;
+
+    /**
+     * Report of the world after the batch, or null if the robot has no location.
+     */
+    private String finalState;
+}
@@ -0,0 +1,20 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+/**
+ * Model of the result of one command of a batch.
+ *
+ * @author N/A
+ */
+@Data
+public class CommandResult {
+
+    private String command;
+    private boolean success;
+
+    /**
+     * The report for "REPORT", or the error message if the command has been rejected.
+     */
+    private String output;
+}
@@ -0,0 +1,223 @@
+package com.somecompany.model;
+
+import java.util.Arrays;
+
+/**
+ * Model of the distances of every location of a grid to a target, i.e. the least number of MOVE/LEFT/RIGHT commands
+ * which take the robot from a location and facing to the target, around the obstacles.
+ * <p>
+ * The distances are computed once per target by a breadth-first search backwards from the target, over the states
+ * (x-coordinate, y-coordinate, facing) of the robot. A route is then planned from any state by following the
+ * distances down to 0, which takes one lookup per command and no search at all.
+ * <p>
+ * The distances of one location are packed into a single int: the least distance of its four facings in bits 8-31,
+ * and the distance of each facing above that in 2 bits per facing (bits 0-7), since turning takes at most 2 commands.
+ * {@link #UNREACHABLE} is 3 in all of them. So a 1000x1000 grid takes 4 bytes per location.
+ * <p>
+ * A field is derived from the obstacles at one change, see {@link Obstacle#getChange}, and is brought up to date by
+ * the changes since, see {@link #update}. It is only read and updated while the world is locked.
+ *
+ * @author N/A
+ */
+public class DistanceField {
+
+    private static final int UNREACHABLE = 0xFF;
+
+    private static final int FACINGS = 4;
+
+    private final int width;
+    private final int height;
+    private final int[] distances;
+    private long changeCount;
+
+    private DistanceField(int width, int height, int[] distances, long changeCount) {
+        this.width = width;
+        this.height = height;
+        this.distances = distances;
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * Compute the distances to a target.
+     *
+     * @param grid
+     * @param obstacle
+     * @param x-coordinate of the target
+     * @param y-coordinate of the target
+     * @param ordinal of the facing at the target, or {@link ParsedCommand#ANY_FACING}
+     * @return Distance field of the target
+     */
+    public static DistanceField compute(Grid grid, Obstacle obstacle, int xCor, int yCor, int facingOrdinal) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int columns = width + 1;
+        int[] distances = new int[columns * (height + 1)];
+        Arrays.fill(distances, UNREACHABLE);
+
+        // States (location * 4 + facing) in the order they are reached, i.e. by increasing distance
+        int[] queue = new int[distances.length * FACINGS];
+        int tail = 0;
+        int target = yCor * columns + xCor;
+
+        for (int facing = 0; facing < FACINGS; facing++) {
+            if (facingOrdinal == ParsedCommand.ANY_FACING || facing == facingOrdinal) {
+                reach(distances, target, facing, 0);
+                queue[tail++] = target * FACINGS + facing;
+            }
+        }
+
+        for (int head = 0; head < tail; head++) {
+            int location = queue[head] / FACINGS;
+            int facing = queue[head] % FACINGS;
+            int distance = distance(distances[location], facing) + 1;
+
+            // The states from which a single command leads here: turning from either side, or moving from behind
+            if (reach(distances, location, Facing.RIGHT[facing], distance)) {
+                queue[tail++] = location * FACINGS + Facing.RIGHT[facing];
+            }
+
+            if (reach(distances, location, Facing.LEFT[facing], distance)) {
+                queue[tail++] = location * FACINGS + Facing.LEFT[facing];
+            }
+
+            int fromXCor = location % columns - Facing.DX[facing];
+            int fromYCor = location / columns - Facing.DY[facing];
+
+            if (fromXCor >= 0 && fromXCor <= width && fromYCor >= 0 && fromYCor <= height
+                    && !obstacle.isAt(fromXCor, fromYCor)) {
+                int from = fromYCor * columns + fromXCor;
+
+                if (reach(distances, from, facing, distance)) {
+                    queue[tail++] = from * FACINGS + facing;
+                }
+            }
+        }
+
+        return new DistanceField(width, height, distances, obstacle.getChangeCount());
+    }
+
+    /**
+     * Get the distance of a state to the target.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param ordinal of the facing
+     * @return Least number of commands to the target, or -1 if it cannot be reached
+     */
+    public int getDistance(int xCor, int yCor, int facingOrdinal) {
+        return distance(distances[yCor * (width + 1) + xCor], facingOrdinal);
+    }
+
+    /**
+     * Plan the route from a state to the target. Moving is preferred to turning, and turning left to turning right,
+     * so the same route is planned for the same state every time.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param ordinal of the facing
+     * @return Ordinals of the MOVE/LEFT/RIGHT commands to the target, or null if it cannot be reached
+     */
+    public byte[] plan(int xCor, int yCor, int facingOrdinal) {
+        int distance = getDistance(xCor, yCor, facingOrdinal);
+
+        if (distance < 0) {
+            return null;
+        }
+
+        byte[] route = new byte[distance];
+
+        for (int i = 0; i < route.length; i++, distance--) {
+            int nextXCor = xCor + Facing.DX[facingOrdinal];
+            int nextYCor = yCor + Facing.DY[facingOrdinal];
+
+            if (nextXCor >= 0 && nextXCor <= width && nextYCor >= 0 && nextYCor <= height
+                    && getDistance(nextXCor, nextYCor, facingOrdinal) == distance - 1) {
+                route[i] = (byte) Command.MOVE.ordinal();
+                xCor = nextXCor;
+                yCor = nextYCor;
+            } else if (getDistance(xCor, yCor, Facing.LEFT[facingOrdinal]) == distance - 1) {
+                route[i] = (byte) Command.LEFT.ordinal();
+                facingOrdinal = Facing.LEFT[facingOrdinal];
+            } else {
+                route[i] = (byte) Command.RIGHT.ordinal();
+                facingOrdinal = Facing.RIGHT[facingOrdinal];
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * Bring the field up to date with the changes of the obstacles since it was computed, if they leave the distances
+     * as they are. An obstacle added at a location from which the target cannot be reached is not on any route, and
+     * an obstacle removed from a location next to none from which the target can be reached does not open a route.
+     * Any other change, or a change of the size of the grid, requires the field to be computed again.
+     *
+     * @param grid
+     * @param obstacle
+     * @return Whether the field is up to date
+     */
+    public boolean update(Grid grid, Obstacle obstacle) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            return false;
+        }
+
+        long count = obstacle.getChangeCount();
+
+        for (long number = changeCount; number < count; number++) {
+            long change = obstacle.getChange(number);
+
+            if (change == Obstacle.CHANGE_ANY) {
+                return false;
+            }
+
+            int xCor = Obstacle.changeXCor(change);
+            int yCor = Obstacle.changeYCor(change);
+
+            if (xCor > width || yCor > height) {
+                // Off the grid
+                continue;
+            }
+
+            boolean affected = Obstacle.isAdded(change) ? isReachable(xCor, yCor)
+                    : isReachable(xCor - 1, yCor) || isReachable(xCor + 1, yCor) || isReachable(xCor, yCor - 1)
+                    || isReachable(xCor, yCor + 1);
+
+            if (affected) {
+                return false;
+            }
+        }
+
+        changeCount = count;
+        return true;
+    }
+
+    private boolean isReachable(int xCor, int yCor) {
+        return xCor >= 0 && xCor <= width && yCor >= 0 && yCor <= height
+                && distances[yCor * (width + 1) + xCor] != UNREACHABLE;
+    }
+
+    private static int distance(int distances, int facingOrdinal) {
+        int delta = (distances >>> (facingOrdinal * 2)) & 3;
+        return delta == 3 ? -1 : (distances >>> 8) + delta;
+    }
+
+    /**
+     * Set the distance of a state, unless it has been reached already.
+     *
+     * @return Whether the state has been reached for the first time
+     */
+    private static boolean reach(int[] distances, int location, int facingOrdinal, int distance) {
+        int packed = distances[location];
+        int shift = facingOrdinal * 2;
+
+        if (((packed >>> shift) & 3) != 3) {
+            return false;
+        }
+
+        // The first facing reached has the least distance of the location
+        int least = packed == UNREACHABLE ? distance : packed >>> 8;
+        distances[location] = (least << 8) | (packed & UNREACHABLE & ~(3 << shift)) | ((distance - least) << shift);
+        return true;
+    }
+}
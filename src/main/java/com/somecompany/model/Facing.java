@@ -2,9 +2,58 @@ package com.somecompany.model;
 
 /**
  * Allowed facings of the Toy Robot application.
+ * <p>
+ * The facings are declared clockwise, so that turning is a matter of looking up the neighbouring ordinal. Each facing
+ * carries the unit vector of a step in its direction.
  * 
  * @author N/A
  */
 public enum Facing {
-	EAST, SOUTH, WEST, NORTH
+	EAST(1, 0), SOUTH(0, -1), WEST(-1, 0), NORTH(0, 1);
+
+	/**
+	 * Unit vectors and rotations indexed by the ordinal of a facing.
+	 */
+	static final int[] DX = { 1, 0, -1, 0 };
+	static final int[] DY = { 0, -1, 0, 1 };
+	static final int[] LEFT = { 3, 0, 1, 2 };
+	static final int[] RIGHT = { 1, 2, 3, 0 };
+
+	private static final Facing[] VALUES = values();
+
+	private final int dx;
+	private final int dy;
+
+	Facing(int dx, int dy) {
+		this.dx = dx;
+		this.dy = dy;
+	}
+
+	/**
+	 * @return Change of the x-coordinate when moving 1 unit in this direction
+	 */
+	public int getDx() {
+		return dx;
+	}
+
+	/**
+	 * @return Change of the y-coordinate when moving 1 unit in this direction
+	 */
+	public int getDy() {
+		return dy;
+	}
+
+	/**
+	 * @return Facing after turning 90 degrees to the left
+	 */
+	public Facing left() {
+		return VALUES[LEFT[ordinal()]];
+	}
+
+	/**
+	 * @return Facing after turning 90 degrees to the right
+	 */
+	public Facing right() {
+		return VALUES[RIGHT[ordinal()]];
+	}
 }
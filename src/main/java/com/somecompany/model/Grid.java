@@ -10,6 +10,6 @@ import lombok.Data;
 @Data
 public class Grid {
 
-	private Integer width;
-	private Integer height;
+	private int width;
+	private int height;
 }
@@ -0,0 +1,218 @@
+package com.somecompany.model;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the command journal, see JournalService.
+ * <p>
+ * The journal is a sequence of segment files, each starting with a header and followed by records until the first
+ * zero byte. Segment header:
+ * <ul>
+ * <li>int: {@link #MAGIC}</li>
+ * <li>short: {@link #FORMAT_VERSION}</li>
+ * <li>long: sequence number of the first record of the segment</li>
+ * </ul>
+ * Every record starts with its type (byte) and the number of its session (unsigned short). Sessions are numbered per
+ * segment: a {@link #SESSION} record declares the number of a session before its first record in the segment. Records
+ * of commands follow with the state of the robot after the command (long, see {@link RobotState}), which holds the
+ * version of the change, and a payload depending on the type:
+ * <ul>
+ * <li>PLACE, MOVE, LEFT, RIGHT, REPORT: none; the state of a REPORT is the reported one</li>
+ * <li>PLACE_OBSTACLE: the location of the obstacle, see {@link #packObstacle}</li>
+ * <li>{@link #ADD_OBSTACLES}, {@link #REMOVE_OBSTACLES}: the number of obstacles (unsigned short), then the location
+ * of each obstacle</li>
+ * <li>{@link #BATCH_BEGIN}, {@link #BATCH_ROLLBACK}: none</li>
+ * </ul>
+ * {@link #SESSION} records hold the width and height of the grid (unsigned short each) and the session id (unsigned
+ * short length, then UTF-8), {@link #SESSION_END} records nothing. Every record ends with the CRC-32 of the record up
+ * to it, type included (int, see {@link #checksum}), so that a record which has only partly reached the disk, e.g.
+ * one spanning two pages of which one has been lost, is not taken for a complete one. All values are big-endian.
+ * <p>
+ * The records of a command are those of the command's ordinal + 1, so that a command can be journaled by ordinal.
+ *
+ * @author N/A
+ */
+public final class JournalRecord {
+
+    /**
+     * "TRJ1"
+     */
+    public static final int MAGIC = 0x54524A31;
+
+    public static final short FORMAT_VERSION = 2;
+
+    public static final int SEGMENT_HEADER_SIZE = 4 + 2 + 8;
+
+    /**
+     * Size of the type, session and state of a record.
+     */
+    public static final int HEADER_SIZE = 1 + 2 + 8;
+
+    /**
+     * Size of the checksum at the end of a record.
+     */
+    public static final int CHECKSUM_SIZE = 4;
+
+    /**
+     * Size of the record of a command without payload, i.e. of PLACE, MOVE, LEFT, RIGHT and REPORT.
+     */
+    public static final int COMMAND_SIZE = HEADER_SIZE + CHECKSUM_SIZE;
+
+    /**
+     * Type of the end of a segment, i.e. of the zero bytes after its last record.
+     */
+    public static final byte END = 0;
+
+    public static final byte ADD_OBSTACLES = 7;
+    public static final byte REMOVE_OBSTACLES = 8;
+    public static final byte BATCH_BEGIN = 9;
+    public static final byte BATCH_ROLLBACK = 10;
+    public static final byte SESSION = 11;
+    public static final byte SESSION_END = 12;
+
+    /**
+     * Largest number of obstacles in one ADD_OBSTACLES/REMOVE_OBSTACLES record. Larger changes take several records.
+     */
+    public static final int MAX_OBSTACLES = 4096;
+
+    /**
+     * Largest number of sessions in one segment.
+     */
+    public static final int MAX_SESSIONS = 1 << 16;
+
+    private static final Command[] COMMANDS = Command.values();
+
+    /**
+     * Largest type of the record of a command. GOTO is journaled as the MOVE/LEFT/RIGHT commands it is performed as.
+     */
+    private static final int MAX_COMMAND_TYPE = Command.PLACE_OBSTACLE.ordinal() + 1;
+
+    private JournalRecord() {
+    }
+
+    /**
+     * Get the type of the record of a command.
+     *
+     * @param commandOrdinal
+     * @return Type of the record
+     */
+    public static byte type(int commandOrdinal) {
+        return (byte) (commandOrdinal + 1);
+    }
+
+    /**
+     * Get the command of a record.
+     *
+     * @param type of the record
+     * @return Command, or null if the record is not one of a command
+     */
+    public static Command command(byte type) {
+        return type > 0 && type <= MAX_COMMAND_TYPE ? COMMANDS[type - 1] : null;
+    }
+
+    /**
+     * Pack the location of an obstacle into an int.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @return Packed location
+     */
+    public static int packObstacle(int xCor, int yCor) {
+        return (xCor << 16) | yCor;
+    }
+
+    public static int obstacleXCor(int obstacle) {
+        return obstacle >>> 16;
+    }
+
+    public static int obstacleYCor(int obstacle) {
+        return obstacle & 0xFFFF;
+    }
+
+    /**
+     * Get the size of the record at a position of a buffer.
+     *
+     * @param buffer
+     * @param position of the record
+     * @return Size in bytes, or -1 if the type of the record is unknown or the record does not end before the limit
+     * of the buffer
+     */
+    public static int size(ByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        byte type = buffer.get(position);
+        int size;
+
+        if (type == SESSION) {
+            size = position + 9 <= limit ? sessionSize(buffer.getShort(position + 7) & 0xFFFF) : -1;
+        } else if (type == SESSION_END) {
+            size = 3 + CHECKSUM_SIZE;
+        } else if (type == ADD_OBSTACLES || type == REMOVE_OBSTACLES) {
+            size = position + HEADER_SIZE + 2 <= limit
+                    ? obstaclesSize(buffer.getShort(position + HEADER_SIZE) & 0xFFFF) : -1;
+        } else if (command(type) == Command.PLACE_OBSTACLE) {
+            size = HEADER_SIZE + 4 + CHECKSUM_SIZE;
+        } else if (command(type) != null || type == BATCH_BEGIN || type == BATCH_ROLLBACK) {
+            size = COMMAND_SIZE;
+        } else {
+            size = -1;
+        }
+
+        return size > 0 && position + size <= limit ? size : -1;
+    }
+
+    /**
+     * Get the size of a record with a payload of obstacles.
+     *
+     * @param count Number of obstacles
+     * @return Size in bytes
+     */
+    public static int obstaclesSize(int count) {
+        return HEADER_SIZE + 2 + 4 * count + CHECKSUM_SIZE;
+    }
+
+    /**
+     * Get the size of a {@link #SESSION} record.
+     *
+     * @param sessionIdLength Length of the UTF-8 session id in bytes
+     * @return Size in bytes
+     */
+    public static int sessionSize(int sessionIdLength) {
+        return 9 + sessionIdLength + CHECKSUM_SIZE;
+    }
+
+    /**
+     * Compute the checksum of a record, i.e. the CRC-32 of its type and of the bytes after the type up to the
+     * checksum. The type is given rather than read, since it is written after the checksum.
+     *
+     * @param view     Duplicate of the buffer of the record, whose position and limit are changed
+     * @param crc      to compute the checksum with
+     * @param type     of the record
+     * @param position of the record
+     * @param size     of the record, see {@link #size}
+     * @return Checksum
+     */
+    public static int checksum(ByteBuffer view, CRC32 crc, byte type, int position, int size) {
+        crc.reset();
+        crc.update(type);
+        view.limit(position + size - CHECKSUM_SIZE);
+        view.position(position + 1);
+        crc.update(view);
+        view.limit(view.capacity());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Check the checksum of a complete record, see {@link #size}.
+     *
+     * @param view     Duplicate of the buffer of the record, whose position and limit are changed
+     * @param crc      to compute the checksum with
+     * @param position of the record
+     * @param size     of the record
+     * @return Whether the record is intact
+     */
+    public static boolean isIntact(ByteBuffer view, CRC32 crc, int position, int size) {
+        return view.getInt(position + size - CHECKSUM_SIZE) == checksum(view, crc, view.get(position), position,
+                size);
+    }
+}
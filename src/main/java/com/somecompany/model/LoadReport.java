@@ -0,0 +1,37 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+/**
+ * Model of the result of a load generation run.
+ *
+ * @author N/A
+ */
+@Data
+public class LoadReport {
+
+    private long requests;
+
+    /**
+     * Requests answered with 4xx, i.e. rejected commands such as a MOVE which would make the robot fall off.
+     */
+    private long rejected;
+
+    /**
+     * Requests which did not get an answer, or got a 5xx.
+     */
+    private long failed;
+
+    private long elapsedMillis;
+
+    private double requestsPerSecond;
+
+    /**
+     * Latency percentiles in microseconds. With a fixed rate, the latency of a request is measured from when it was
+     * due to be sent, so that the time it waited behind slower requests counts too.
+     */
+    private long p50Micros;
+    private long p99Micros;
+    private long p999Micros;
+    private long maxMicros;
+}
@@ -1,14 +1,372 @@
 package com.somecompany.model;
 
-import lombok.Data;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Model of an obstacle.
+ * Model of the obstacles on a grid.
+ * <p>
+ * Obstacles are kept in a dense bitset indexed by (y-coordinate * stride + x-coordinate), so that checking a location
+ * takes a single word lookup no matter how many obstacles there are. The stride grows (and the bitset is re-laid out)
+ * when an obstacle is added beyond it, which only happens a few times per grid.
+ * <p>
+ * Obstacles are only changed while the world is locked, but they are read by commands which are not, see
+ * {@link Robot}. Reads therefore take the bitset and stride once and never fail on a concurrent change; a read which
+ * overlaps with a change may see a mix of both, which the reader detects by the changed version of the robot.
+ * <p>
+ * The latest changes are logged, so that data derived from the obstacles, e.g. a {@link DistanceField}, can be brought
+ * up to date by the locations which have changed since it was derived, see {@link #getChange}.
  *
  * @author N/A
  */
-@Data
 public class Obstacle {
 
-    private Location location;
+    private static final long[] NO_BITS = new long[0];
+
+    /**
+     * Change which may have changed any location, e.g. removing all obstacles.
+     */
+    public static final long CHANGE_ANY = -1L;
+
+    private static final int CHANGE_LOG_SIZE = 64;
+
+    private static final long CHANGE_ADDED = 1L;
+    private static final int CHANGE_X_COR_SHIFT = 1;
+    private static final int CHANGE_Y_COR_SHIFT = 32;
+
+    private long[] bits = NO_BITS;
+    private int stride;
+    private int count;
+    private boolean placed;
+    private int placedXCor;
+    private int placedYCor;
+
+    private final long[] changes = new long[CHANGE_LOG_SIZE];
+    private long changeCount;
+
+    /**
+     * Check whether there is an obstacle at the given coordinates.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @return Whether there is an obstacle there
+     */
+    public boolean isAt(int xCor, int yCor) {
+        long[] bits = this.bits;
+        int stride = this.stride;
+
+        if (xCor < 0 || xCor >= stride || yCor < 0) {
+            return false;
+        }
+
+        int index = yCor * stride + xCor;
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Add an obstacle at the given coordinates.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @return Whether the obstacle has been added, i.e. there was none at the coordinates
+     */
+    public boolean add(int xCor, int yCor) {
+        if (xCor >= stride) {
+            relayout(Math.max(xCor + 1, stride * 2));
+        }
+
+        int index = yCor * stride + xCor;
+        int word = index >>> 6;
+
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        }
+
+        long mask = 1L << index;
+
+        if ((bits[word] & mask) != 0) {
+            return false;
+        }
+
+        bits[word] |= mask;
+        count++;
+        logChange(((long) yCor << CHANGE_Y_COR_SHIFT) | ((long) xCor << CHANGE_X_COR_SHIFT) | CHANGE_ADDED);
+        return true;
+    }
+
+    /**
+     * Remove the obstacle at the given coordinates.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @return Whether the obstacle has been removed, i.e. there was one at the coordinates
+     */
+    public boolean remove(int xCor, int yCor) {
+        if (!isAt(xCor, yCor)) {
+            return false;
+        }
+
+        int index = yCor * stride + xCor;
+        bits[index >>> 6] &= ~(1L << index);
+        count--;
+
+        if (placed && placedXCor == xCor && placedYCor == yCor) {
+            placed = false;
+        }
+
+        logChange(((long) yCor << CHANGE_Y_COR_SHIFT) | ((long) xCor << CHANGE_X_COR_SHIFT));
+        return true;
+    }
+
+    /**
+     * Remove all obstacles.
+     */
+    public void clear() {
+        bits = NO_BITS;
+        stride = 0;
+        count = 0;
+        placed = false;
+        logChange(CHANGE_ANY);
+    }
+
+    /**
+     * Copy the obstacles, e.g. as a snapshot to restore later.
+     *
+     * @return Independent copy of the obstacles
+     */
+    public Obstacle copy() {
+        Obstacle copy = new Obstacle();
+        copy.bits = bits.clone();
+        copy.stride = stride;
+        copy.count = count;
+        copy.placed = placed;
+        copy.placedXCor = placedXCor;
+        copy.placedYCor = placedYCor;
+        return copy;
+    }
+
+    /**
+     * Replace the obstacles by those of a copy.
+     *
+     * @param copy from {@link #copy()}
+     */
+    public void restore(Obstacle copy) {
+        bits = copy.bits.clone();
+        stride = copy.stride;
+        count = copy.count;
+        placed = copy.placed;
+        placedXCor = copy.placedXCor;
+        placedYCor = copy.placedYCor;
+        logChange(CHANGE_ANY);
+    }
+
+    /**
+     * Replace the obstacles by those of a bitset, e.g. one read from a snapshot, see {@link WorldSnapshot}.
+     *
+     * @param bits   Bitset indexed by (y-coordinate * stride + x-coordinate)
+     * @param stride
+     */
+    void restore(long[] bits, int stride) {
+        int count = 0;
+
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+
+        this.bits = bits;
+        this.stride = stride;
+        this.count = count;
+        this.placed = false;
+        logChange(CHANGE_ANY);
+    }
+
+    long[] getBits() {
+        return bits;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    /**
+     * @return Number of obstacles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Number of changes so far, i.e. the number of the next change
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Get a change of the obstacles. Only the latest changes are logged; older ones are {@link #CHANGE_ANY}.
+     *
+     * @param number of the change, below {@link #getChangeCount()}
+     * @return Change, see {@link #isAdded}, {@link #changeXCor} and {@link #changeYCor}, or {@link #CHANGE_ANY}
+     */
+    public long getChange(long number) {
+        return number < changeCount - CHANGE_LOG_SIZE ? CHANGE_ANY : changes[(int) (number % CHANGE_LOG_SIZE)];
+    }
+
+    /**
+     * @param change other than {@link #CHANGE_ANY}
+     * @return Whether an obstacle has been added by the change, rather than removed
+     */
+    public static boolean isAdded(long change) {
+        return (change & CHANGE_ADDED) != 0;
+    }
+
+    public static int changeXCor(long change) {
+        return (int) ((change >>> CHANGE_X_COR_SHIFT) & Integer.MAX_VALUE);
+    }
+
+    public static int changeYCor(long change) {
+        return (int) (change >>> CHANGE_Y_COR_SHIFT);
+    }
+
+    /**
+     * Get the locations of all obstacles, ordered by y-coordinate and then x-coordinate. The facing of the locations
+     * is not set.
+     *
+     * @return Locations of all obstacles
+     */
+    public List<Location> getLocations() {
+        long[] bits = this.bits;
+        int stride = this.stride;
+        List<Location> locations = new ArrayList<>(count);
+
+        if (stride == 0) {
+            return locations;
+        }
+
+        for (int index = nextIndex(bits, 0); index >= 0; index = nextIndex(bits, index + 1)) {
+            Location obstacleLocation = new Location();
+            obstacleLocation.setXCor(index % stride);
+            obstacleLocation.setYCor(index / stride);
+            locations.add(obstacleLocation);
+        }
+
+        return locations;
+    }
+
+    /**
+     * Append the locations of all obstacles to a report, ordered by y-coordinate and then x-coordinate. Does not
+     * allocate as long as the builder has enough capacity.
+     *
+     * @param report
+     */
+    public void appendTo(StringBuilder report) {
+        long[] bits = this.bits;
+        int stride = this.stride;
+
+        if (stride == 0) {
+            return;
+        }
+
+        for (int index = nextIndex(bits, 0); index >= 0; index = nextIndex(bits, index + 1)) {
+            report.append("; Obstacle is at ").append(index % stride).append(',').append(index / stride);
+        }
+    }
+
+    /**
+     * Get the most recently placed obstacle, if it is still there.
+     *
+     * @return Location of the most recently placed obstacle, or null
+     */
+    public Location getLocation() {
+        if (!placed) {
+            return null;
+        }
+
+        Location location = new Location();
+        location.setXCor(placedXCor);
+        location.setYCor(placedYCor);
+        return location;
+    }
+
+    /**
+     * Replace all obstacles by a single obstacle.
+     *
+     * @param location of the obstacle, or null to remove all obstacles
+     */
+    public void setLocation(Location location) {
+        clear();
+
+        if (location != null) {
+            place(location.getXCor(), location.getYCor());
+        }
+    }
+
+    /**
+     * Place an obstacle, making it the most recently placed obstacle.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     */
+    public void place(int xCor, int yCor) {
+        add(xCor, yCor);
+
+        placed = true;
+        placedXCor = xCor;
+        placedYCor = yCor;
+    }
+
+    private void logChange(long change) {
+        changes[(int) (changeCount % CHANGE_LOG_SIZE)] = change;
+        changeCount++;
+    }
+
+    private static int nextIndex(long[] bits, int fromIndex) {
+        int word = fromIndex >>> 6;
+
+        if (word >= bits.length) {
+            return -1;
+        }
+
+        long remaining = bits[word] & (-1L << fromIndex);
+
+        while (remaining == 0) {
+            if (++word >= bits.length) {
+                return -1;
+            }
+
+            remaining = bits[word];
+        }
+
+        return (word << 6) + Long.numberOfTrailingZeros(remaining);
+    }
+
+    private void relayout(int newStride) {
+        long[] oldBits = bits;
+        int oldStride = stride;
+
+        bits = NO_BITS;
+        stride = newStride;
+
+        for (int word = 0; word < oldBits.length; word++) {
+            long remaining = oldBits[word];
+
+            while (remaining != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+
+                int xCor = index % oldStride;
+                int yCor = index / oldStride;
+                int newIndex = yCor * newStride + xCor;
+                int newWord = newIndex >>> 6;
+
+                if (newWord >= bits.length) {
+                    bits = Arrays.copyOf(bits, Math.max(newWord + 1, bits.length * 2));
+                }
+
+                bits[newWord] |= 1L << newIndex;
+            }
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package com.somecompany.model;
+
+/**
+ * Outcome of validating or performing a command, i.e. either OK or the reason why the command has been rejected.
+ * <p>
+ * The message of each outcome is resolved once and cached by the validation service, so that a rejected command
+ * costs no more than an accepted one.
+ *
+ * @author N/A
+ */
+public enum Outcome {
+    OK,
+    NULL_OR_EMPTY_USER_INPUT,
+    INVALID_COMMAND,
+    INVALID_PLACE_COMMAND_FORMAT,
+    INVALID_MOVE_COMMAND_FORMAT,
+    INVALID_LEFT_COMMAND_FORMAT,
+    INVALID_RIGHT_COMMAND_FORMAT,
+    INVALID_REPORT_COMMAND_FORMAT,
+    INVALID_PLACE_OBSTACLE_COMMAND_FORMAT,
+    X_COR_NOT_INTEGER,
+    X_COR_OUT_OF_BOUNCE,
+    Y_COR_NOT_INTEGER,
+    Y_COR_OUT_OF_BOUNCE,
+    INVALID_FACING,
+    NO_LOCATION,
+    ROBOT_FALL_OFF,
+    ROBOT_HIT_OBSTACLE,
+    PLACE_OBSTACLE_AT_NON_EXISTENT_LOCATION,
+    OBSTACLE_AT_ROBOT_LOCATION,
+    INVALID_API_PARAMS,
+    VERSION_MISMATCH,
+    INVALID_GOTO_COMMAND_FORMAT,
+    NO_PATH;
+
+    private final String reason;
+
+    Outcome() {
+        // Name the reasons like the error messages are named in the configuration, e.g. "robotFallOff"
+        StringBuilder reason = new StringBuilder();
+
+        for (String word : name().toLowerCase().split("_")) {
+            reason.append(reason.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+
+        this.reason = reason.toString();
+    }
+
+    public boolean isRejected() {
+        return this != OK;
+    }
+
+    /**
+     * Get the name of the reason, as used in logs and metrics.
+     *
+     * @return Reason, e.g. "robotFallOff"
+     */
+    public String getReason() {
+        return reason;
+    }
+}
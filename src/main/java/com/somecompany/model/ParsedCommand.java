@@ -0,0 +1,302 @@
+package com.somecompany.model;
+
+/**
+ * Packed primitive representation of one line of command, decoded in a single pass without allocating.
+ * <p>
+ * A well-formed line is packed into a non-negative long. Layout (from the least significant bit):
+ * <ul>
+ * <li>bits 0-2: ordinal of the command</li>
+ * <li>bits 3-5: ordinal of the facing of a PLACE/GOTO command, {@link #INVALID_FACING}, or {@link #ANY_FACING} if a
+ * GOTO command has none</li>
+ * <li>bits 6-31: x-coordinate of a PLACE/GOTO command</li>
+ * <li>bits 32-57: y-coordinate of a PLACE/GOTO command</li>
+ * </ul>
+ * A coordinate which is not an integer is {@link #COORDINATE_NOT_INTEGER}, and an integer coordinate which is negative
+ * or above {@link #COORDINATE_MAX} is {@link #COORDINATE_OUT_OF_RANGE}, so that it is out of the bounds of any grid.
+ * The coordinates and facing of a PLACE/GOTO command are validated against the grid of a world later on, in the same
+ * order as before.
+ * <p>
+ * A malformed line is one of the negative results below. The line is tokenized the same way as by
+ * {@code split(" ")}, i.e. trailing spaces are ignored, and so are trailing commas of the PLACE/GOTO parameters.
+ * Commands and facings are matched case-insensitively.
+ *
+ * @author N/A
+ */
+public final class ParsedCommand {
+
+    /**
+     * Results of a line that could not be parsed. Any result below 0 is malformed.
+     */
+    public static final long NULL_OR_EMPTY = -1L;
+    public static final long INVALID_COMMAND = -2L;
+
+    /**
+     * Malformed parameters of a command, offset by the ordinal of the command, see {@link #invalidFormat}.
+     */
+    private static final long INVALID_FORMAT = -16L;
+
+    public static final int INVALID_FACING = 4;
+    public static final int ANY_FACING = 5;
+
+    public static final int COORDINATE_MAX = (1 << 26) - 3;
+    public static final int COORDINATE_OUT_OF_RANGE = (1 << 26) - 2;
+    public static final int COORDINATE_NOT_INTEGER = (1 << 26) - 1;
+
+    private static final int COMMAND_BITS = 3;
+    private static final int FACING_BITS = 3;
+    private static final int X_COR_SHIFT = COMMAND_BITS + FACING_BITS;
+    private static final int Y_COR_SHIFT = 32;
+
+    private static final long COMMAND_MASK = (1L << COMMAND_BITS) - 1;
+    private static final long FACING_MASK = (1L << FACING_BITS) - 1;
+    private static final long COORDINATE_MASK = (1L << 26) - 1;
+
+    private static final int PLACE = Command.PLACE.ordinal();
+    private static final int GOTO = Command.GOTO.ordinal();
+
+    private static final String[] COMMAND_NAMES = new String[Command.values().length];
+
+    private static final String[] FACING_NAMES = new String[Facing.values().length];
+
+    static {
+        for (Command command : Command.values()) {
+            COMMAND_NAMES[command.ordinal()] = command.name();
+        }
+
+        for (Facing facing : Facing.values()) {
+            FACING_NAMES[facing.ordinal()] = facing.name();
+        }
+    }
+
+    private ParsedCommand() {
+    }
+
+    /**
+     * Parse one line of command.
+     *
+     * @param usrInput
+     * @return Packed command, or one of the negative results if the line is malformed
+     */
+    public static long parse(CharSequence usrInput) {
+        if (usrInput == null || usrInput.length() == 0) {
+            return NULL_OR_EMPTY;
+        }
+
+        int end = usrInput.length();
+        while (end > 0 && usrInput.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        int commandEnd = indexOf(usrInput, ' ', 0, end);
+        if (commandEnd < 0) {
+            commandEnd = end;
+        }
+
+        int command = match(usrInput, 0, commandEnd, COMMAND_NAMES);
+
+        if (command < 0) {
+            return INVALID_COMMAND;
+        }
+
+        if (command != PLACE && command != GOTO) {
+            // Other commands have no parameters
+            return commandEnd == end ? command : invalidFormat(command);
+        }
+
+        // PLACE/GOTO command should have 1 part of params, e.g. "1,2,NORTH"
+        int paramsStart = commandEnd + 1;
+        if (commandEnd == end || indexOf(usrInput, ' ', paramsStart, end) >= 0) {
+            return invalidFormat(command);
+        }
+
+        int paramsEnd = end;
+        while (paramsEnd > paramsStart && usrInput.charAt(paramsEnd - 1) == ',') {
+            paramsEnd--;
+        }
+
+        // The param part should have 3 parts, e.g. "1","2" and "NORTH"
+        int xCorEnd = indexOf(usrInput, ',', paramsStart, paramsEnd);
+        int yCorEnd = xCorEnd < 0 ? -1 : indexOf(usrInput, ',', xCorEnd + 1, paramsEnd);
+
+        if (command == GOTO && xCorEnd >= 0 && yCorEnd < 0) {
+            // The facing of a GOTO command is optional, e.g. "1,2"
+            return pack(GOTO, coordinate(usrInput, paramsStart, xCorEnd),
+                    coordinate(usrInput, xCorEnd + 1, paramsEnd), ANY_FACING);
+        }
+
+        if (yCorEnd < 0 || indexOf(usrInput, ',', yCorEnd + 1, paramsEnd) >= 0) {
+            return invalidFormat(command);
+        }
+
+        return pack(command, coordinate(usrInput, paramsStart, xCorEnd), coordinate(usrInput, xCorEnd + 1, yCorEnd),
+                facing(usrInput, yCorEnd + 1, paramsEnd));
+    }
+
+    /**
+     * Parse the parameters of a PLACE command which are given separately, e.g. by the REST API.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param facing
+     * @return Packed PLACE command
+     */
+    public static long parsePlace(CharSequence xCor, CharSequence yCor, CharSequence facing) {
+        return place(xCor == null ? COORDINATE_NOT_INTEGER : coordinate(xCor, 0, xCor.length()),
+                yCor == null ? COORDINATE_NOT_INTEGER : coordinate(yCor, 0, yCor.length()),
+                facing == null ? INVALID_FACING : facing(facing, 0, facing.length()));
+    }
+
+    /**
+     * Parse the parameters of a GOTO command which are given separately, e.g. by the REST API.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param facing, or null for any facing
+     * @return Packed GOTO command
+     */
+    public static long parseGoto(CharSequence xCor, CharSequence yCor, CharSequence facing) {
+        return pack(GOTO, xCor == null ? COORDINATE_NOT_INTEGER : coordinate(xCor, 0, xCor.length()),
+                yCor == null ? COORDINATE_NOT_INTEGER : coordinate(yCor, 0, yCor.length()),
+                facing == null ? ANY_FACING : facing(facing, 0, facing.length()));
+    }
+
+    /**
+     * Pack a PLACE command.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param ordinal of the facing
+     * @return Packed PLACE command
+     */
+    public static long place(int xCor, int yCor, int facingOrdinal) {
+        return pack(PLACE, xCor, yCor, facingOrdinal);
+    }
+
+    /**
+     * Result of a command with malformed parameters.
+     *
+     * @param ordinal of the command
+     * @return Negative result
+     */
+    public static long invalidFormat(int commandOrdinal) {
+        return INVALID_FORMAT - commandOrdinal;
+    }
+
+    public static boolean isInvalid(long command) {
+        return command < 0;
+    }
+
+    public static boolean isInvalidFormat(long command) {
+        return command <= INVALID_FORMAT;
+    }
+
+    /**
+     * Get the ordinal of the command of a well-formed line, or of a line with malformed parameters.
+     *
+     * @param command
+     * @return Ordinal of the command
+     */
+    public static int commandOrdinal(long command) {
+        return command < 0 ? (int) (INVALID_FORMAT - command) : (int) (command & COMMAND_MASK);
+    }
+
+    public static int facingOrdinal(long command) {
+        return (int) ((command >>> COMMAND_BITS) & FACING_MASK);
+    }
+
+    public static int xCor(long command) {
+        return (int) ((command >>> X_COR_SHIFT) & COORDINATE_MASK);
+    }
+
+    public static int yCor(long command) {
+        return (int) ((command >>> Y_COR_SHIFT) & COORDINATE_MASK);
+    }
+
+    private static long pack(int commandOrdinal, int xCor, int yCor, int facingOrdinal) {
+        return ((long) yCor << Y_COR_SHIFT) | ((long) xCor << X_COR_SHIFT) | ((long) facingOrdinal << COMMAND_BITS)
+                | commandOrdinal;
+    }
+
+    /**
+     * Parse a coordinate the same way as {@link Integer#valueOf(String)}, but from ASCII digits only.
+     */
+    private static int coordinate(CharSequence usrInput, int start, int end) {
+        if (start == end) {
+            return COORDINATE_NOT_INTEGER;
+        }
+
+        char sign = usrInput.charAt(start);
+        int i = sign == '-' || sign == '+' ? start + 1 : start;
+
+        if (i == end) {
+            return COORDINATE_NOT_INTEGER;
+        }
+
+        // Accumulate up to just beyond the range of an int, so that an overflow can be told apart
+        long value = 0;
+        for (; i < end; i++) {
+            char c = usrInput.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return COORDINATE_NOT_INTEGER;
+            }
+
+            value = Math.min(value * 10 + (c - '0'), Integer.MAX_VALUE + 2L);
+        }
+
+        if (value > Integer.MAX_VALUE + (sign == '-' ? 1L : 0L)) {
+            return COORDINATE_NOT_INTEGER;
+        }
+
+        if (value > COORDINATE_MAX || (sign == '-' && value != 0)) {
+            return COORDINATE_OUT_OF_RANGE;
+        }
+
+        return (int) value;
+    }
+
+    private static int facing(CharSequence usrInput, int start, int end) {
+        int facing = match(usrInput, start, end, FACING_NAMES);
+        return facing < 0 ? INVALID_FACING : facing;
+    }
+
+    /**
+     * Match a token case-insensitively against a table of names.
+     *
+     * @return Index of the matched name, or -1 if there is no match
+     */
+    private static int match(CharSequence usrInput, int start, int end, String[] names) {
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+
+            if (name.length() != end - start) {
+                continue;
+            }
+
+            int j = 0;
+            while (j < name.length() && upperCase(usrInput.charAt(start + j)) == name.charAt(j)) {
+                j++;
+            }
+
+            if (j == name.length()) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static char upperCase(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static int indexOf(CharSequence usrInput, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (usrInput.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Model of the report of a state of a robot, rendered once and kept by its world until the state changes, see
+ * {@link World#getReport()}.
+ *
+ * @author N/A
+ */
+@Data
+public class RenderedReport {
+
+    /**
+     * Reported state of the robot, see {@link RobotState}.
+     */
+    private final long state;
+
+    private final String text;
+
+    /**
+     * The text encoded in UTF-8, e.g. to be written to a response as is.
+     */
+    private final byte[] bytes;
+
+    public RenderedReport(long state, String text) {
+        this.state = state;
+        this.text = text;
+        this.bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.somecompany.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model of the result of replaying a journal offline.
+ *
+ * @author N/A
+ */
+@Data
+public class ReplayReport {
+
+    /**
+     * Records replayed, including those of the sessions.
+     */
+    private long records;
+
+    /**
+     * Commands replayed, i.e. records of PLACE, MOVE, LEFT, RIGHT, REPORT and PLACE_OBSTACLE.
+     */
+    private long commands;
+
+    private int segments;
+
+    /**
+     * Sequence number of the last record replayed.
+     */
+    private long lastSequence;
+
+    private long elapsedNanos;
+
+    private double commandsPerSecond;
+
+    /**
+     * Recorded REPORTs which have been compared with the replayed state of the robot.
+     */
+    private long verifiedReports;
+
+    /**
+     * Records whose outcome on replay differs from the recorded one, e.g. a REPORT of another location or a MOVE
+     * which is rejected on replay. Replay goes on from the recorded state.
+     */
+    private long mismatches;
+
+    /**
+     * Description of the first mismatches, at most 10.
+     */
+    private List<String> mismatchDetails = new ArrayList<>();
+
+    /**
+     * Worlds of the sessions which have not been ended by the last record replayed, by session id.
+     */
+    private Map<String, World> worlds = new LinkedHashMap<>();
+}
@@ -1,15 +1,138 @@
 package com.somecompany.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Model of a robot.
- * 
+ * <p>
+ * The location of the robot is kept as a packed {@link RobotState}, which is only ever replaced by compare-and-set, so
+ * that commands on the robot need no lock: a command reads the state, computes the next one and retries if another
+ * command has changed the state in the meantime. Every change increments the version of the state.
+ * <p>
+ * {@link #getLocation()} and {@link #setLocation(Location)} convert from/to {@link Location} and are meant for the
+ * boundary only, e.g. the REST/JSON API. Modifying the returned Location has no effect on the robot.
+ * <p>
+ * Reads of the obstacles which take no lock are validated like a seqlock: read the state, read the obstacles, then
+ * check by {@link #isStill} that the state has not changed in between.
+ *
  * @author N/A
  *
  */
 @Data
 public class Robot {
 
-	private Location location;
+	private static final AtomicLongFieldUpdater<Robot> STATE = AtomicLongFieldUpdater.newUpdater(Robot.class,
+			"state");
+
+	@Setter(AccessLevel.NONE)
+	private volatile long state = RobotState.NO_LOCATION;
+
+	public Location getLocation() {
+		return RobotState.toLocation(state);
+	}
+
+	public void setLocation(Location location) {
+		update(RobotState.fromLocation(location));
+	}
+
+	public long getVersion() {
+		return RobotState.version(state);
+	}
+
+	/**
+	 * Replace the state if it is still the expected one.
+	 *
+	 * @param expect Expected current state
+	 * @param update New state, see {@link RobotState#next}
+	 * @return Whether the state has been replaced
+	 */
+	public boolean compareAndSetState(long expect, long update) {
+		return STATE.compareAndSet(this, expect, update);
+	}
+
+	/**
+	 * Check that the state is still the given one after reading the obstacles, e.g. for a REPORT. Unlike a plain
+	 * read of the volatile state, this orders the (plain) reads of the obstacles before the check, so that a read
+	 * which overlaps with a change of the obstacles is never taken as consistent. Java 8 offers no load fence but
+	 * through Unsafe, so the check is a CAS of the state with itself, which is a full fence.
+	 *
+	 * @param expect State read before the obstacles
+	 * @return Whether the state is still the same
+	 */
+	public boolean isStill(long expect) {
+		return STATE.compareAndSet(this, expect, expect);
+	}
+
+	/**
+	 * Move the robot to a location unconditionally, e.g. to restore a snapshot.
+	 *
+	 * @param location New location, as packed by {@link RobotState#pack}, or {@link RobotState#NO_LOCATION}
+	 * @return New state
+	 */
+	public long update(long location) {
+		for (;;) {
+			long current = state;
+			long next = RobotState.next(current, location);
+
+			if (compareAndSetState(current, next)) {
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * Increment the version without moving the robot, e.g. after the obstacles of its world have been changed.
+	 *
+	 * @return New state
+	 */
+	public long touch() {
+		return update(RobotState.location(state));
+	}
+
+	/**
+	 * Replace the state unconditionally, including its version, e.g. when recovering the robot from a journal. The
+	 * exclusive flag of the given state is ignored.
+	 *
+	 * @param state
+	 */
+	public void restore(long state) {
+		this.state = RobotState.withExclusive(state, false);
+	}
+
+	/**
+	 * Begin an exclusive operation on the world of the robot, see {@link RobotState#isExclusive}. Commands on the
+	 * robot which see the exclusive flag wait for the lock of the world, so the caller has to hold it until
+	 * {@link #endExclusive}.
+	 *
+	 * @return Whether the operation has begun, or false if the caller is in an exclusive operation already
+	 */
+	public boolean beginExclusive() {
+		for (;;) {
+			long current = state;
+
+			if (RobotState.isExclusive(current)) {
+				return false;
+			}
+
+			if (compareAndSetState(current, RobotState.withExclusive(current, true))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * End an exclusive operation on the world of the robot.
+	 *
+	 * @param begun Result of {@link #beginExclusive}
+	 */
+	public void endExclusive(boolean begun) {
+		if (begun) {
+			// Only the thread holding the lock of the world changes the state while the exclusive flag is set
+			state = RobotState.withExclusive(state, false);
+		}
+	}
 }
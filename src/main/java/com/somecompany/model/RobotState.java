@@ -0,0 +1,321 @@
+package com.somecompany.model;
+
+/**
+ * Packed primitive representation of the state of a robot.
+ * <p>
+ * The x-coordinate, y-coordinate and facing of a robot are packed into a single long, so that the state can be read,
+ * updated and passed around without allocating a {@link Location}, and replaced in a single compare-and-set, see
+ * {@link Robot}. Layout (from the least significant bit):
+ * <ul>
+ * <li>bits 0-1: ordinal of the facing</li>
+ * <li>bits 2-17: y-coordinate</li>
+ * <li>bits 18-33: x-coordinate</li>
+ * <li>bit 34: set if the robot has no location, see {@link #NO_LOCATION}</li>
+ * <li>bit 35: set while an exclusive operation is in progress on the world, see {@link #isExclusive}</li>
+ * <li>bits 36-62: version, incremented on every change of the robot or the obstacles of its world</li>
+ * </ul>
+ * Bits 0-34 are the location of the robot, as packed by {@link #pack}. The coordinates are limited to 65535, well
+ * above the maximum allowed grid size. A state is never negative, so that the results of a rejected
+ * {@link #transition} can be told apart. The version wraps around after 2^27 changes.
+ *
+ * @author N/A
+ */
+public final class RobotState {
+
+    /**
+     * State of a robot that has not been placed yet.
+     */
+    public static final long NO_LOCATION = 1L << 34;
+
+    /**
+     * Largest coordinate which can be packed.
+     */
+    public static final int COORDINATE_MAX = (1 << 16) - 1;
+
+    /**
+     * Expected version which matches any version, see {@link #matches}. Any other negative version matches none.
+     */
+    public static final long ANY_VERSION = -1L;
+
+    private static final Facing[] FACINGS = Facing.values();
+
+    private static final int FACING_BITS = 2;
+    private static final int COORDINATE_BITS = 16;
+    private static final int X_COR_SHIFT = FACING_BITS + COORDINATE_BITS;
+    private static final int VERSION_SHIFT = 36;
+
+    private static final long FACING_MASK = (1L << FACING_BITS) - 1;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final long LOCATION_MASK = (NO_LOCATION << 1) - 1;
+    private static final long EXCLUSIVE = 1L << 35;
+    private static final long VERSION_MASK = (1L << (63 - VERSION_SHIFT)) - 1;
+
+    /**
+     * Results of a {@link #transition} that has been rejected. Any result below 0 is a rejection.
+     */
+    public static final long REJECTED_NO_LOCATION = -2L;
+    public static final long REJECTED_FALL_OFF = -3L;
+    public static final long REJECTED_HIT_OBSTACLE = -4L;
+    public static final long REJECTED_VERSION_MISMATCH = -5L;
+
+    /**
+     * Transition tables indexed by (ordinal of the command * 4 + ordinal of the facing). STEP tells whether the
+     * robot advances 1 unit, TURN gives the ordinal of the new facing. Commands other than MOVE/LEFT/RIGHT neither
+     * step nor turn.
+     */
+    private static final int[] STEP = new int[Command.values().length * 4];
+    private static final int[] TURN = new int[Command.values().length * 4];
+
+    static {
+        for (Command command : Command.values()) {
+            for (int facing = 0; facing < 4; facing++) {
+                int index = command.ordinal() * 4 + facing;
+
+                STEP[index] = command == Command.MOVE ? 1 : 0;
+                TURN[index] = command == Command.LEFT ? Facing.LEFT[facing]
+                        : command == Command.RIGHT ? Facing.RIGHT[facing] : facing;
+            }
+        }
+    }
+
+    private RobotState() {
+    }
+
+    /**
+     * Pack a location into a state.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param facing
+     * @return Packed state
+     */
+    public static long pack(int xCor, int yCor, Facing facing) {
+        return pack(xCor, yCor, facing.ordinal());
+    }
+
+    /**
+     * Pack a location into a state.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param ordinal of the facing
+     * @return Packed state
+     */
+    public static long pack(int xCor, int yCor, int facingOrdinal) {
+        return ((long) xCor << X_COR_SHIFT) | ((long) yCor << FACING_BITS) | facingOrdinal;
+    }
+
+    /**
+     * Check whether a state has a location.
+     *
+     * @param state
+     * @return Whether the robot has been placed
+     */
+    public static boolean hasLocation(long state) {
+        return (state & NO_LOCATION) == 0;
+    }
+
+    public static int xCor(long state) {
+        return (int) ((state >>> X_COR_SHIFT) & COORDINATE_MASK);
+    }
+
+    public static int yCor(long state) {
+        return (int) ((state >>> FACING_BITS) & COORDINATE_MASK);
+    }
+
+    public static int facingOrdinal(long state) {
+        return (int) (state & FACING_MASK);
+    }
+
+    public static Facing facing(long state) {
+        return FACINGS[facingOrdinal(state)];
+    }
+
+    /**
+     * Get the location of a state, i.e. without its version and flags.
+     *
+     * @param state
+     * @return Location as packed by {@link #pack}, or {@link #NO_LOCATION}
+     */
+    public static long location(long state) {
+        return state & LOCATION_MASK;
+    }
+
+    public static long version(long state) {
+        return (state >>> VERSION_SHIFT) & VERSION_MASK;
+    }
+
+    /**
+     * Check whether an exclusive operation is in progress, i.e. one which changes more than the state of the robot,
+     * such as placing an obstacle or running a batch. The world is locked for the duration of the operation, see
+     * {@link Robot#beginExclusive}.
+     *
+     * @param state
+     * @return Whether an exclusive operation is in progress
+     */
+    public static boolean isExclusive(long state) {
+        return (state & EXCLUSIVE) != 0;
+    }
+
+    /**
+     * Check whether the version of a state is the expected one, e.g. from an If-Match header.
+     *
+     * @param state
+     * @param expectedVersion or {@link #ANY_VERSION}
+     * @return Whether the version matches
+     */
+    public static boolean matches(long state, long expectedVersion) {
+        return expectedVersion == ANY_VERSION || version(state) == expectedVersion;
+    }
+
+    /**
+     * Get the state which follows a state, i.e. with a new location and the next version. The exclusive flag is kept.
+     *
+     * @param state    Current state
+     * @param location New location, as packed by {@link #pack}, or {@link #NO_LOCATION}
+     * @return Next state
+     */
+    public static long next(long state, long location) {
+        return (((version(state) + 1) & VERSION_MASK) << VERSION_SHIFT) | (state & EXCLUSIVE) | location(location);
+    }
+
+    /**
+     * Check whether a state is newer than another one of the same robot, i.e. has a later version. Versions are
+     * compared modulo 2^27, so that a version which has wrapped around is still newer.
+     *
+     * @param state
+     * @param than Other state
+     * @return Whether the state is newer
+     */
+    public static boolean isNewer(long state, long than) {
+        return isNewerVersion(version(state), version(than));
+    }
+
+    /**
+     * Check whether a version is later than another one, modulo 2^27 like {@link #isNewer}, e.g. for a version
+     * given by a client.
+     *
+     * @param version
+     * @param than    Other version
+     * @return Whether the version is later
+     */
+    public static boolean isNewerVersion(long version, long than) {
+        long distance = (version - than) & VERSION_MASK;
+        return distance != 0 && distance <= VERSION_MASK >>> 1;
+    }
+
+    /**
+     * Get the version which follows a version, modulo 2^27 like {@link #next}.
+     *
+     * @param version
+     * @return Next version
+     */
+    public static long nextVersion(long version) {
+        return (version + 1) & VERSION_MASK;
+    }
+
+    /**
+     * Get a state with another version, e.g. to go on replaying a journal after a gap. The location and the exclusive
+     * flag are kept.
+     *
+     * @param state
+     * @param version New version, modulo 2^27
+     * @return State with the version
+     */
+    public static long withVersion(long state, long version) {
+        return ((version & VERSION_MASK) << VERSION_SHIFT) | (state & (EXCLUSIVE | LOCATION_MASK));
+    }
+
+    /**
+     * Compare the location and version of two states, i.e. regardless of the exclusive flag.
+     *
+     * @param state
+     * @param other State
+     * @return Whether both states have the same location and version
+     */
+    public static boolean isSameState(long state, long other) {
+        return ((state ^ other) & ~EXCLUSIVE) == 0;
+    }
+
+    static long withExclusive(long state, boolean exclusive) {
+        return exclusive ? state | EXCLUSIVE : state & ~EXCLUSIVE;
+    }
+
+    /**
+     * Unpack a state into a location. Only to be used at the boundary, e.g. for the REST/JSON API.
+     *
+     * @param state
+     * @return Location, or null if the robot has not been placed
+     */
+    public static Location toLocation(long state) {
+        if (!hasLocation(state)) {
+            return null;
+        }
+
+        Location location = new Location();
+        location.setXCor(xCor(state));
+        location.setYCor(yCor(state));
+        location.setFacing(facing(state));
+        return location;
+    }
+
+    /**
+     * Pack a location into a state.
+     *
+     * @param location
+     * @return Packed state, or {@link #NO_LOCATION} if the location is null
+     */
+    public static long fromLocation(Location location) {
+        if (location == null) {
+            return NO_LOCATION;
+        }
+
+        return pack(location.getXCor(), location.getYCor(), location.getFacing());
+    }
+
+    /**
+     * Validate and perform a MOVE/LEFT/RIGHT command in one pass, using the transition tables instead of branching on
+     * the command and facing.
+     *
+     * @param state          Current state of the robot
+     * @param commandOrdinal Ordinal of the command
+     * @param world          World the robot is in
+     * @return New location of the robot, or one of the REJECTED_* results (i.e. a value below 0) if the command is
+     * invalid
+     */
+    public static long transition(long state, int commandOrdinal, World world) {
+        if (!hasLocation(state)) {
+            return REJECTED_NO_LOCATION;
+        }
+
+        int facing = facingOrdinal(state);
+        int index = (commandOrdinal << 2) | facing;
+        int step = STEP[index];
+
+        int xCor = xCor(state) + Facing.DX[facing] * step;
+        int yCor = yCor(state) + Facing.DY[facing] * step;
+
+        Grid grid = world.getGrid();
+
+        // Any negative operand means the robot would be off the grid. Masked by -step, i.e. only checked when moving
+        if (((xCor | yCor | (grid.getWidth() - xCor) | (grid.getHeight() - yCor)) & -step) < 0) {
+            return REJECTED_FALL_OFF;
+        }
+
+        if (step != 0 && world.getObstacle().isAt(xCor, yCor)) {
+            return REJECTED_HIT_OBSTACLE;
+        }
+
+        return pack(xCor, yCor, TURN[index]);
+    }
+
+    /**
+     * Check whether a result of {@link #transition} is a rejection.
+     *
+     * @param result
+     * @return Whether the command has been rejected
+     */
+    public static boolean isRejected(long result) {
+        return result < 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.somecompany.model;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Model of the subscribers to the changes of a world, e.g. the event streams of its REPORT.
+ * <p>
+ * Changes are conflated: a change only schedules a publication if none is pending already, and the publication hands
+ * the report of the state at that time to every subscriber. So a burst of commands leads to a single report of the
+ * latest state, rendered once however many subscribers there are. A change costs a single volatile read as long as
+ * the world has never had a subscriber.
+ *
+ * @author N/A
+ */
+public class Watchers {
+
+    private final Set<Predicate<RenderedReport>> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    private volatile Runnable publisher;
+
+    /**
+     * Set how a publication is scheduled, before the first subscriber is added.
+     *
+     * @param publisher which schedules a publication, see {@link #publish}
+     */
+    public void setPublisher(Runnable publisher) {
+        this.publisher = publisher;
+    }
+
+    public Runnable getPublisher() {
+        return publisher;
+    }
+
+    /**
+     * Add a subscriber, which is handed the report of each publication for as long as it returns true.
+     *
+     * @param subscriber
+     */
+    public void add(Predicate<RenderedReport> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void remove(Predicate<RenderedReport> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public int getCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Signal a change of the robot or the obstacles, scheduling a publication unless one is pending already.
+     */
+    public void changed() {
+        Runnable publisher = this.publisher;
+
+        if (publisher != null && !pending.get() && !subscribers.isEmpty() && pending.compareAndSet(false, true)) {
+            publisher.run();
+        }
+    }
+
+    /**
+     * Begin a publication, i.e. let the changes from now on schedule another one. To be called before the state of
+     * the robot is read for the report.
+     */
+    public void beginPublish() {
+        pending.set(false);
+    }
+
+    /**
+     * Hand a report to every subscriber, removing those which return false.
+     *
+     * @param report
+     */
+    public void publish(RenderedReport report) {
+        for (Predicate<RenderedReport> subscriber : subscribers) {
+            if (!subscriber.test(report)) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.somecompany.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Model of the world of one session, i.e. the robot, obstacle and grid it operates on.
+ * <p>
+ * The session id is only set for the worlds kept by the SessionService, which are the ones journaled. Worlds which do
+ * not belong to any session, e.g. that of a WebSocket connection, have none.
+ * <p>
+ * Worlds are compared by identity, so that a world is only ever taken for itself, e.g. when it is removed from the
+ * sessions.
+ *
+ * @author N/A
+ */
+@Getter
+@Setter
+public class World {
+
+    private Robot robot;
+    private Obstacle obstacle;
+    private Grid grid;
+    private String sessionId;
+
+    /**
+     * Last report rendered, which is only valid as long as the robot is still in its state, see
+     * {@link RenderedReport#getState()}. The version of the robot changes whenever the obstacles do.
+     */
+    private volatile RenderedReport report;
+
+    /**
+     * Subscribers to the changes of the robot and the obstacles, see WatchService.
+     */
+    private final Watchers watchers = new Watchers();
+
+    /**
+     * Distance fields of the latest GOTO targets, in the order they have been used, see PathfindingService. Only
+     * accessed while the world is locked.
+     */
+    private final Map<Long, DistanceField> distanceFields = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Epoch of the world, i.e. the time it has been created at, in nanoseconds, which sets the entity tags of the
+     * worlds of the same session apart, see ValidationService.
+     */
+    private final long epoch = System.nanoTime();
+
+    /**
+     * Time the world has last been looked up by its session id, in milliseconds, see SessionService.
+     */
+    private volatile long lastAccessMillis;
+
+    /**
+     * Whether the session of the world has been ended, after which its world is no longer journaled. Only set while
+     * the world is locked, see SessionService.
+     */
+    private volatile boolean ended;
+}
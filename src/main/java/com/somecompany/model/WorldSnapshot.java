@@ -0,0 +1,243 @@
+package com.somecompany.model;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary format of the snapshots of the worlds, see SnapshotService.
+ * <p>
+ * A snapshot file holds a header, the sessions and a checksum:
+ * <ul>
+ * <li>int: {@link #MAGIC}</li>
+ * <li>short: {@link #FORMAT_VERSION}</li>
+ * <li>long: sequence number of the last journal record before the snapshot</li>
+ * <li>int: number of sessions, followed by the sessions</li>
+ * <li>int: CRC32 of all the bytes before</li>
+ * </ul>
+ * Each session holds its id (unsigned short length, then UTF-8), the sequence number of its last journal record in
+ * the snapshot (long) and its world:
+ * <ul>
+ * <li>int: width and height of the grid, 16 bits each</li>
+ * <li>long: state of the robot, i.e. its bit-packed location and its version, see {@link RobotState}</li>
+ * <li>byte: 1 if there is a most recently placed obstacle, then its location as an int, x and y 16 bits each</li>
+ * <li>the obstacles as a run-length encoded bitmap: the stride of the bitmap, the number of runs and the length of
+ * each run, alternately of cells without and with obstacle from index (y * stride + x) 0, all as unsigned varints.
+ * The cells without obstacle after the last obstacle are left out.</li>
+ * </ul>
+ * All other values are big-endian. A grid full of obstacles, or one without any, takes a few bytes either way.
+ *
+ * @author N/A
+ */
+public final class WorldSnapshot {
+
+    /**
+     * "TRS1"
+     */
+    public static final int MAGIC = 0x54525331;
+
+    public static final short FORMAT_VERSION = 1;
+
+    private WorldSnapshot() {
+    }
+
+    /**
+     * Write the world of a session.
+     *
+     * @param out
+     * @param state      of the robot
+     * @param gridWidth
+     * @param gridHeight
+     * @param obstacle   Copy of the obstacles, which is not changed while being written
+     * @throws IOException
+     */
+    public static void writeWorld(DataOutput out, long state, int gridWidth, int gridHeight, Obstacle obstacle)
+            throws IOException {
+        out.writeInt((gridWidth << 16) | gridHeight);
+        out.writeLong(RobotState.withExclusive(state, false));
+
+        Location placed = obstacle.getLocation();
+        out.writeByte(placed == null ? 0 : 1);
+
+        if (placed != null) {
+            out.writeInt((placed.getXCor() << 16) | placed.getYCor());
+        }
+
+        long[] bits = obstacle.getBits();
+        int length = bits.length << 6;
+        int[] runs = new int[16];
+        int runCount = 0;
+        boolean set = false;
+
+        for (int index = 0; index < length; set = !set) {
+            int next = set ? nextIndex(bits, index, -1L) : nextIndex(bits, index, 0);
+
+            if (!set && next == length) {
+                break;
+            }
+
+            if (runCount == runs.length) {
+                runs = Arrays.copyOf(runs, runCount * 2);
+            }
+
+            runs[runCount++] = next - index;
+            index = next;
+        }
+
+        writeVarint(out, obstacle.getStride());
+        writeVarint(out, runCount);
+
+        for (int i = 0; i < runCount; i++) {
+            writeVarint(out, runs[i]);
+        }
+    }
+
+    /**
+     * Read the world of a session into a world, replacing its grid, robot and obstacles.
+     *
+     * @param in    Buffer positioned at the world
+     * @param world
+     */
+    public static void readWorld(ByteBuffer in, World world) {
+        int grid = in.getInt();
+        world.getGrid().setWidth(grid >>> 16);
+        world.getGrid().setHeight(grid & 0xFFFF);
+
+        world.getRobot().restore(in.getLong());
+
+        boolean hasPlaced = in.get() != 0;
+        int placed = hasPlaced ? in.getInt() : 0;
+
+        int stride = readVarint(in);
+        int[] runs = new int[readVarint(in)];
+        long length = 0;
+
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = readVarint(in);
+            length += runs[i];
+        }
+
+        if (length > Integer.MAX_VALUE || (stride == 0 && length > 0)) {
+            throw new IllegalArgumentException("Invalid obstacle bitmap of " + length + " cells");
+        }
+
+        long[] bits = new long[(int) ((length + 63) >>> 6)];
+        int index = 0;
+
+        for (int i = 0; i < runs.length; i++) {
+            if ((i & 1) == 1) {
+                setRange(bits, index, index + runs[i]);
+            }
+
+            index += runs[i];
+        }
+
+        Obstacle obstacle = world.getObstacle();
+        obstacle.restore(bits, stride);
+
+        if (hasPlaced) {
+            obstacle.place(placed >>> 16, placed & 0xFFFF);
+        }
+    }
+
+    /**
+     * Write a string as unsigned short length and UTF-8.
+     *
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long for a snapshot");
+        }
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string written by {@link #writeString}.
+     *
+     * @param in
+     * @return String
+     */
+    public static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid varint");
+    }
+
+    /**
+     * Get the index of the next bit which differs from a fill, i.e. the next set bit for a fill of 0 and the next
+     * clear bit for a fill of -1.
+     *
+     * @return Index of the bit, or the length of the bitset if there is none
+     */
+    private static int nextIndex(long[] bits, int fromIndex, long fill) {
+        int word = fromIndex >>> 6;
+        long remaining = (bits[word] ^ fill) & (-1L << fromIndex);
+
+        while (remaining == 0) {
+            if (++word == bits.length) {
+                return bits.length << 6;
+            }
+
+            remaining = bits[word] ^ fill;
+        }
+
+        return (word << 6) + Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static void setRange(long[] bits, int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+
+        int firstWord = fromIndex >>> 6;
+        int lastWord = (toIndex - 1) >>> 6;
+        long firstMask = -1L << fromIndex;
+        long lastMask = -1L >>> -toIndex;
+
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+
+        bits[firstWord] |= firstMask;
+
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            bits[word] = -1L;
+        }
+
+        bits[lastWord] |= lastMask;
+    }
+}
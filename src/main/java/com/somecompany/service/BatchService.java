@@ -0,0 +1,142 @@
+package com.somecompany.service;
+
+import com.somecompany.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Backend services for running a batch of commands in one go.
+ *
+ * @author N/A
+ */
+@Service
+public class BatchService {
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_MSG_INVALID_API_PARAMS;
+
+    /**
+     * Run a batch of commands in order on a world. The world is locked and the robot marked as being in an exclusive
+     * operation for the whole batch, so that no other command interleaves with it, see {@link Robot#beginExclusive}.
+     * <p>
+     * For an atomic batch, a snapshot of the world is kept and restored at the first rejected command, so that either
+     * all or none of the commands take effect. The snapshot is cheap: the robot state is a single long, and the
+     * obstacles are only copied before the first PLACE_OBSTACLE command.
+     *
+     * @param world
+     * @param batch
+     * @return Result of the batch
+     * @throws IllegalArgumentException if the batch has no commands
+     */
+    public CommandBatchResult run(World world, CommandBatch batch) throws IllegalArgumentException {
+        List<String> commands = getCommands(batch);
+
+        CommandBatchResult batchResult = new CommandBatchResult();
+        List<CommandResult> results = batch.isFinalStateOnly() ? null : new ArrayList<>(commands.size());
+        batchResult.setResults(results);
+        batchResult.setSuccess(true);
+
+        synchronized (world) {
+            Robot robot = world.getRobot();
+            boolean exclusive = robot.beginExclusive();
+
+            try {
+                long robotStateSnapshot = robot.getState();
+                Obstacle obstacleSnapshot = null;
+
+                if (batch.isAtomic()) {
+                    journalService.journalBatchBegin(world, robotStateSnapshot);
+                }
+
+                StringBuilder report = new StringBuilder(64);
+
+                for (int i = 0; i < commands.size(); i++) {
+                    String usrInput = commands.get(i);
+                    long command = ParsedCommand.parse(usrInput);
+
+                    if (batch.isAtomic() && obstacleSnapshot == null && command == Command.PLACE_OBSTACLE.ordinal()) {
+                        // Copy the obstacles before they are modified for the first time
+                        obstacleSnapshot = world.getObstacle().copy();
+                    }
+
+                    report.setLength(0);
+                    Outcome outcome = toyRobotService.applyCommand(world, command, report);
+
+                    CommandResult result = new CommandResult();
+                    result.setCommand(usrInput);
+                    result.setSuccess(outcome == Outcome.OK);
+
+                    if (outcome.isRejected()) {
+                        result.setOutput(validationService.logRejection(outcome, world));
+
+                        if (batchResult.getFailedAt() == null) {
+                            batchResult.setSuccess(false);
+                            batchResult.setFailedAt(i);
+                        }
+                    } else if (report.length() > 0) {
+                        result.setOutput(report.toString());
+                    }
+
+                    if (results != null) {
+                        results.add(result);
+                    }
+
+                    if (!result.isSuccess() && batch.isAtomic()) {
+                        // Restore the snapshot and skip the remaining commands
+                        long state = robot.update(RobotState.location(robotStateSnapshot));
+
+                        if (obstacleSnapshot != null) {
+                            world.getObstacle().restore(obstacleSnapshot);
+                        }
+
+                        journalService.journalBatchRollback(world, state);
+
+                        break;
+                    }
+                }
+
+                report.setLength(0);
+
+                // Not a REPORT command of the batch, so neither journaled nor counted
+                if (!RobotState.isRejected(toyRobotService.appendReport(world, robot.getState(), report))) {
+                    batchResult.setFinalState(report.toString());
+                }
+            } finally {
+                robot.endExclusive(exclusive);
+
+                // The states within the batch are not published, only the one it has ended in
+                if (exclusive) {
+                    world.getWatchers().changed();
+                }
+            }
+        }
+
+        return batchResult;
+    }
+
+    private List<String> getCommands(CommandBatch batch) throws IllegalArgumentException {
+        if (batch.getCommands() != null && !batch.getCommands().isEmpty()) {
+            return batch.getCommands();
+        }
+
+        if (batch.getScript() != null && !batch.getScript().trim().isEmpty()) {
+            return Arrays.asList(batch.getScript().trim().split("\\r?\\n"));
+        }
+
+        throw new IllegalArgumentException(ERROR_MSG_INVALID_API_PARAMS);
+    }
+}
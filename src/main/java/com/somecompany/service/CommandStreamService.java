@@ -0,0 +1,61 @@
+package com.somecompany.service;
+
+import com.somecompany.model.CommandResult;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Backend services for piping a stream of commands through a world.
+ *
+ * @author N/A
+ */
+@Service
+public class CommandStreamService {
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    /**
+     * Apply each command of a stream to a world as it arrives. Only the outputs of REPORT commands and the rejected
+     * commands are emitted.
+     * <p>
+     * Commands are pulled from the input only as fast as the results are requested downstream, so neither side has
+     * to buffer the whole stream. Each command locks the world on its own, so that other clients of the same world
+     * can interleave with a long stream.
+     *
+     * @param world
+     * @param commands
+     * @return Results of REPORT commands and rejected commands
+     */
+    public Flux<CommandResult> pipe(World world, Flux<String> commands) {
+        return Flux.defer(() -> {
+            StringBuilder report = new StringBuilder(64);
+
+            return commands.filter(command -> !command.isEmpty()).handle((command, sink) -> {
+                report.setLength(0);
+
+                Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(command), report);
+
+                if (outcome == Outcome.OK && report.length() == 0) {
+                    // Nothing to report
+                    return;
+                }
+
+                CommandResult result = new CommandResult();
+                result.setCommand(command);
+                result.setSuccess(outcome == Outcome.OK);
+                result.setOutput(outcome == Outcome.OK ? report.toString()
+                        : validationService.logRejection(outcome, world));
+
+                sink.next(result);
+            });
+        });
+    }
+}
@@ -0,0 +1,228 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Backend services for ingesting a command file by memory-mapping it.
+ * <p>
+ * The file is mapped in chunks which end at a line boundary, so that files larger than 2GB can be ingested, and the
+ * commands are parsed straight from the mapped bytes by {@link ParsedCommand#parse} and applied through
+ * {@link ToyRobotService#applyCommand}, without creating a String per line. Rejected commands are reported with the
+ * cached message of their outcome, so the output is the same as if the file was read line by line.
+ *
+ * @author N/A
+ */
+@Service
+@Slf4j
+public class FileIngestionService {
+
+    private static final long CHUNK_SIZE = 1L << 28;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    /**
+     * Ingest a command file into a world.
+     *
+     * @param world
+     * @param file
+     * @param out   Stream to which the outputs of the commands are written, one per line
+     * @return Number of lines ingested
+     * @throws IOException
+     */
+    public long ingest(World world, File file, OutputStream out) throws IOException {
+        long startNanos = System.nanoTime();
+
+        Ingestion ingestion = new Ingestion(world, out);
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(CHUNK_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                position += ingestion.ingest(buffer, position + length == size);
+            }
+        }
+
+        ingestion.flush();
+
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        log.info("Ingested {} lines from {} in {} ms ({} lines/sec)", ingestion.lines, file,
+                elapsedNanos / 1_000_000, ingestion.lines * 1_000_000_000L / elapsedNanos);
+
+        return ingestion.lines;
+    }
+
+    /**
+     * State of one ingestion, i.e. the world, the pending output and the number of lines so far.
+     */
+    private class Ingestion {
+
+        private final World world;
+
+        private final OutputStream out;
+
+        private final byte[] output = new byte[OUTPUT_BUFFER_SIZE];
+
+        private int outputLength;
+
+        private final StringBuilder report = new StringBuilder(64);
+
+        private final ByteSequence line = new ByteSequence();
+
+        private long lines;
+
+        private Ingestion(World world, OutputStream out) {
+            this.world = world;
+            this.out = out;
+        }
+
+        /**
+         * Ingest the complete lines of a chunk.
+         *
+         * @param buffer
+         * @param last   Whether this is the last chunk of the file, whose last line need not end with a line break
+         * @return Number of bytes consumed, i.e. up to and including the last line break of the chunk
+         */
+        private int ingest(MappedByteBuffer buffer, boolean last) throws IOException {
+            int limit = buffer.limit();
+            int start = 0;
+
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    line(buffer, start, i);
+                    start = i + 1;
+                }
+            }
+
+            if (start < limit && (last || start == 0)) {
+                // Last line of the file, or a line longer than a chunk
+                line(buffer, start, limit);
+                start = limit;
+            }
+
+            return start;
+        }
+
+        /**
+         * Ingest one line, excluding its line break.
+         */
+        private void line(MappedByteBuffer buffer, int start, int end) throws IOException {
+            lines++;
+
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+
+            line.set(buffer, start, end);
+            report.setLength(0);
+
+            Outcome outcome = toyRobotService.applyCommand(world, ParsedCommand.parse(line), report);
+
+            if (outcome.isRejected()) {
+                write(validationService.logRejection(outcome, world));
+            } else if (report.length() > 0) {
+                write(report);
+            }
+        }
+
+        /**
+         * Write one line of output as ASCII, so that no encoder has to be allocated.
+         */
+        private void write(CharSequence line) throws IOException {
+            int length = line.length();
+
+            if (outputLength + length + LINE_SEPARATOR.length > output.length) {
+                flush();
+            }
+
+            if (length + LINE_SEPARATOR.length > output.length) {
+                out.write((line + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+                return;
+            }
+
+            for (int i = 0; i < length; i++) {
+                char c = line.charAt(i);
+                output[outputLength++] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+
+            System.arraycopy(LINE_SEPARATOR, 0, output, outputLength, LINE_SEPARATOR.length);
+            outputLength += LINE_SEPARATOR.length;
+        }
+
+        private void flush() throws IOException {
+            out.write(output, 0, outputLength);
+            out.flush();
+            outputLength = 0;
+        }
+    }
+
+    /**
+     * View of a line of a mapped file as a sequence of characters, so that it can be parsed without decoding it into
+     * a String. Bytes are mapped to characters one by one, which is exact for the ASCII commands.
+     */
+    private static class ByteSequence implements CharSequence {
+
+        private MappedByteBuffer buffer;
+
+        private int start;
+
+        private int length;
+
+        private void set(MappedByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = end - start;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+
+            return new String(bytes, Charset.defaultCharset());
+        }
+    }
+}
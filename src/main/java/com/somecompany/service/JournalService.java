@@ -0,0 +1,828 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.JournalRecord;
+import com.somecompany.model.Location;
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.Robot;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Backend services for the write-ahead journal of the commands, so that the worlds of the sessions survive a restart.
+ * <p>
+ * Enabled by "journal.enabled". Every accepted command on the world of a session is appended as a compact binary
+ * record (see {@link JournalRecord}) to a segment file of "journal.segmentSize" bytes in "journal.directory", which
+ * is memory-mapped so that appending a record is a few stores into memory. A new segment is started when the current
+ * one is full and on every start.
+ * <p>
+ * When the records are forced to disk depends on "journal.fsync":
+ * <ul>
+ * <li>ALWAYS: a command only returns once its record is on disk. Concurrent writers share each fsync (group commit):
+ * one of the waiting writers forces all records appended so far while the others wait for it.</li>
+ * <li>INTERVAL: the records are forced every "journal.fsyncIntervalMs" by a thread of the journal, so at most that
+ * much is lost on a crash.</li>
+ * <li>OS: the records are left to the OS to write back, and only forced when a segment is full and on shutdown.</li>
+ * </ul>
+ * On start the segments are replayed to rebuild the worlds, on top of the latest snapshot if any, see
+ * {@link #recover}. Every record holds the state of the robot after the command, including its version, so commands
+ * which have changed the robot lock-free and appended their records in a different order still recover the latest
+ * state: the newest version wins. Changes of the obstacles are made in exclusive operations, which append their
+ * records in order. Nothing is appended for a world once its session has ended, see {@link World#isEnded()}, so
+ * that a command still in flight when the session ends does not bring the session back on recovery.
+ * <p>
+ * The replay of a segment stops at its first record which is incomplete or fails its checksum, i.e. at the first one
+ * which has not reached the disk completely before a crash.
+ *
+ * @author N/A
+ */
+@Service
+@Slf4j
+public class JournalService {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int MIN_SEGMENT_SIZE = 1 << 20;
+
+    private static final byte PLACE_OBSTACLE = JournalRecord.type(Command.PLACE_OBSTACLE.ordinal());
+
+    /**
+     * When the records are forced to disk, see "journal.fsync".
+     */
+    public enum Fsync {
+        ALWAYS, INTERVAL, OS
+    }
+
+    @Value("${journal.enabled}")
+    private boolean enabled;
+
+    @Value("${journal.directory}")
+    private String directory;
+
+    @Value("${journal.segmentSize}")
+    private int segmentSize;
+
+    @Value("${journal.fsync}")
+    private Fsync fsync;
+
+    @Value("${journal.fsyncIntervalMs}")
+    private long fsyncIntervalMs;
+
+    /**
+     * Guards the current segment, i.e. the fields below up to {@link #lastSequence}.
+     */
+    private final Object appendLock = new Object();
+
+    private boolean open;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * Duplicate of the current segment to compute the checksums of its records with.
+     */
+    private ByteBuffer checksumView;
+
+    private final CRC32 crc = new CRC32();
+
+    private final Map<String, Integer> sessionNumbers = new HashMap<>();
+
+    private int nextSessionNumber;
+
+    private int sessionNumber;
+
+    private volatile long lastSequence;
+
+    /**
+     * Guards the group commit, i.e. the fields below.
+     */
+    private final Object syncLock = new Object();
+
+    private boolean syncing;
+
+    private long durableSequence;
+
+    private long syncCount;
+
+    /**
+     * Runs {@link #syncPeriodically} while the journal is open, if "journal.fsync" is INTERVAL. A thread of its own
+     * rather than Spring's scheduler, whose single thread is shared with slower tasks such as the snapshots, which
+     * would delay the fsync by far more than the interval.
+     */
+    private ScheduledExecutorService syncScheduler;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalStateException("The minimum journal segment size is " + MIN_SEGMENT_SIZE);
+        }
+    }
+
+    /**
+     * @return Whether the commands are journaled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journal an accepted PLACE, MOVE, LEFT, RIGHT or REPORT command.
+     *
+     * @param world
+     * @param commandOrdinal
+     * @param state of the robot after the command, or the reported one
+     */
+    public void journalCommand(World world, int commandOrdinal, long state) {
+        journal(world, JournalRecord.type(commandOrdinal), state);
+    }
+
+    /**
+     * Journal an accepted PLACE_OBSTACLE command.
+     *
+     * @param world
+     * @param state of the robot after the command
+     * @param x-coordinate of the obstacle
+     * @param y-coordinate of the obstacle
+     */
+    public void journalPlaceObstacle(World world, long state, int xCor, int yCor) {
+        if (!enabled || world.getSessionId() == null) {
+            return;
+        }
+
+        long recordSequence;
+
+        synchronized (appendLock) {
+            if (!open || world.isEnded()) {
+                return;
+            }
+
+            int size = JournalRecord.HEADER_SIZE + 4 + JournalRecord.CHECKSUM_SIZE;
+            int position = reserve(world, size);
+
+            segment.putInt(position + JournalRecord.HEADER_SIZE, JournalRecord.packObstacle(xCor, yCor));
+            recordSequence = commit(position, PLACE_OBSTACLE, state, size);
+        }
+
+        awaitDurable(recordSequence);
+    }
+
+    /**
+     * Journal obstacles which have been added or removed in bulk.
+     *
+     * @param world
+     * @param add       Whether the obstacles have been added rather than removed
+     * @param state     of the robot after the change
+     * @param locations of the obstacles
+     */
+    public void journalObstacles(World world, boolean add, long state, List<Location> locations) {
+        if (!enabled || world.getSessionId() == null) {
+            return;
+        }
+
+        long recordSequence = 0;
+
+        synchronized (appendLock) {
+            if (!open || world.isEnded()) {
+                return;
+            }
+
+            for (int from = 0; from < locations.size(); from += JournalRecord.MAX_OBSTACLES) {
+                int count = Math.min(locations.size() - from, JournalRecord.MAX_OBSTACLES);
+                int size = JournalRecord.obstaclesSize(count);
+                int position = reserve(world, size);
+
+                segment.putShort(position + JournalRecord.HEADER_SIZE, (short) count);
+
+                for (int i = 0; i < count; i++) {
+                    Location location = locations.get(from + i);
+                    segment.putInt(position + JournalRecord.HEADER_SIZE + 2 + 4 * i,
+                            JournalRecord.packObstacle(location.getXCor(), location.getYCor()));
+                }
+
+                recordSequence = commit(position,
+                        add ? JournalRecord.ADD_OBSTACLES : JournalRecord.REMOVE_OBSTACLES, state, size);
+            }
+        }
+
+        awaitDurable(recordSequence);
+    }
+
+    /**
+     * Journal the begin of an atomic batch, i.e. the point to which a rollback returns.
+     *
+     * @param world
+     * @param state of the robot
+     */
+    public void journalBatchBegin(World world, long state) {
+        journal(world, JournalRecord.BATCH_BEGIN, state);
+    }
+
+    /**
+     * Journal the rollback of an atomic batch to its begin.
+     *
+     * @param world
+     * @param state of the robot after the rollback
+     */
+    public void journalBatchRollback(World world, long state) {
+        journal(world, JournalRecord.BATCH_ROLLBACK, state);
+    }
+
+    /**
+     * Journal the end of a session, whose world is discarded.
+     *
+     * @param world of the session
+     */
+    public void journalSessionEnd(World world) {
+        if (!enabled || world.getSessionId() == null) {
+            return;
+        }
+
+        long recordSequence;
+
+        synchronized (appendLock) {
+            if (!open) {
+                return;
+            }
+
+            int size = 3 + JournalRecord.CHECKSUM_SIZE;
+            int position = reserve(world, size);
+
+            segment.putShort(position + 1, (short) sessionNumber);
+            seal(position, JournalRecord.SESSION_END, size);
+            recordSequence = ++lastSequence;
+
+            // A new session of the same id is declared anew
+            sessionNumbers.remove(world.getSessionId());
+        }
+
+        awaitDurable(recordSequence);
+    }
+
+    /**
+     * Get the sequence number of the last record appended so far. Records are numbered from 1 in the order they have
+     * been appended, over all segments.
+     *
+     * @return Sequence number of the last record, or 0 if there is none
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return Number of times the journal has been forced to disk by group commit so far
+     */
+    public long getSyncCount() {
+        synchronized (syncLock) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Force the records appended so far to disk, every "journal.fsyncIntervalMs" if "journal.fsync" is INTERVAL.
+     */
+    private void syncPeriodically() {
+        sync(lastSequence);
+    }
+
+    /**
+     * Force the records up to a sequence number to disk, unless they are already. If another thread is forcing the
+     * journal at the moment, wait for it and check again, so that all the records appended while it was forcing are
+     * forced together by the next one.
+     *
+     * @param recordSequence
+     */
+    public void sync(long recordSequence) {
+        for (;;) {
+            synchronized (syncLock) {
+                if (durableSequence >= recordSequence) {
+                    return;
+                }
+
+                if (syncing) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+
+                    continue;
+                }
+
+                syncing = true;
+            }
+
+            long target;
+            MappedByteBuffer buffer;
+
+            synchronized (appendLock) {
+                target = lastSequence;
+                buffer = segment;
+            }
+
+            try {
+                if (buffer != null) {
+                    buffer.force();
+                }
+
+                markDurable(target);
+            } finally {
+                synchronized (syncLock) {
+                    syncing = false;
+                    syncCount++;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the worlds of the sessions by replaying the whole journal, then start a new segment to which the
+     * commands from then on are appended.
+     *
+     * @param sessionService
+     */
+    public void recover(SessionService sessionService) {
+        recover(sessionService, 0, Collections.emptyMap());
+    }
+
+    /**
+     * Rebuild the worlds of the sessions by replaying the journal on top of a snapshot, then start a new segment to
+     * which the commands from then on are appended. Called once on start, see SnapshotService.
+     * <p>
+     * Only the records after the snapshot are replayed, i.e. those after the sequence number of their session in the
+     * snapshot, or after the sequence number of the snapshot for sessions which are not in it. Segments which end
+     * before the snapshot are skipped without being read.
+     *
+     * @param sessionService
+     * @param snapshotSequence Sequence number of the last record before the snapshot, or 0 if there is none
+     * @param sessionSequences Sequence number of the last record of each session which is in the snapshot
+     */
+    public void recover(SessionService sessionService, long snapshotSequence, Map<String, Long> sessionSequences) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (appendLock) {
+            if (open) {
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            File folder = new File(directory);
+
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new UncheckedIOException(new IOException("Cannot create the journal folder " + folder));
+            }
+
+            File[] files = listSegments(folder);
+
+            lastSequence = snapshotSequence;
+            long records = 0;
+            int segments = 0;
+
+            try {
+                for (int i = 0; i < files.length; i++) {
+                    if (i + 1 < files.length && firstSequence(files[i + 1]) - 1 <= snapshotSequence) {
+                        // All the records of the segment are in the snapshot
+                        continue;
+                    }
+
+                    records += replay(files[i], sessionService, snapshotSequence, sessionSequences);
+                    segments++;
+                }
+
+                for (long sessionSequence : sessionSequences.values()) {
+                    lastSequence = Math.max(lastSequence, sessionSequence);
+                }
+
+                markDurable(lastSequence);
+                roll();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            open = true;
+
+            if (fsync == Fsync.INTERVAL) {
+                syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "journal-sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                syncScheduler.scheduleWithFixedDelay(this::syncPeriodically, fsyncIntervalMs, fsyncIntervalMs,
+                        TimeUnit.MILLISECONDS);
+            }
+
+            log.info("Recovered {} journal records from {} of {} segments in {} ms", records, segments, files.length,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    /**
+     * Force the journal to disk and stop appending to it.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (appendLock) {
+            if (!open) {
+                return;
+            }
+
+            open = false;
+
+            if (syncScheduler != null) {
+                syncScheduler.shutdown();
+                syncScheduler = null;
+            }
+            segment.force();
+            markDurable(lastSequence);
+            segment = null;
+            checksumView = null;
+        }
+    }
+
+    private void journal(World world, byte type, long state) {
+        if (!enabled || world.getSessionId() == null) {
+            return;
+        }
+
+        long recordSequence;
+
+        synchronized (appendLock) {
+            if (!open || world.isEnded()) {
+                return;
+            }
+
+            int position = reserve(world, JournalRecord.COMMAND_SIZE);
+            recordSequence = commit(position, type, state, JournalRecord.COMMAND_SIZE);
+        }
+
+        awaitDurable(recordSequence);
+    }
+
+    /**
+     * Make room for a record in the current segment, starting a new one if it is full, and declare the session of the
+     * record if this is its first record in the segment.
+     *
+     * @return Position of the record in the segment
+     */
+    private int reserve(World world, int size) {
+        Integer number = sessionNumbers.get(world.getSessionId());
+        byte[] sessionId = number == null ? world.getSessionId().getBytes(StandardCharsets.UTF_8) : null;
+        int sessionSize = sessionId == null ? 0 : JournalRecord.sessionSize(sessionId.length);
+
+        if (segment.remaining() < sessionSize + size
+                || (number == null && nextSessionNumber == JournalRecord.MAX_SESSIONS)) {
+            try {
+                roll();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            return reserve(world, size);
+        }
+
+        if (number == null) {
+            number = nextSessionNumber++;
+            sessionNumbers.put(world.getSessionId(), number);
+
+            int position = segment.position();
+
+            segment.putShort(position + 1, (short) (int) number);
+            segment.putShort(position + 3, (short) world.getGrid().getWidth());
+            segment.putShort(position + 5, (short) world.getGrid().getHeight());
+            segment.putShort(position + 7, (short) sessionId.length);
+
+            for (int i = 0; i < sessionId.length; i++) {
+                segment.put(position + 9 + i, sessionId[i]);
+            }
+
+            seal(position, JournalRecord.SESSION, sessionSize);
+            ++lastSequence;
+        }
+
+        sessionNumber = number;
+        return segment.position();
+    }
+
+    /**
+     * Complete a record whose payload has been written.
+     *
+     * @return Sequence number of the record
+     */
+    private long commit(int position, byte type, long state, int size) {
+        segment.putShort(position + 1, (short) sessionNumber);
+        segment.putLong(position + 3, state);
+        seal(position, type, size);
+
+        return ++lastSequence;
+    }
+
+    /**
+     * Write the checksum and then the type of a record whose other fields have been written. The type goes last, so
+     * that a record which has not been written completely reads as the end of the segment, as long as the pages of
+     * the segment reach the disk in order; the checksum catches those which do not.
+     */
+    private void seal(int position, byte type, int size) {
+        segment.putInt(position + size - JournalRecord.CHECKSUM_SIZE,
+                JournalRecord.checksum(checksumView, crc, type, position, size));
+        segment.put(position, type);
+        segment.position(position + size);
+    }
+
+    /**
+     * Force the current segment to disk, if any, and start a new one.
+     */
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+            markDurable(lastSequence);
+        }
+
+        long firstSequence = lastSequence + 1;
+        File file = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+
+        segment.putInt(JournalRecord.MAGIC).putShort(JournalRecord.FORMAT_VERSION).putLong(firstSequence);
+        checksumView = segment.duplicate();
+
+        sessionNumbers.clear();
+        nextSessionNumber = 0;
+    }
+
+    private void awaitDurable(long recordSequence) {
+        if (fsync == Fsync.ALWAYS) {
+            sync(recordSequence);
+        }
+    }
+
+    private void markDurable(long recordSequence) {
+        synchronized (syncLock) {
+            durableSequence = Math.max(durableSequence, recordSequence);
+        }
+    }
+
+    /**
+     * Delete the segments whose records are all before a snapshot, i.e. those which recovery from the snapshot skips
+     * anyway, see {@link #recover}. The current segment is never deleted.
+     * <p>
+     * Afterwards the journal no longer goes back to sequence number 1: recovery needs that snapshot or a later one,
+     * and the offline replay of the journal (see ReplayService) starts at the first segment left, on worlds which have
+     * lost their earlier commands.
+     *
+     * @param snapshotSequence Sequence number of the last record before the snapshot
+     * @return Number of segments deleted
+     * @throws IOException
+     */
+    public int deleteSegmentsBefore(long snapshotSequence) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+
+        File[] files = listSegments(new File(directory));
+        int deleted = 0;
+
+        // A segment ends right before the next one starts, and the last one is the current segment
+        while (deleted + 1 < files.length && firstSequence(files[deleted + 1]) - 1 <= snapshotSequence) {
+            Files.delete(files[deleted].toPath());
+            deleted++;
+        }
+
+        return deleted;
+    }
+
+    /**
+     * List the segments of a journal.
+     *
+     * @param folder of the journal, see "journal.directory"
+     * @return Segment files in the order of their records, or none if the folder does not exist
+     */
+    public static File[] listSegments(File folder) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX));
+
+        if (files == null) {
+            return new File[0];
+        }
+
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Get the sequence number of the first record of a segment from its name.
+     */
+    private static long firstSequence(File segmentFile) {
+        String name = segmentFile.getName();
+
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException exception) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Replay the records of a segment which are after the snapshot.
+     *
+     * @return Number of records replayed
+     */
+    private long replay(File file, SessionService sessionService, long snapshotSequence,
+                        Map<String, Long> sessionSequences) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < JournalRecord.SEGMENT_HEADER_SIZE || buffer.getInt(0) != JournalRecord.MAGIC
+                || buffer.getShort(4) != JournalRecord.FORMAT_VERSION) {
+            log.warn("Skipped {}, which is not a journal segment", file);
+            return 0;
+        }
+
+        List<ReplayedSession> sessions = new ArrayList<>();
+        ByteBuffer view = buffer.duplicate();
+        CRC32 crc = new CRC32();
+        int position = JournalRecord.SEGMENT_HEADER_SIZE;
+        long recordSequence = buffer.getLong(6) - 1;
+        long records = 0;
+
+        while (position < buffer.limit() && buffer.get(position) != JournalRecord.END) {
+            byte type = buffer.get(position);
+            int size = JournalRecord.size(buffer, position);
+            int number = size < 0 ? 0 : buffer.getShort(position + 1) & 0xFFFF;
+
+            if (size < 0 || (type != JournalRecord.SESSION && number >= sessions.size())) {
+                log.warn("Stopped replaying {} at an incomplete or unknown record at {}", file, position);
+                break;
+            }
+
+            if (!JournalRecord.isIntact(view, crc, position, size)) {
+                // Torn by a crash, so that the records after it have not reached the disk either
+                log.warn("Stopped replaying {} at a record which fails its checksum at {}", file, position);
+                break;
+            }
+
+            recordSequence++;
+
+            if (type == JournalRecord.SESSION) {
+                while (sessions.size() <= number) {
+                    sessions.add(null);
+                }
+
+                ReplayedSession session = new ReplayedSession(buffer, position);
+                session.snapshotSequence = sessionSequences.getOrDefault(session.sessionId, snapshotSequence);
+                sessions.set(number, session);
+            }
+
+            ReplayedSession session = sessions.get(number);
+
+            if (session != null && recordSequence > session.snapshotSequence) {
+                session.replay(sessionService, buffer, position, type);
+                records++;
+            }
+
+            position += size;
+        }
+
+        lastSequence = Math.max(lastSequence, recordSequence);
+        return records;
+    }
+
+    /**
+     * A session being replayed, i.e. its world and the snapshot of its obstacles for the rollback of a batch.
+     */
+    private static class ReplayedSession {
+
+        private final String sessionId;
+
+        private final int gridWidth;
+
+        private final int gridHeight;
+
+        private long snapshotSequence;
+
+        private World world;
+
+        private boolean ended;
+
+        private boolean batch;
+
+        private Obstacle obstacleSnapshot;
+
+        private ReplayedSession(MappedByteBuffer buffer, int position) {
+            byte[] sessionId = new byte[buffer.getShort(position + 7) & 0xFFFF];
+
+            for (int i = 0; i < sessionId.length; i++) {
+                sessionId[i] = buffer.get(position + 9 + i);
+            }
+
+            this.sessionId = new String(sessionId, StandardCharsets.UTF_8);
+            this.gridWidth = buffer.getShort(position + 3) & 0xFFFF;
+            this.gridHeight = buffer.getShort(position + 5) & 0xFFFF;
+        }
+
+        private void replay(SessionService sessionService, MappedByteBuffer buffer, int position, byte type) {
+            if (ended) {
+                return;
+            }
+
+            if (world == null) {
+                // The world is only looked up (or created) once a record of it is replayed
+                world = sessionService.getWorld(sessionId);
+            }
+
+            if (type == JournalRecord.SESSION) {
+                world.getGrid().setWidth(gridWidth);
+                world.getGrid().setHeight(gridHeight);
+                return;
+            }
+
+            if (type == JournalRecord.SESSION_END) {
+                sessionService.removeSession(sessionId);
+                ended = true;
+                return;
+            }
+
+            Obstacle obstacle = world.getObstacle();
+            int payload = position + JournalRecord.HEADER_SIZE;
+
+            if (type == JournalRecord.BATCH_BEGIN) {
+                // Like the BatchService, the obstacles are only copied before they are changed by the batch
+                batch = true;
+                obstacleSnapshot = null;
+            } else if (type == JournalRecord.BATCH_ROLLBACK) {
+                if (obstacleSnapshot != null) {
+                    obstacle.restore(obstacleSnapshot);
+                }
+
+                batch = false;
+                obstacleSnapshot = null;
+            } else if (type == PLACE_OBSTACLE || type == JournalRecord.ADD_OBSTACLES
+                    || type == JournalRecord.REMOVE_OBSTACLES) {
+                if (batch && obstacleSnapshot == null) {
+                    obstacleSnapshot = obstacle.copy();
+                }
+
+                if (type == PLACE_OBSTACLE) {
+                    int packed = buffer.getInt(payload);
+                    obstacle.place(JournalRecord.obstacleXCor(packed), JournalRecord.obstacleYCor(packed));
+                } else {
+                    int count = buffer.getShort(payload) & 0xFFFF;
+
+                    for (int i = 0; i < count; i++) {
+                        int packed = buffer.getInt(payload + 2 + 4 * i);
+
+                        if (type == JournalRecord.ADD_OBSTACLES) {
+                            obstacle.add(JournalRecord.obstacleXCor(packed), JournalRecord.obstacleYCor(packed));
+                        } else {
+                            obstacle.remove(JournalRecord.obstacleXCor(packed), JournalRecord.obstacleYCor(packed));
+                        }
+                    }
+                }
+            }
+
+            // The newest version wins, whatever the order in which the records have been appended
+            long state = buffer.getLong(position + 3);
+            Robot robot = world.getRobot();
+
+            if (RobotState.isNewer(state, robot.getState())) {
+                robot.restore(state);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.Facing;
+import com.somecompany.model.LoadReport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend services for generating load on the "/api/toyrobot/*" endpoints, e.g. to capacity-test a node against
+ * itself before rollout.
+ * <p>
+ * Requests are spread over "loadGenerator.sessions" sessions, whose robots are placed before the run, and picked at
+ * random by the weights of "loadGenerator.mix", e.g. "MOVE:50,LEFT:15,RIGHT:15,REPORT:20". PLACE and GOTO go to a
+ * random location, like the robots are placed at. At most "loadGenerator.concurrency" requests are in flight at a
+ * time. With "loadGenerator.rate" set, requests are due at that fixed rate and the latency is measured from when a
+ * request was due rather than from when it was sent, so that a slow node is not hidden by the generator backing off;
+ * with a rate of 0, every request is sent as soon as another one has completed.
+ *
+ * @author N/A
+ */
+@Service
+public class LoadGeneratorService {
+
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final Facing[] FACINGS = Facing.values();
+
+    private static final String API_PATH = "/api/toyrobot/";
+
+    @Autowired
+    private WebClient webClient;
+
+    @Value("${loadGenerator.baseUrl}")
+    private String baseUrl;
+
+    @Value("${loadGenerator.requests}")
+    private int requests;
+
+    @Value("${loadGenerator.concurrency}")
+    private int concurrency;
+
+    @Value("${loadGenerator.rate}")
+    private int rate;
+
+    @Value("${loadGenerator.mix}")
+    private String mix;
+
+    @Value("${loadGenerator.sessions}")
+    private int sessions;
+
+    @Value("${loadGenerator.seed}")
+    private long seed;
+
+    /**
+     * Generate load as configured, and print the report.
+     *
+     * @param out
+     * @return Report of the run
+     */
+    public LoadReport run(PrintStream out) {
+        WebClient client = baseUrl.isEmpty() ? webClient : webClient.mutate().baseUrl(baseUrl).build();
+        LoadReport report = run(client, requests, concurrency, rate, mix);
+
+        out.println("Sent " + report.getRequests() + " requests in " + report.getElapsedMillis() + " ms ("
+                + Math.round(report.getRequestsPerSecond()) + " requests/sec), " + report.getRejected()
+                + " rejected, " + report.getFailed() + " failed");
+        out.println("Latency p50 " + report.getP50Micros() + " us, p99 " + report.getP99Micros() + " us, p999 "
+                + report.getP999Micros() + " us, max " + report.getMaxMicros() + " us");
+
+        return report;
+    }
+
+    /**
+     * Generate load.
+     *
+     * @param client      pointed at the node under test
+     * @param requests    Number of requests to send
+     * @param concurrency Maximum number of requests in flight
+     * @param rate        Requests per second, or 0 to send as fast as the node answers
+     * @param mix         Weights of the commands, e.g. "MOVE:50,LEFT:15,RIGHT:15,REPORT:20"
+     * @return Report of the run
+     * @throws IllegalArgumentException if the mix is invalid
+     */
+    public LoadReport run(WebClient client, int requests, int concurrency, int rate, String mix)
+            throws IllegalArgumentException {
+        int[] weights = parseMix(mix);
+        Random random = new Random(seed);
+
+        // Place the robots first, so that the run measures a steady state
+        Flux.range(0, sessions).flatMap(session -> place(client, session, random.nextInt(6), random.nextInt(6)))
+                .blockLast();
+
+        // Draw the whole run up front, so that the same seed always yields the same requests
+        Command[] commands = new Command[requests];
+        int[] targets = new int[requests];
+        int[] locations = new int[requests];
+        for (int i = 0; i < requests; i++) {
+            commands[i] = pick(weights, random);
+            targets[i] = random.nextInt(sessions);
+            locations[i] = random.nextInt(36);
+        }
+
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        LongAdder rejected = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long startNanos = System.nanoTime();
+        long periodNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+
+        Flux.range(0, requests)
+                .concatMap(i -> {
+                    // Hold each request back until it is due
+                    long delayNanos = startNanos + i * periodNanos - System.nanoTime();
+                    return delayNanos > 0 ? Mono.delay(Duration.ofNanos(delayNanos)).thenReturn(i) : Mono.just(i);
+                }, 1)
+                .flatMap(i -> {
+                    long dueNanos = periodNanos > 0 ? startNanos + i * periodNanos : System.nanoTime();
+
+                    return send(client, commands[i], targets[i], locations[i])
+                            .onErrorResume(WebClientResponseException.class, exception -> {
+                                (exception.getStatusCode().is4xxClientError() ? rejected : failed).increment();
+                                return Mono.empty();
+                            })
+                            .onErrorResume(exception -> {
+                                failed.increment();
+                                return Mono.empty();
+                            })
+                            .doFinally(signal -> latency.recordValue(
+                                    Math.min(System.nanoTime() - dueNanos, latency.getHighestTrackableValue())));
+                }, concurrency)
+                .blockLast();
+
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+
+        LoadReport report = new LoadReport();
+        report.setRequests(requests);
+        report.setRejected(rejected.sum());
+        report.setFailed(failed.sum());
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setRequestsPerSecond(requests * 1e9 / elapsedNanos);
+        report.setP50Micros(TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(50)));
+        report.setP99Micros(TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99)));
+        report.setP999Micros(TimeUnit.NANOSECONDS.toMicros(latency.getValueAtPercentile(99.9)));
+        report.setMaxMicros(TimeUnit.NANOSECONDS.toMicros(latency.getMaxValue()));
+        return report;
+    }
+
+    private Mono<String> send(WebClient client, Command command, int session, int location) {
+        String path = API_PATH + "loadgen-" + session;
+
+        switch (command) {
+            case PLACE:
+                return place(client, session, location / 6, location % 6);
+            case PLACE_OBSTACLE:
+                return client.put().uri(path + "/placeObstacle").retrieve().bodyToMono(String.class);
+            case REPORT:
+                return client.get().uri(path + "/report").retrieve().bodyToMono(String.class);
+            case GOTO:
+                return client.post().uri(path + "/goto").contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue("{\"xcor\":" + location / 6 + ",\"ycor\":" + location % 6 + "}")
+                        .retrieve().bodyToMono(String.class);
+            default:
+                return client.post().uri(path + "/" + command.name().toLowerCase()).retrieve()
+                        .bodyToMono(String.class);
+        }
+    }
+
+    private Mono<String> place(WebClient client, int session, int xCor, int yCor) {
+        return client.put().uri(API_PATH + "loadgen-" + session + "/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"" + FACINGS[(xCor + yCor) % FACINGS.length] + "\",\"xcor\":" + xCor
+                        + ",\"ycor\":" + yCor + "}")
+                .retrieve().bodyToMono(String.class);
+    }
+
+    /**
+     * Parse the weights of a command mix, e.g. "MOVE:50,LEFT:15,RIGHT:15,REPORT:20".
+     *
+     * @param mix
+     * @return Cumulative weights by command ordinal
+     * @throws IllegalArgumentException if the mix is invalid
+     */
+    private int[] parseMix(String mix) throws IllegalArgumentException {
+        int[] weights = new int[COMMANDS.length];
+        int total = 0;
+
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid command mix entry '" + entry + "'");
+            }
+
+            int weight = Integer.parseInt(parts[1].trim());
+            weights[Command.valueOf(parts[0].trim().toUpperCase()).ordinal()] += weight;
+            total += weight;
+        }
+
+        if (total <= 0) {
+            throw new IllegalArgumentException("Command mix should have a positive total weight");
+        }
+
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+
+        return weights;
+    }
+
+    private Command pick(int[] cumulativeWeights, Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+
+        while (value >= cumulativeWeights[i]) {
+            i++;
+        }
+
+        return COMMANDS[i];
+    }
+}
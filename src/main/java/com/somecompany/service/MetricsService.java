@@ -0,0 +1,131 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.Outcome;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend services for the metrics of the commands, exposed via "/actuator/metrics" and "/actuator/prometheus".
+ * <p>
+ * <ul>
+ * <li>toyrobot.commands: timer per command, e.g. command="move"</li>
+ * <li>toyrobot.rejections: counter per reason of rejection, e.g. reason="robotFallOff"</li>
+ * <li>toyrobot.sessions: gauge of the active sessions</li>
+ * <li>toyrobot.obstacles: gauge of the obstacles placed in the worlds of the active sessions</li>
+ * </ul>
+ * The commands and rejections are counted in striped counters (LongAdder), looked up by ordinal and only summed up
+ * when the metrics are read, so that recording a command neither allocates nor contends between threads. Unlike a
+ * {@link io.micrometer.core.instrument.Timer}, the timers therefore have a count and a total time but no max.
+ *
+ * @author N/A
+ */
+@Service
+public class MetricsService {
+
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SessionService sessionService;
+
+    private final CommandStats[] commandStats = new CommandStats[COMMANDS.length];
+
+    private final LongAdder[] rejections = new LongAdder[OUTCOMES.length];
+
+    @PostConstruct
+    public void init() {
+        for (Command command : COMMANDS) {
+            commandStats[command.ordinal()] = new CommandStats();
+
+            FunctionTimer.builder("toyrobot.commands", commandStats[command.ordinal()], stats -> stats.count.sum(),
+                    stats -> stats.totalNanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Time taken to perform a command")
+                    .tag("command", command.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+
+        for (Outcome outcome : OUTCOMES) {
+            rejections[outcome.ordinal()] = new LongAdder();
+
+            if (outcome.isRejected()) {
+                FunctionCounter.builder("toyrobot.rejections", rejections[outcome.ordinal()], LongAdder::sum)
+                        .description("Number of rejected commands")
+                        .tag("reason", outcome.getReason())
+                        .register(meterRegistry);
+            }
+        }
+
+        Gauge.builder("toyrobot.sessions", sessionService, SessionService::getSessionCount)
+                .description("Number of active sessions, including the default session")
+                .register(meterRegistry);
+
+        Gauge.builder("toyrobot.obstacles", sessionService, SessionService::getObstacleCount)
+                .description("Number of obstacles placed in the worlds of the active sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the time taken to perform a command.
+     *
+     * @param commandOrdinal
+     * @param startNanos     {@link System#nanoTime()} when the command has been started
+     */
+    public void recordCommand(int commandOrdinal, long startNanos) {
+        CommandStats stats = commandStats[commandOrdinal];
+
+        stats.count.increment();
+        stats.totalNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Count a rejected command.
+     *
+     * @param outcome
+     */
+    public void countRejection(Outcome outcome) {
+        rejections[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Get the number of rejected commands of a reason so far.
+     *
+     * @param outcome
+     * @return Number of rejected commands
+     */
+    public long getRejectionCount(Outcome outcome) {
+        return rejections[outcome.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of commands performed so far.
+     *
+     * @param command
+     * @return Number of commands
+     */
+    public long getCommandCount(Command command) {
+        return commandStats[command.ordinal()].count.sum();
+    }
+
+    /**
+     * Number of and total time taken by the commands of one kind.
+     */
+    private static class CommandStats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,90 @@
+package com.somecompany.service;
+
+import com.somecompany.model.DistanceField;
+import com.somecompany.model.Grid;
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Backend services for planning the route of a GOTO command.
+ * <p>
+ * The {@link DistanceField} of a target is computed once and kept by the world, so that planning another route to
+ * the same target only follows the distances, which takes a few microseconds even on a 1000x1000 grid. The latest
+ * "pathfinding.cacheSize" targets of each world are kept. Changes of the obstacles only require a field to be computed
+ * again if they can change its distances, see {@link DistanceField#update}.
+ *
+ * @author N/A
+ */
+@Service
+public class PathfindingService {
+
+    @Value("${pathfinding.cacheSize}")
+    private int cacheSize;
+
+    /**
+     * Plan the route of the robot of a world to a target. To be called while the world is locked.
+     *
+     * @param world
+     * @param x-coordinate of the robot
+     * @param y-coordinate of the robot
+     * @param ordinal of the facing of the robot
+     * @param Parsed GOTO command, whose target is within the grid
+     * @return Ordinals of the MOVE/LEFT/RIGHT commands to the target, or null if it cannot be reached
+     */
+    public byte[] plan(World world, int xCor, int yCor, int facingOrdinal, long command) {
+        return getDistanceField(world, command).plan(xCor, yCor, facingOrdinal);
+    }
+
+    /**
+     * Get the distance field of a target, computing it unless the one kept by the world is still up to date. To be
+     * called while the world is locked.
+     *
+     * @param world
+     * @param Parsed GOTO command, whose target is within the grid
+     * @return Distance field of the target
+     */
+    public DistanceField getDistanceField(World world, long command) {
+        Map<Long, DistanceField> distanceFields = world.getDistanceFields();
+        Grid grid = world.getGrid();
+        Obstacle obstacle = world.getObstacle();
+
+        // The packed command is the target, i.e. its coordinates and facing
+        DistanceField distanceField = distanceFields.get(command);
+
+        if (distanceField != null && distanceField.update(grid, obstacle)) {
+            return distanceField;
+        }
+
+        distanceField = DistanceField.compute(grid, obstacle, ParsedCommand.xCor(command), ParsedCommand.yCor(command),
+                ParsedCommand.facingOrdinal(command));
+        distanceFields.put(command, distanceField);
+
+        // Evict the targets used least recently
+        Iterator<DistanceField> eldest = distanceFields.values().iterator();
+
+        while (distanceFields.size() > cacheSize) {
+            eldest.next();
+            eldest.remove();
+        }
+
+        return distanceField;
+    }
+
+    /**
+     * Get the number of distance fields kept by a world.
+     *
+     * @param world
+     * @return Number of distance fields
+     */
+    public int getDistanceFieldCount(World world) {
+        synchronized (world) {
+            return world.getDistanceFields().size();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Outcome;
+
+/**
+ * Exception for a rejected command, thrown by the exception-based validation API.
+ * <p>
+ * The stack trace is only filled in if asked for, so that rejections can be made cheap when they are part of the
+ * ordinary control flow (see "validation.stacklessExceptions").
+ *
+ * @author N/A
+ */
+public class RejectedCommandException extends IllegalArgumentException {
+
+    private final Outcome outcome;
+
+    public RejectedCommandException(Outcome outcome, String message, boolean stackTrace) {
+        super(message);
+        this.outcome = outcome;
+
+        if (stackTrace) {
+            super.fillInStackTrace();
+        }
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Filled in by the constructor if asked for
+        return this;
+    }
+}
@@ -0,0 +1,72 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Outcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend services for logging rejected commands with a rate limit per reason.
+ * <p>
+ * Up to "rejectionLog.permitsPerSecond" rejections of each reason (i.e. outcome) are logged individually every
+ * second. Any further rejections of that reason are only counted, and summed up once a second in a single line, e.g.
+ * "1234 robotFallOff rejects suppressed in last second". A suppressed rejection costs no more than incrementing a
+ * counter.
+ *
+ * @author N/A
+ */
+@Service
+@Slf4j
+public class RejectionLogService {
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    @Value("${rejectionLog.permitsPerSecond}")
+    private int permitsPerSecond;
+
+    private final AtomicInteger[] logged = new AtomicInteger[OUTCOMES.length];
+
+    private final LongAdder[] suppressed = new LongAdder[OUTCOMES.length];
+
+    public RejectionLogService() {
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            logged[i] = new AtomicInteger();
+            suppressed[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Log a rejected command, unless the rate limit of its reason has been reached.
+     *
+     * @param outcome
+     * @param errorMsg
+     */
+    public void log(Outcome outcome, String errorMsg) {
+        int index = outcome.ordinal();
+
+        if (logged[index].get() < permitsPerSecond && logged[index].incrementAndGet() <= permitsPerSecond) {
+            log.error(errorMsg);
+        } else {
+            suppressed[index].increment();
+        }
+    }
+
+    /**
+     * Log the number of suppressed rejections of each reason, and start a new second.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void summarize() {
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            long count = suppressed[i].sumThenReset();
+            logged[i].set(0);
+
+            if (count > 0) {
+                log.error("{} {} rejects suppressed in last second", count, OUTCOMES[i].getReason());
+            }
+        }
+    }
+}
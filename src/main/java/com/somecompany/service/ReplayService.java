@@ -0,0 +1,685 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.Facing;
+import com.somecompany.model.JournalRecord;
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.ReplayReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Backend services for replaying a journal offline, e.g. to audit an incident or to reproduce a bug, run by the
+ * "replay" profile instead of the console.
+ * <p>
+ * Unlike the recovery on start, which restores the recorded state of each record (see {@link JournalService}), the
+ * replay performs every command again on worlds of its own, in the order of the journal, with the same validation and
+ * transitions as the engine path of the ToyRobotService: {@link RobotState#transition} for MOVE, LEFT and RIGHT and the
+ * checks of the ValidationService for PLACE and PLACE_OBSTACLE. A command which is rejected on replay, although it has
+ * been accepted when recorded, is a mismatch; with "replay.verifyReports", so is every REPORT whose recorded state (the
+ * location and version of the robot) differs from the replayed one. The state recorded after every other accepted change is
+ * compared with the replayed one as well, and replay goes on from the recorded state after a mismatch.
+ * <p>
+ * Commands on the same robot change its state lock-free and append their records afterwards, so the records of
+ * concurrent commands may be in the journal in another order than their versions. The records of each session are
+ * replayed in the order of their versions instead: a record which is ahead waits for those before it, up to
+ * {@link #MAX_PENDING_RECORDS} of them, and versions which never show up are a mismatch.
+ * <p>
+ * The segments are mapped into memory and the records are decoded in place. The robot of each session is kept as a
+ * plain long rather than in its {@link com.somecompany.model.Robot} during the replay, and the commands are not
+ * timed, so that a command takes a few nanoseconds besides the checksum of its record. Like the recovery, replay of a
+ * segment stops at its first record which fails its checksum. Replay stops after "replay.untilSequence", if set, and
+ * the state of the worlds at that point is printed, of all sessions or of "replay.session".
+ * <p>
+ * With snapshots enabled, the segments before the oldest snapshot kept have been deleted (see SnapshotService), so the
+ * replay starts at the first segment left, on empty worlds, rather than at sequence number 1.
+ *
+ * @author N/A
+ */
+@Service
+@Slf4j
+public class ReplayService {
+
+    private static final byte PLACE = JournalRecord.type(Command.PLACE.ordinal());
+    private static final byte MOVE = JournalRecord.type(Command.MOVE.ordinal());
+    private static final byte LEFT = JournalRecord.type(Command.LEFT.ordinal());
+    private static final byte RIGHT = JournalRecord.type(Command.RIGHT.ordinal());
+    private static final byte REPORT = JournalRecord.type(Command.REPORT.ordinal());
+    private static final byte PLACE_OBSTACLE = JournalRecord.type(Command.PLACE_OBSTACLE.ordinal());
+
+    private static final Facing[] FACINGS = Facing.values();
+
+    private static final int MAX_MISMATCH_DETAILS = 10;
+
+    /**
+     * Largest number of records of a session which wait for the record of an earlier version, see
+     * {@link #replayInOrder}. Beyond that, the earlier record is taken as lost.
+     */
+    private static final int MAX_PENDING_RECORDS = 64;
+
+    /**
+     * Number of replayed states of a session kept to compare REPORTs which have been recorded late with, a power of 2.
+     */
+    private static final int HISTORY_SIZE = 16;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Value("${replay.directory}")
+    private String directory;
+
+    @Value("${replay.untilSequence}")
+    private long untilSequence;
+
+    @Value("${replay.session}")
+    private String session;
+
+    @Value("${replay.verifyReports}")
+    private boolean verifyReports;
+
+    /**
+     * Replay the journal as configured, and print the report and the state of the worlds.
+     *
+     * @param out
+     * @return Report of the replay
+     * @throws IOException
+     */
+    public ReplayReport run(PrintStream out) throws IOException {
+        ReplayReport report = replay(new File(directory), untilSequence, verifyReports);
+
+        out.println("Replayed " + report.getCommands() + " commands (" + report.getRecords() + " records) of "
+                + report.getSegments() + " segments up to sequence " + report.getLastSequence() + " in "
+                + report.getElapsedNanos() / 1_000_000 + " ms (" + Math.round(report.getCommandsPerSecond())
+                + " commands/sec)");
+        out.println("Verified " + report.getVerifiedReports() + " reports, " + report.getMismatches()
+                + " mismatches");
+        report.getMismatchDetails().forEach(out::println);
+
+        for (Map.Entry<String, World> entry : report.getWorlds().entrySet()) {
+            if (session.isEmpty() || session.equals(entry.getKey())) {
+                out.println(entry.getKey() + ": " + describe(entry.getValue()));
+            }
+        }
+
+        return report;
+    }
+
+    /**
+     * Replay a journal.
+     *
+     * @param folder         of the journal, see "journal.directory"
+     * @param untilSequence  Sequence number of the last record to replay, or 0 to replay all records
+     * @param verifyReports  Whether to compare each recorded REPORT with the replayed state
+     * @return Report of the replay, with the worlds of the sessions at the last record replayed
+     * @throws IOException
+     */
+    public ReplayReport replay(File folder, long untilSequence, boolean verifyReports) throws IOException {
+        ReplayReport report = new ReplayReport();
+        Map<String, ReplayedSession> sessions = new HashMap<>();
+        long lastSequence = untilSequence > 0 ? untilSequence : Long.MAX_VALUE;
+        long startNanos = System.nanoTime();
+
+        for (File file : JournalService.listSegments(folder)) {
+            MappedByteBuffer buffer;
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            if (buffer.limit() < JournalRecord.SEGMENT_HEADER_SIZE || buffer.getInt(0) != JournalRecord.MAGIC
+                    || buffer.getShort(4) != JournalRecord.FORMAT_VERSION) {
+                log.warn("Skipped {}, which is not a journal segment", file);
+                continue;
+            }
+
+            report.setSegments(report.getSegments() + 1);
+
+            if (!replay(file, buffer, sessions, lastSequence, verifyReports, report)) {
+                break;
+            }
+        }
+
+        if (report.getLastSequence() < lastSequence) {
+            // The records still waiting have not been followed by those of the versions before them
+            for (ReplayedSession replayed : sessions.values()) {
+                replayPending(replayed, verifyReports, report);
+            }
+        }
+
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        report.setCommandsPerSecond(report.getCommands() * 1e9 / Math.max(report.getElapsedNanos(), 1));
+
+        // Sessions in the order they have been started
+        sessions.values().stream().sorted(Comparator.comparingLong(replayed -> replayed.startSequence))
+                .forEach(replayed -> {
+                    replayed.world.getRobot().restore(replayed.state);
+                    report.getWorlds().put(replayed.sessionId, replayed.world);
+                });
+
+        return report;
+    }
+
+    /**
+     * Replay the records of a segment.
+     *
+     * @return Whether to go on with the next segment, i.e. the last record to replay has not been reached
+     */
+    private boolean replay(File file, MappedByteBuffer buffer, Map<String, ReplayedSession> sessions,
+                           long lastSequence, boolean verifyReports, ReplayReport report) {
+        ReplayedSession[] numbered = new ReplayedSession[16];
+        ByteBuffer view = buffer.duplicate();
+        CRC32 crc = new CRC32();
+        int limit = buffer.limit();
+        int position = JournalRecord.SEGMENT_HEADER_SIZE;
+        long sequence = buffer.getLong(6) - 1;
+        long records = 0;
+        boolean more = true;
+
+        ReplayedSession current = null;
+        int currentNumber = -1;
+
+        while (position < limit) {
+            byte type = buffer.get(position);
+
+            if (type == JournalRecord.END) {
+                break;
+            }
+
+            if (sequence >= lastSequence) {
+                more = false;
+                break;
+            }
+
+            // The records of commands other than PLACE_OBSTACLE are all of the same size
+            int size = type > JournalRecord.END && type < PLACE_OBSTACLE ? JournalRecord.COMMAND_SIZE
+                    : JournalRecord.size(buffer, position);
+
+            if (size < 0 || position + size > limit) {
+                log.warn("Stopped replaying {} at an incomplete or unknown record at {}", file, position);
+                more = false;
+                break;
+            }
+
+            if (!JournalRecord.isIntact(view, crc, position, size)) {
+                log.warn("Stopped replaying {} at a record which fails its checksum at {}", file, position);
+                more = false;
+                break;
+            }
+
+            int number = buffer.getShort(position + 1) & 0xFFFF;
+
+            if (number != currentNumber || type == JournalRecord.SESSION) {
+                if (type == JournalRecord.SESSION) {
+                    if (number >= numbered.length) {
+                        numbered = Arrays.copyOf(numbered, Math.max(number + 1, numbered.length * 2));
+                    }
+
+                    numbered[number] = startSession(buffer, position, sequence + 1, sessions);
+                } else if (number >= numbered.length || numbered[number] == null) {
+                    log.warn("Stopped replaying {} at a record of an undeclared session at {}", file, position);
+                    more = false;
+                    break;
+                }
+
+                current = numbered[number];
+                currentNumber = number;
+            }
+
+            sequence++;
+            records++;
+
+            if (current.ended || type == JournalRecord.SESSION) {
+                // Nothing to replay
+            } else if (type == JournalRecord.SESSION_END) {
+                replayPending(current, verifyReports, report);
+                current.ended = true;
+                sessions.remove(current.sessionId);
+            } else {
+                replayInOrder(buffer, position, sequence, type, current, verifyReports, report);
+            }
+
+            position += size;
+        }
+
+        report.setRecords(report.getRecords() + records);
+        report.setLastSequence(Math.max(report.getLastSequence(), sequence));
+        return more;
+    }
+
+    /**
+     * Replay a record in the order of the versions of the session, rather than in the order of the journal: a record
+     * whose version is ahead of the replayed one waits until the records of the versions in between have been
+     * replayed, and a REPORT whose version is behind is compared with the replayed state of its version.
+     */
+    private void replayInOrder(MappedByteBuffer buffer, int position, long sequence, byte type,
+                               ReplayedSession replayed, boolean verifyReports, ReplayReport report) {
+        long recorded = buffer.getLong(position + 3);
+        long version = RobotState.version(recorded);
+        long expected = expectedVersion(replayed.state, type);
+
+        if (version == expected) {
+            replayRecord(buffer, position, sequence, type, replayed, verifyReports, report);
+
+            if (!replayed.pending.isEmpty()) {
+                replayPendingInOrder(replayed, verifyReports, report);
+            }
+        } else if (RobotState.isNewerVersion(version, expected)) {
+            replayed.pending.add(new PendingRecord(buffer, position, sequence, type));
+
+            if (replayed.pending.size() > MAX_PENDING_RECORDS) {
+                // The record of the next version is lost, or too far behind to wait for
+                skipGap(replayed, verifyReports, report);
+            }
+        } else if (type == REPORT) {
+            if (verifyReports) {
+                long replayedState = replayed.history[(int) version & (HISTORY_SIZE - 1)];
+
+                if (!RobotState.isSameState(recorded, replayedState)) {
+                    // Compared, but replay goes on from the newer replayed state
+                    mismatch(report, sequence, replayed, type, recorded, RobotState.version(replayedState) == version
+                            ? describe(replayedState) : "version " + version + ", which is no longer known");
+                }
+
+                report.setVerifiedReports(report.getVerifiedReports() + 1);
+            }
+
+            report.setCommands(report.getCommands() + 1);
+        } else {
+            // A record of a version which has been replayed already, e.g. a duplicate
+            mismatch(report, sequence, replayed, type, recorded, "already at " + describe(replayed.state));
+        }
+    }
+
+    /**
+     * Replay the records which have been waiting for the records of the versions before them, as far as they are no
+     * longer ahead of the replayed version.
+     */
+    private void replayPendingInOrder(ReplayedSession replayed, boolean verifyReports, ReplayReport report) {
+        List<PendingRecord> pending = replayed.pending;
+
+        for (int i = 0; i < pending.size(); ) {
+            PendingRecord record = pending.get(i);
+            if (!RobotState.isNewerVersion(record.version(), expectedVersion(replayed.state, record.type))) {
+                pending.remove(i);
+                replayInOrder(record.buffer, record.position, record.sequence, record.type, replayed, verifyReports,
+                        report);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Replay all the records which are still waiting, e.g. at the end of the session or of the journal, skipping the
+     * versions whose records are missing.
+     */
+    private void replayPending(ReplayedSession replayed, boolean verifyReports, ReplayReport report) {
+        while (!replayed.pending.isEmpty()) {
+            skipGap(replayed, verifyReports, report);
+        }
+    }
+
+    /**
+     * Count the versions missing before the oldest waiting record as a mismatch, then go on from that record.
+     */
+    private void skipGap(ReplayedSession replayed, boolean verifyReports, ReplayReport report) {
+        List<PendingRecord> pending = replayed.pending;
+        PendingRecord oldest = pending.get(0);
+
+        for (PendingRecord record : pending) {
+            if (RobotState.isNewerVersion(oldest.version(), record.version())) {
+                oldest = record;
+            }
+        }
+
+        pending.remove(oldest);
+        mismatch(report, oldest.sequence, replayed, oldest.type, oldest.buffer.getLong(oldest.position + 3),
+                "missing the versions after " + RobotState.version(replayed.state));
+
+        // As if the missing records had not moved the robot
+        replayed.state = RobotState.withVersion(replayed.state,
+                isChange(oldest.type) ? oldest.version() - 1 : oldest.version());
+        replayRecord(oldest.buffer, oldest.position, oldest.sequence, oldest.type, replayed, verifyReports, report);
+        replayPendingInOrder(replayed, verifyReports, report);
+    }
+
+    /**
+     * Replay a record which follows the replayed version of its session.
+     */
+    private void replayRecord(MappedByteBuffer buffer, int position, long sequence, byte type,
+                              ReplayedSession replayed, boolean verifyReports, ReplayReport report) {
+        long recorded = buffer.getLong(position + 3);
+
+        if (type >= MOVE && type <= RIGHT) {
+            // MOVE, LEFT and RIGHT are consecutive commands
+            long location = RobotState.transition(replayed.state, type - 1, replayed.world);
+
+            if (RobotState.isRejected(location)) {
+                replayed.state = mismatch(report, sequence, replayed, type, recorded,
+                        validationService.checkTransition(location).name());
+            } else {
+                replayed.state = verify(report, sequence, replayed, type, recorded,
+                        RobotState.next(replayed.state, location));
+            }
+
+            report.setCommands(report.getCommands() + 1);
+        } else if (type == REPORT) {
+            if (verifyReports) {
+                if (!RobotState.isSameState(recorded, replayed.state)) {
+                    replayed.state = mismatch(report, sequence, replayed, type, recorded, describe(replayed.state));
+                }
+
+                report.setVerifiedReports(report.getVerifiedReports() + 1);
+            }
+
+            report.setCommands(report.getCommands() + 1);
+        } else if (type == PLACE) {
+            place(buffer, position, sequence, replayed, report);
+            report.setCommands(report.getCommands() + 1);
+        } else if (type == PLACE_OBSTACLE) {
+            placeObstacle(buffer, position, sequence, replayed, report);
+            report.setCommands(report.getCommands() + 1);
+        } else {
+            replayOther(buffer, position, sequence, type, replayed, report);
+        }
+
+        replayed.history[(int) RobotState.version(replayed.state) & (HISTORY_SIZE - 1)] = replayed.state;
+    }
+
+    private ReplayedSession startSession(MappedByteBuffer buffer, int position, long sequence,
+                                         Map<String, ReplayedSession> sessions) {
+        byte[] sessionId = new byte[buffer.getShort(position + 7) & 0xFFFF];
+
+        for (int i = 0; i < sessionId.length; i++) {
+            sessionId[i] = buffer.get(position + 9 + i);
+        }
+
+        // A session is declared again in every segment it has records in
+        ReplayedSession replayed = sessions.computeIfAbsent(new String(sessionId, StandardCharsets.UTF_8),
+                id -> new ReplayedSession(id, sessionService.createWorld(), sequence));
+
+        replayed.world.getGrid().setWidth(buffer.getShort(position + 3) & 0xFFFF);
+        replayed.world.getGrid().setHeight(buffer.getShort(position + 5) & 0xFFFF);
+        return replayed;
+    }
+
+    private void place(MappedByteBuffer buffer, int position, long sequence, ReplayedSession replayed,
+                       ReplayReport report) {
+        long recorded = buffer.getLong(position + 3);
+        Outcome outcome = validationService.checkPlaceCommand(replayed.world, ParsedCommand.place(
+                RobotState.xCor(recorded), RobotState.yCor(recorded), RobotState.facingOrdinal(recorded)));
+
+        if (outcome.isRejected()) {
+            replayed.state = mismatch(report, sequence, replayed, PLACE, recorded, outcome.name());
+        } else {
+            replayed.state = verify(report, sequence, replayed, PLACE, recorded,
+                    RobotState.next(replayed.state, RobotState.location(recorded)));
+        }
+    }
+
+    private void placeObstacle(MappedByteBuffer buffer, int position, long sequence, ReplayedSession replayed,
+                               ReplayReport report) {
+        World world = replayed.world;
+        long recordedState = buffer.getLong(position + 3);
+        int recorded = buffer.getInt(position + JournalRecord.HEADER_SIZE);
+
+        // The validation reads the state from the robot
+        world.getRobot().restore(replayed.state);
+        Outcome outcome = validationService.checkPlaceObstacle(world);
+        changeObstacles(replayed);
+
+        if (outcome.isRejected()) {
+            replayed.state = mismatch(report, sequence, replayed, PLACE_OBSTACLE, recordedState, outcome.name());
+            world.getObstacle().place(JournalRecord.obstacleXCor(recorded), JournalRecord.obstacleYCor(recorded));
+            return;
+        }
+
+        Facing facing = FACINGS[RobotState.facingOrdinal(replayed.state)];
+        int xCor = RobotState.xCor(replayed.state) + facing.getDx();
+        int yCor = RobotState.yCor(replayed.state) + facing.getDy();
+
+        if (JournalRecord.packObstacle(xCor, yCor) != recorded) {
+            replayed.state = mismatch(report, sequence, replayed, PLACE_OBSTACLE, recordedState,
+                    "obstacle at " + xCor + "," + yCor);
+            world.getObstacle().place(JournalRecord.obstacleXCor(recorded), JournalRecord.obstacleYCor(recorded));
+            return;
+        }
+
+        world.getObstacle().place(xCor, yCor);
+        replayed.state = verify(report, sequence, replayed, PLACE_OBSTACLE, recordedState,
+                RobotState.next(replayed.state, RobotState.location(replayed.state)));
+    }
+
+    /**
+     * Replay a record other than of a command, i.e. of the obstacles, a batch or a session.
+     */
+    private void replayOther(MappedByteBuffer buffer, int position, long sequence, byte type,
+                             ReplayedSession replayed, ReplayReport report) {
+        Obstacle obstacle = replayed.world.getObstacle();
+        int payload = position + JournalRecord.HEADER_SIZE;
+        long recorded = buffer.getLong(position + 3);
+
+        if (type == JournalRecord.BATCH_BEGIN) {
+            // Like the BatchService, the obstacles are only copied before they are changed by the batch
+            replayed.batch = true;
+            replayed.batchState = replayed.state;
+            replayed.obstacleSnapshot = null;
+        } else if (type == JournalRecord.BATCH_ROLLBACK) {
+            if (replayed.obstacleSnapshot != null) {
+                obstacle.restore(replayed.obstacleSnapshot);
+            }
+
+            replayed.state = verify(report, sequence, replayed, type, recorded,
+                    RobotState.next(replayed.state, RobotState.location(replayed.batchState)));
+            replayed.batch = false;
+            replayed.obstacleSnapshot = null;
+        } else if (type == JournalRecord.ADD_OBSTACLES || type == JournalRecord.REMOVE_OBSTACLES) {
+            changeObstacles(replayed);
+
+            int count = buffer.getShort(payload) & 0xFFFF;
+
+            for (int i = 0; i < count; i++) {
+                int packed = buffer.getInt(payload + 2 + 4 * i);
+
+                if (type == JournalRecord.ADD_OBSTACLES) {
+                    obstacle.add(JournalRecord.obstacleXCor(packed), JournalRecord.obstacleYCor(packed));
+                } else {
+                    obstacle.remove(JournalRecord.obstacleXCor(packed), JournalRecord.obstacleYCor(packed));
+                }
+            }
+
+            replayed.state = verify(report, sequence, replayed, type, recorded,
+                    RobotState.next(replayed.state, RobotState.location(replayed.state)));
+        }
+    }
+
+    private void changeObstacles(ReplayedSession replayed) {
+        if (replayed.batch && replayed.obstacleSnapshot == null) {
+            replayed.obstacleSnapshot = replayed.world.getObstacle().copy();
+        }
+    }
+
+    /**
+     * Compare the recorded state after a change with the replayed one.
+     *
+     * @return Replayed state, or the recorded one if they differ
+     */
+    private long verify(ReplayReport report, long sequence, ReplayedSession replayed, byte type, long recorded,
+                        long replayedState) {
+        if (RobotState.isSameState(recorded, replayedState)) {
+            return replayedState;
+        }
+
+        return mismatch(report, sequence, replayed, type, recorded, describe(replayedState));
+    }
+
+    /**
+     * Count a mismatch and describe it, if it is one of the first.
+     *
+     * @return Recorded state, from which the replay goes on
+     */
+    private long mismatch(ReplayReport report, long sequence, ReplayedSession replayed, byte type, long recorded,
+                          String replayedOutcome) {
+        report.setMismatches(report.getMismatches() + 1);
+
+        if (report.getMismatchDetails().size() < MAX_MISMATCH_DETAILS) {
+            report.getMismatchDetails().add("Mismatch at sequence " + sequence + " of session " + replayed.sessionId
+                    + ": " + name(type) + " recorded as " + describe(recorded) + ", replayed as "
+                    + replayedOutcome);
+        }
+
+        return recorded;
+    }
+
+    /**
+     * Get the version a record is expected to have after the replayed state of its session: the next one for a
+     * change, or the same for a REPORT and the begin of a batch.
+     */
+    private static long expectedVersion(long state, byte type) {
+        long version = RobotState.version(state);
+        return isChange(type) ? RobotState.nextVersion(version) : version;
+    }
+
+    /**
+     * Check whether a record is of a change of the state, i.e. whether its version is that of a change.
+     */
+    private static boolean isChange(byte type) {
+        return type != REPORT && type != JournalRecord.BATCH_BEGIN;
+    }
+
+    private static String name(byte type) {
+        Command command = JournalRecord.command(type);
+
+        if (command != null) {
+            return command.name();
+        }
+
+        switch (type) {
+            case JournalRecord.ADD_OBSTACLES:
+                return "ADD_OBSTACLES";
+            case JournalRecord.REMOVE_OBSTACLES:
+                return "REMOVE_OBSTACLES";
+            case JournalRecord.BATCH_BEGIN:
+                return "BATCH_BEGIN";
+            case JournalRecord.BATCH_ROLLBACK:
+                return "BATCH_ROLLBACK";
+            default:
+                return "record of type " + type;
+        }
+    }
+
+    private static String describe(long state) {
+        if (!RobotState.hasLocation(state)) {
+            return "no location (version " + RobotState.version(state) + ")";
+        }
+
+        return RobotState.xCor(state) + "," + RobotState.yCor(state) + "," + RobotState.facing(state).name()
+                + " (version " + RobotState.version(state) + ")";
+    }
+
+    private String describe(World world) {
+        StringBuilder report = new StringBuilder(128);
+
+        if (!toyRobotService.appendReport(world, report)) {
+            return validationService.getMessage(Outcome.NO_LOCATION, world);
+        }
+
+        return report.append(" (version ").append(world.getRobot().getVersion()).append(')').toString();
+    }
+
+    /**
+     * A session being replayed, i.e. its world and the state of its robot.
+     */
+    private static class ReplayedSession {
+
+        private final String sessionId;
+
+        private final World world;
+
+        /**
+         * Sequence number of the first record of the session.
+         */
+        private final long startSequence;
+
+        private long state = RobotState.NO_LOCATION;
+
+        private boolean ended;
+
+        private boolean batch;
+
+        private long batchState;
+
+        private Obstacle obstacleSnapshot;
+
+        /**
+         * Records which wait for the records of the versions before them.
+         */
+        private final List<PendingRecord> pending = new ArrayList<>();
+
+        /**
+         * Replayed states of the latest versions, by version modulo {@link #HISTORY_SIZE}.
+         */
+        private final long[] history = new long[HISTORY_SIZE];
+
+        private ReplayedSession(String sessionId, World world, long startSequence) {
+            this.sessionId = sessionId;
+            this.world = world;
+            this.startSequence = startSequence;
+            this.history[0] = state;
+        }
+    }
+
+    /**
+     * A record which waits for the records of the versions before it, in its mapped segment.
+     */
+    private static class PendingRecord {
+
+        private final MappedByteBuffer buffer;
+
+        private final int position;
+
+        private final long sequence;
+
+        private final byte type;
+
+        private PendingRecord(MappedByteBuffer buffer, int position, long sequence, byte type) {
+            this.buffer = buffer;
+            this.position = position;
+            this.sequence = sequence;
+            this.type = type;
+        }
+
+        private long version() {
+            return RobotState.version(buffer.getLong(position + 3));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Grid;
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.Robot;
+import com.somecompany.model.World;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Backend services for keeping track of the world of each session.
+ * <p>
+ * A session is created by the first command sent to it, and ended by the client or once it has not been used for
+ * "session.idleTimeoutMs", so that the sessions of clients which go away do not pile up. The default session is never
+ * ended.
+ *
+ * @author N/A
+ */
+@Service
+public class SessionService {
+
+    public static final String DEFAULT_SESSION_ID = "default";
+
+    @Autowired
+    @Qualifier("world")
+    private World defaultWorld;
+
+    @Value("${grid.width.defaultSize}")
+    private int gridWidthDefaultSize;
+
+    @Value("${grid.height.defaultSize}")
+    private int gridHeightDefaultSize;
+
+    @Value("${session.idleTimeoutMs}")
+    private long idleTimeoutMs;
+
+    @Autowired
+    private JournalService journalService;
+
+    private final ConcurrentMap<String, World> worlds = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        defaultWorld.setSessionId(DEFAULT_SESSION_ID);
+        worlds.put(DEFAULT_SESSION_ID, defaultWorld);
+
+        // The worlds of the sessions are rebuilt from the snapshots and the journal by SnapshotService
+    }
+
+    /**
+     * Get the world of the default session, i.e. the one shared by the console and the session-less API endpoints.
+     *
+     * @return World of the default session
+     */
+    public World getDefaultWorld() {
+        return defaultWorld;
+    }
+
+    /**
+     * Get the world of a session, creating it with the default grid size if it does not exist yet.
+     *
+     * @param sessionId
+     * @return World of the session
+     */
+    public World getWorld(String sessionId) {
+        for (;;) {
+            World world = worlds.computeIfAbsent(sessionId, id -> {
+                World created = createWorld();
+                created.setSessionId(id);
+                return created;
+            });
+
+            world.setLastAccessMillis(System.currentTimeMillis());
+
+            if (!world.isEnded()) {
+                return world;
+            }
+
+            // Ended since it has been looked up, so that the next lookup creates the session anew
+        }
+    }
+
+    /**
+     * Get the world of a session without creating it, e.g. for the read-only API endpoints.
+     *
+     * @param sessionId
+     * @return World of the session, or null if the session does not exist
+     */
+    public World findWorld(String sessionId) {
+        World world = worlds.get(sessionId);
+
+        if (world != null) {
+            world.setLastAccessMillis(System.currentTimeMillis());
+        }
+
+        return world;
+    }
+
+    /**
+     * End a session and discard its world. The default session cannot be ended.
+     *
+     * @param sessionId
+     * @return Whether the session existed and has been removed
+     */
+    public boolean removeSession(String sessionId) {
+        if (DEFAULT_SESSION_ID.equals(sessionId)) {
+            return false;
+        }
+
+        World world = worlds.get(sessionId);
+
+        if (world == null) {
+            return false;
+        }
+
+        synchronized (world) {
+            if (!worlds.remove(sessionId, world)) {
+                return false;
+            }
+
+            end(world);
+        }
+
+        return true;
+    }
+
+    /**
+     * End the sessions which have not been used for "session.idleTimeoutMs", unless it is 0. Checked every
+     * "session.evictionIntervalMs".
+     *
+     * @return Number of sessions ended
+     */
+    @Scheduled(fixedDelayString = "${session.evictionIntervalMs}", initialDelayString = "${session.evictionIntervalMs}")
+    public int evictIdleSessions() {
+        if (idleTimeoutMs <= 0) {
+            return 0;
+        }
+
+        long idleSince = System.currentTimeMillis() - idleTimeoutMs;
+        int count = 0;
+
+        for (World world : worlds.values()) {
+            if (world == defaultWorld || world.getLastAccessMillis() >= idleSince) {
+                continue;
+            }
+
+            synchronized (world) {
+                // Checked again, since the world may have been looked up in the meantime
+                if (world.getLastAccessMillis() < idleSince && worlds.remove(world.getSessionId(), world)) {
+                    end(world);
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Mark a world which has been removed from the sessions as ended and journal the end of its session, while the
+     * world is locked. Commands which are still in flight on the world are not journaled after the end.
+     */
+    private void end(World world) {
+        world.setEnded(true);
+        journalService.journalSessionEnd(world);
+    }
+
+    /**
+     * Get the worlds of the active sessions, including the default session.
+     *
+     * @return Live view of the worlds
+     */
+    public Collection<World> getWorlds() {
+        return Collections.unmodifiableCollection(worlds.values());
+    }
+
+    /**
+     * Check whether a world is still the world of its session, i.e. the session has not been ended since.
+     *
+     * @param world
+     * @return Whether the world belongs to an active session
+     */
+    public boolean isActive(World world) {
+        return world.getSessionId() != null && !world.isEnded() && worlds.get(world.getSessionId()) == world;
+    }
+
+    /**
+     * Get the number of active sessions, including the default session.
+     *
+     * @return Number of active sessions
+     */
+    public int getSessionCount() {
+        return worlds.size();
+    }
+
+    /**
+     * Get the number of obstacles placed in the worlds of the active sessions. The worlds are not locked, so that a
+     * scrape does not wait for the commands in flight, and the count may lag behind them, which is fine for a gauge.
+     *
+     * @return Approximate number of obstacles
+     */
+    public int getObstacleCount() {
+        int count = 0;
+
+        for (World world : worlds.values()) {
+            count += world.getObstacle().getCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * Create a world with the default grid size which does not belong to any session, e.g. the world of a WebSocket
+     * connection.
+     *
+     * @return New world
+     */
+    public World createWorld() {
+        Grid grid = new Grid();
+        grid.setWidth(gridWidthDefaultSize);
+        grid.setHeight(gridHeightDefaultSize);
+
+        World world = new World();
+        world.setRobot(new Robot());
+        world.setObstacle(new Obstacle());
+        world.setGrid(grid);
+        return world;
+    }
+}
@@ -0,0 +1,308 @@
+package com.somecompany.service;
+
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.World;
+import com.somecompany.model.WorldSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Backend services for the snapshots of the worlds of all sessions, so that a restart only replays the journal since
+ * the latest snapshot instead of the whole history.
+ * <p>
+ * Enabled by "snapshot.enabled". A snapshot is taken every "snapshot.intervalMs" (unless no command has been
+ * journaled since the previous one) and on demand by "POST /api/toyrobot/snapshots", and written with NIO to
+ * "snapshot.directory" in the compact format of {@link WorldSnapshot}. The latest "snapshot.retain" snapshots are kept.
+ * <p>
+ * Taking a snapshot does not stop the commands: each world is only locked while its obstacles are copied, which keeps
+ * out changes of the obstacles and batches but not the lock-free commands on the robot, and the snapshot is encoded
+ * and written after. The sequence number of the journal is read together with each world, so that on restore the
+ * journal is replayed from exactly there, see {@link JournalService#recover}. Restoring reads the latest snapshot
+ * which is intact, which takes time in proportion to its size.
+ * <p>
+ * The journal segments before the oldest snapshot kept are deleted after each snapshot, so that the journal does not
+ * grow without bound. The trade-off: a restart can no longer fall back to replaying the whole journal if none of the
+ * snapshots kept is intact, and the offline replay (see ReplayService) can no longer start from sequence number 1.
+ *
+ * @author N/A
+ */
+@Service
+@Slf4j
+public class SnapshotService {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Value("${snapshot.enabled}")
+    private boolean enabled;
+
+    @Value("${snapshot.directory}")
+    private String directory;
+
+    @Value("${snapshot.retain}")
+    private int retain;
+
+    private final Object snapshotLock = new Object();
+
+    private long lastSnapshotSequence = -1;
+
+    @PostConstruct
+    public void init() {
+        recover();
+    }
+
+    /**
+     * @return Whether snapshots are taken
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Restore the worlds of the sessions from the latest snapshot, if enabled, and replay the journal since. Called
+     * once on start.
+     */
+    public void recover() {
+        long snapshotSequence = 0;
+        Map<String, Long> sessionSequences = new HashMap<>();
+
+        if (enabled) {
+            File[] files = listSnapshots();
+
+            for (int i = files.length - 1; i >= 0; i--) {
+                try {
+                    snapshotSequence = restore(files[i], sessionSequences);
+                    break;
+                } catch (IOException | RuntimeException exception) {
+                    log.warn("Skipped snapshot {}, which cannot be restored", files[i], exception);
+                    sessionSequences.clear();
+                }
+            }
+        }
+
+        journalService.recover(sessionService, snapshotSequence, sessionSequences);
+    }
+
+    /**
+     * Take a snapshot every "snapshot.intervalMs", if enabled and any command has been journaled since the previous
+     * one.
+     */
+    @Scheduled(fixedDelayString = "${snapshot.intervalMs}", initialDelayString = "${snapshot.intervalMs}")
+    public void takeSnapshotPeriodically() {
+        if (!enabled || (journalService.isEnabled() && journalService.getLastSequence() == lastSnapshotSequence)) {
+            return;
+        }
+
+        try {
+            takeSnapshot();
+        } catch (IOException exception) {
+            log.error("Failed to take a snapshot", exception);
+        }
+    }
+
+    /**
+     * Take a snapshot of the worlds of all sessions and write it to "snapshot.directory".
+     *
+     * @return Snapshot file
+     * @throws IOException
+     */
+    public File takeSnapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long startNanos = System.nanoTime();
+            long snapshotSequence = journalService.getLastSequence();
+
+            ByteArrayOutputStream sessions = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(sessions);
+            int sessionCount = 0;
+
+            for (World world : sessionService.getWorlds()) {
+                long sessionSequence;
+                long state;
+                int gridWidth;
+                int gridHeight;
+                Obstacle obstacle;
+
+                synchronized (world) {
+                    // Read the sequence number first, so that the records up to it are all in the state read after
+                    sessionSequence = journalService.getLastSequence();
+
+                    if (!sessionService.isActive(world)) {
+                        // Ended in the meantime
+                        continue;
+                    }
+
+                    state = world.getRobot().getState();
+                    gridWidth = world.getGrid().getWidth();
+                    gridHeight = world.getGrid().getHeight();
+                    obstacle = world.getObstacle().copy();
+                }
+
+                WorldSnapshot.writeString(out, world.getSessionId());
+                out.writeLong(sessionSequence);
+                WorldSnapshot.writeWorld(out, state, gridWidth, gridHeight, obstacle);
+                sessionCount++;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + sessions.size() + 4);
+            buffer.putInt(WorldSnapshot.MAGIC).putShort(WorldSnapshot.FORMAT_VERSION).putLong(snapshotSequence)
+                    .putInt(sessionCount).put(sessions.toByteArray());
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+
+            Path folder = Paths.get(directory);
+            Files.createDirectories(folder);
+
+            Path file = folder.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshotSequence, SNAPSHOT_SUFFIX));
+            Path temporaryFile = folder.resolve(file.getFileName() + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                channel.force(true);
+            }
+
+            // A snapshot file is either complete or not there at all
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            lastSnapshotSequence = snapshotSequence;
+            int segments = deleteOldSnapshots();
+
+            log.info("Took a snapshot of {} sessions ({} bytes) at journal sequence {} in {} ms and deleted {} "
+                    + "journal segments", sessionCount, buffer.limit(), snapshotSequence,
+                    (System.nanoTime() - startNanos) / 1_000_000, segments);
+
+            return file.toFile();
+        }
+    }
+
+    /**
+     * Restore the worlds of the sessions in a snapshot.
+     *
+     * @param file
+     * @param sessionSequences to which the sequence number of each session restored is put
+     * @return Sequence number of the snapshot
+     */
+    private long restore(File file, Map<String, Long> sessionSequences) throws IOException {
+        long startNanos = System.nanoTime();
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int length = buffer.limit() - 4;
+
+        if (length < HEADER_SIZE || buffer.getInt(0) != WorldSnapshot.MAGIC
+                || buffer.getShort(4) != WorldSnapshot.FORMAT_VERSION) {
+            throw new IOException("Not a snapshot of format version " + WorldSnapshot.FORMAT_VERSION);
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(length);
+        crc.update(content);
+
+        if ((int) crc.getValue() != buffer.getInt(length)) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        buffer.position(6);
+        buffer.limit(length);
+
+        long snapshotSequence = buffer.getLong();
+        int sessionCount = buffer.getInt();
+
+        for (int i = 0; i < sessionCount; i++) {
+            String sessionId = WorldSnapshot.readString(buffer);
+            long sessionSequence = buffer.getLong();
+
+            WorldSnapshot.readWorld(buffer, sessionService.getWorld(sessionId));
+            sessionSequences.put(sessionId, sessionSequence);
+        }
+
+        log.info("Restored {} sessions from snapshot {} in {} ms", sessionCount, file,
+                (System.nanoTime() - startNanos) / 1_000_000);
+
+        return snapshotSequence;
+    }
+
+    /**
+     * Delete all but the latest "snapshot.retain" snapshots, and the journal segments before the oldest snapshot kept.
+     *
+     * @return Number of journal segments deleted
+     * @throws IOException
+     */
+    private int deleteOldSnapshots() throws IOException {
+        File[] files = listSnapshots();
+        int oldest = Math.max(files.length - retain, 0);
+
+        for (int i = 0; i < oldest; i++) {
+            Files.deleteIfExists(files[i].toPath());
+        }
+
+        if (oldest == files.length) {
+            return 0;
+        }
+
+        String name = files[oldest].getName();
+
+        try {
+            return journalService.deleteSegmentsBefore(Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                    name.length() - SNAPSHOT_SUFFIX.length())));
+        } catch (NumberFormatException exception) {
+            // Not named by takeSnapshot, so its sequence number is unknown
+            return 0;
+        }
+    }
+
+    /**
+     * @return Snapshot files, oldest first
+     */
+    private File[] listSnapshots() {
+        File[] files = new File(directory).listFiles((dir, name) -> name.startsWith(SNAPSHOT_PREFIX)
+                && name.endsWith(SNAPSHOT_SUFFIX));
+
+        if (files == null) {
+            return new File[0];
+        }
+
+        Arrays.sort(files);
+        return files;
+    }
+}
@@ -1,54 +1,122 @@
 package com.somecompany.service;
 
+import com.somecompany.model.Command;
 import com.somecompany.model.Facing;
 import com.somecompany.model.Location;
 import com.somecompany.model.Obstacle;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.RenderedReport;
 import com.somecompany.model.Robot;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Backend services for handling the commands.
+ * <p>
+ * Every command is performed on the world of a session. Commands on different worlds run in parallel. Commands which
+ * only change the robot (PLACE, MOVE, LEFT and RIGHT) and REPORT take no lock: they replace the state of the robot by
+ * compare-and-set and retry on contention, see {@link Robot}. Changes of the obstacles and batches lock the world and
+ * set the exclusive flag of the robot for their duration, so that the commands of other threads wait for them. The
+ * time taken by each command is recorded by {@link MetricsService}, and every accepted command on the world of a
+ * session is journaled by {@link JournalService}. GOTO locks the world like a batch and performs the commands planned
+ * by {@link PathfindingService} one by one, so that it is journaled as those commands.
  *
  * @author N/A
  */
 @Service
 public class ToyRobotService {
 
-    @Autowired
-    @Qualifier("robot")
-    private Robot robot;
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final int PLACE = Command.PLACE.ordinal();
+    private static final int PLACE_OBSTACLE = Command.PLACE_OBSTACLE.ordinal();
+    private static final int MOVE = Command.MOVE.ordinal();
+    private static final int REPORT = Command.REPORT.ordinal();
+    private static final int LEFT = Command.LEFT.ordinal();
+    private static final int RIGHT = Command.RIGHT.ordinal();
+    private static final int GOTO = Command.GOTO.ordinal();
 
     @Autowired
-    @Qualifier("obstacle")
-    private Obstacle obstacle;
+    private SessionService sessionService;
 
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private PathfindingService pathfindingService;
+
     /**
-     * Handle "REPORT" command.
+     * Handle one line of command, e.g. "PLACE 1,2,NORTH" or "MOVE". This may be a command from file, by manual input
+     * at command line or from a batch.
      *
-     * @return The location of the robot and obstacle (if any)
+     * @param usrInput
+     * @return Output of the command, i.e. the report for "REPORT", the route for "GOTO" and null otherwise
      * @throws IllegalArgumentException
      */
-    public String report() throws IllegalArgumentException {
+    public String execute(String usrInput) throws IllegalArgumentException {
+        return execute(sessionService.getDefaultWorld(), usrInput);
+    }
 
-        // Validate robot location
-        validationService.validateRobotLocation();
+    /**
+     * Handle one line of command on a world.
+     *
+     * @param world
+     * @param usrInput
+     * @return Output of the command, i.e. the report for "REPORT", the route for "GOTO" and null otherwise
+     * @throws IllegalArgumentException
+     */
+    public String execute(World world, String usrInput) throws IllegalArgumentException {
+        // Parse and validate user input in a single pass
+        return execute(world, ParsedCommand.parse(usrInput));
+    }
 
-        String reportStr = "Robot is at " + robot.getLocation().getXCor() + "," + robot.getLocation().getYCor() + ","
-                + robot.getLocation().getFacing();
+    /**
+     * Handle one parsed line of command on a world, see {@link ParsedCommand#parse}.
+     *
+     * @param world
+     * @param Parsed command
+     * @return Output of the command, i.e. the report for "REPORT", the route for "GOTO" and null otherwise
+     * @throws IllegalArgumentException
+     */
+    public String execute(World world, long command) throws IllegalArgumentException {
+        StringBuilder report = command == REPORT || ParsedCommand.commandOrdinal(command) == GOTO
+                ? new StringBuilder(64) : null;
 
-        if (obstacle.getLocation() != null) {
-            // Obstacle has been placed
+        validationService.reject(applyCommand(world, command, report), world);
 
-            // Append obstacle location info as well
-            reportStr += "; " + "Obstacle is at " + obstacle.getLocation().getXCor() + "," + obstacle.getLocation().getYCor();
-        }
+        return report == null ? null : report.toString();
+    }
 
-        return reportStr;
+    /**
+     * Handle "REPORT" command.
+     *
+     * @return The location of the robot and obstacle (if any)
+     * @throws IllegalArgumentException
+     */
+    public String report() throws IllegalArgumentException {
+        return report(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * Handle "REPORT" command on a world.
+     *
+     * @param world
+     * @return The location of the robot and obstacle (if any)
+     * @throws IllegalArgumentException
+     */
+    public String report(World world) throws IllegalArgumentException {
+        return execute(world, REPORT);
     }
 
     /**
@@ -60,16 +128,31 @@ public class ToyRobotService {
      * @throws IllegalArgumentException
      */
     public void place(String XCor, String YCor, String facing) throws IllegalArgumentException {
+        place(sessionService.getDefaultWorld(), XCor, YCor, facing);
+    }
 
-        // Validate the PLACE command params
-        validationService.validatePlaceParams(XCor, YCor, facing);
-
-        Location location = new Location();
-        location.setXCor(Integer.valueOf(XCor));
-        location.setYCor(Integer.valueOf(YCor));
-        location.setFacing(Facing.valueOf(facing.toUpperCase()));
+    /**
+     * Handle "PLACE" command on a world.
+     *
+     * @param world
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param facing
+     * @throws IllegalArgumentException
+     */
+    public void place(World world, String XCor, String YCor, String facing) throws IllegalArgumentException {
+        place(world, ParsedCommand.parsePlace(XCor, YCor, facing));
+    }
 
-        robot.setLocation(location);
+    /**
+     * Handle a parsed "PLACE" command on a world.
+     *
+     * @param world
+     * @param Parsed PLACE command
+     * @throws IllegalArgumentException
+     */
+    public void place(World world, long command) throws IllegalArgumentException {
+        validationService.reject(applyPlace(world, command), world);
     }
 
     /**
@@ -78,103 +161,672 @@ public class ToyRobotService {
      * @throws IllegalArgumentException
      */
     public void placeObstacle() throws IllegalArgumentException {
-        validationService.validatePlaceObstacle();
-
-        int xCor = robot.getLocation().getXCor();
-        int yCor = robot.getLocation().getYCor();
-        Facing facing = robot.getLocation().getFacing();
-
-        if (facing.equals(Facing.EAST)) {
-            Location location = new Location();
-            location.setXCor(xCor + 1);
-            location.setYCor(yCor);
-            obstacle.setLocation(location);
-        } else if (facing.equals(Facing.SOUTH)) {
-            Location location = new Location();
-            location.setXCor(xCor);
-            location.setYCor(yCor - 1);
-            obstacle.setLocation(location);
-        } else if (facing.equals(Facing.WEST)) {
-            Location location = new Location();
-            location.setXCor(xCor - 1);
-            location.setYCor(yCor);
-            obstacle.setLocation(location);
-        } else if (facing.equals(Facing.NORTH)) {
-            Location location = new Location();
-            location.setXCor(xCor);
-            location.setYCor(yCor + 1);
-            obstacle.setLocation(location);
-        }
+        placeObstacle(sessionService.getDefaultWorld());
     }
 
     /**
-     * Handle "MOVE" command.
+     * Handle "PLACE_OBSTACLE" command on a world.
      *
+     * @param world
      * @throws IllegalArgumentException
      */
-    public void move() throws IllegalArgumentException {
+    public void placeObstacle(World world) throws IllegalArgumentException {
+        validationService.reject(applyPlaceObstacle(world), world);
+    }
+
+    /**
+     * Add obstacles to a world in bulk.
+     *
+     * @param world
+     * @param locations of the obstacles
+     * @return Number of obstacles added, i.e. excluding those which were there already
+     * @throws IllegalArgumentException
+     */
+    public int addObstacles(World world, List<Location> locations) throws IllegalArgumentException {
+        synchronized (world) {
+            Robot robot = world.getRobot();
+            boolean exclusive = robot.beginExclusive();
+            boolean changed = false;
+
+            try {
+                validationService.validateAddObstacles(world, locations);
+
+                Obstacle obstacle = world.getObstacle();
+                int added = 0;
 
-        // Validate the move command
-        validationService.validateMove();
+                for (Location location : locations) {
+                    if (obstacle.add(location.getXCor(), location.getYCor())) {
+                        added++;
+                    }
+                }
 
-        int XCor = robot.getLocation().getXCor();
-        int YCor = robot.getLocation().getYCor();
-        Facing facing = robot.getLocation().getFacing();
+                if (added > 0) {
+                    journalService.journalObstacles(world, true, robot.touch(), locations);
+                    changed = true;
+                }
 
-        if (facing.equals(Facing.EAST)) {
-            robot.getLocation().setXCor(XCor + 1);
-        } else if (facing.equals(Facing.SOUTH)) {
-            robot.getLocation().setYCor(YCor - 1);
-        } else if (facing.equals(Facing.WEST)) {
-            robot.getLocation().setXCor(XCor - 1);
-        } else if (facing.equals(Facing.NORTH)) {
-            robot.getLocation().setYCor(YCor + 1);
+                return added;
+            } finally {
+                robot.endExclusive(exclusive);
+
+                if (changed) {
+                    world.getWatchers().changed();
+                }
+            }
         }
     }
 
     /**
-     * Handle "LEFT" command.
+     * Remove obstacles from a world in bulk. Locations without obstacle are ignored.
      *
+     * @param world
+     * @param locations of the obstacles
+     * @return Number of obstacles removed
      * @throws IllegalArgumentException
      */
-    public void left() throws IllegalArgumentException {
+    public int removeObstacles(World world, List<Location> locations) throws IllegalArgumentException {
+        synchronized (world) {
+            Robot robot = world.getRobot();
+            boolean exclusive = robot.beginExclusive();
+            boolean changed = false;
+
+            try {
+                validationService.validateObstacleLocations(world, locations);
 
-        // Validate robot location
-        validationService.validateRobotLocation();
+                Obstacle obstacle = world.getObstacle();
+                int removed = 0;
 
-        Facing facing = robot.getLocation().getFacing();
+                for (Location location : locations) {
+                    if (obstacle.remove(location.getXCor(), location.getYCor())) {
+                        removed++;
+                    }
+                }
 
-        if (facing.equals(Facing.EAST)) {
-            robot.getLocation().setFacing(Facing.NORTH);
-        } else if (facing.equals(Facing.SOUTH)) {
-            robot.getLocation().setFacing(Facing.EAST);
-        } else if (facing.equals(Facing.WEST)) {
-            robot.getLocation().setFacing(Facing.SOUTH);
-        } else if (facing.equals(Facing.NORTH)) {
-            robot.getLocation().setFacing(Facing.WEST);
+                if (removed > 0) {
+                    journalService.journalObstacles(world, false, robot.touch(), locations);
+                    changed = true;
+                }
+
+                return removed;
+            } finally {
+                robot.endExclusive(exclusive);
+
+                if (changed) {
+                    world.getWatchers().changed();
+                }
+            }
         }
     }
 
+    /**
+     * Handle "MOVE" command.
+     *
+     * @throws IllegalArgumentException
+     */
+    public void move() throws IllegalArgumentException {
+        move(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * Handle "MOVE" command on a world.
+     *
+     * @param world
+     * @throws IllegalArgumentException
+     */
+    public void move(World world) throws IllegalArgumentException {
+        validationService.reject(validationService.checkTransition(applyTransition(world, MOVE)), world);
+    }
+
+    /**
+     * Handle "LEFT" command.
+     *
+     * @throws IllegalArgumentException
+     */
+    public void left() throws IllegalArgumentException {
+        left(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * Handle "LEFT" command on a world.
+     *
+     * @param world
+     * @throws IllegalArgumentException
+     */
+    public void left(World world) throws IllegalArgumentException {
+        validationService.reject(validationService.checkTransition(applyTransition(world, LEFT)), world);
+    }
+
     /**
      * Handle "RIGHT" command.
      *
      * @throws IllegalArgumentException
      */
     public void right() throws IllegalArgumentException {
+        right(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * Handle "RIGHT" command on a world.
+     *
+     * @param world
+     * @throws IllegalArgumentException
+     */
+    public void right(World world) throws IllegalArgumentException {
+        validationService.reject(validationService.checkTransition(applyTransition(world, RIGHT)), world);
+    }
+
+    /*
+     * Engine path.
+     *
+     * The methods below operate on the packed robot state only. They neither allocate nor throw, and simply report
+     * the outcome of the command, so that they can be used for high volume command processing.
+     */
 
-        // Validate robot location
-        validationService.validateRobotLocation();
+    /**
+     * Perform a parsed command on a world without allocating, dispatching on the ordinal of the command.
+     *
+     * @param world
+     * @param Parsed command, see {@link ParsedCommand#parse}
+     * @param report Builder to which the output of a REPORT command, or the route of a GOTO command, is appended
+     * @return Outcome of the command
+     */
+    public Outcome applyCommand(World world, long command, StringBuilder report) {
+        if (ParsedCommand.isInvalid(command)) {
+            return validationService.checkCommand(command);
+        }
 
-        Facing facing = robot.getLocation().getFacing();
+        int commandOrdinal = ParsedCommand.commandOrdinal(command);
+        long startNanos = System.nanoTime();
+        Outcome outcome;
 
-        if (facing.equals(Facing.EAST)) {
-            robot.getLocation().setFacing(Facing.SOUTH);
-        } else if (facing.equals(Facing.SOUTH)) {
-            robot.getLocation().setFacing(Facing.WEST);
-        } else if (facing.equals(Facing.WEST)) {
-            robot.getLocation().setFacing(Facing.NORTH);
-        } else if (facing.equals(Facing.NORTH)) {
-            robot.getLocation().setFacing(Facing.EAST);
+        switch (COMMANDS[commandOrdinal]) {
+            case PLACE:
+                outcome = performPlace(world, command, RobotState.ANY_VERSION);
+                break;
+            case REPORT:
+                outcome = RobotState.isRejected(journalReport(world, performReport(world, report)))
+                        ? Outcome.NO_LOCATION : Outcome.OK;
+                break;
+            case PLACE_OBSTACLE:
+                outcome = performPlaceObstacle(world, RobotState.ANY_VERSION);
+                break;
+            case GOTO:
+                outcome = performGoto(world, command, RobotState.ANY_VERSION, report);
+                break;
+            default:
+                outcome = validationService.checkTransition(
+                        performTransition(world, commandOrdinal, RobotState.ANY_VERSION));
         }
+
+        metricsService.recordCommand(commandOrdinal, startNanos);
+        return outcome;
+    }
+
+    /**
+     * Perform a parsed "PLACE" command on a world without allocating.
+     *
+     * @param world
+     * @param Parsed PLACE command
+     * @return Outcome of the command
+     */
+    public Outcome applyPlace(World world, long command) {
+        return applyPlace(world, command, RobotState.ANY_VERSION);
+    }
+
+    /**
+     * Perform a parsed "PLACE" command on a world without allocating, provided the robot is still at the expected
+     * version, e.g. from an If-Match header.
+     *
+     * @param world
+     * @param Parsed PLACE command
+     * @param expectedVersion or {@link RobotState#ANY_VERSION}
+     * @return Outcome of the command
+     */
+    public Outcome applyPlace(World world, long command, long expectedVersion) {
+        long startNanos = System.nanoTime();
+        Outcome outcome = performPlace(world, command, expectedVersion);
+
+        metricsService.recordCommand(PLACE, startNanos);
+        return outcome;
+    }
+
+    private Outcome performPlace(World world, long command, long expectedVersion) {
+        // Validate the PLACE command params, which only depend on the grid
+        Outcome outcome = validationService.checkPlaceCommand(world, command);
+
+        if (outcome.isRejected()) {
+            return outcome;
+        }
+
+        Robot robot = world.getRobot();
+        long location = RobotState.pack(ParsedCommand.xCor(command), ParsedCommand.yCor(command),
+                ParsedCommand.facingOrdinal(command));
+
+        for (;;) {
+            long current = robot.getState();
+
+            if (RobotState.isExclusive(current) && !Thread.holdsLock(world)) {
+                // Wait for the exclusive operation to finish
+                synchronized (world) {
+                    return performPlace(world, command, expectedVersion);
+                }
+            }
+
+            if (!RobotState.matches(current, expectedVersion)) {
+                return Outcome.VERSION_MISMATCH;
+            }
+
+            long next = RobotState.next(current, location);
+
+            if (robot.compareAndSetState(current, next)) {
+                if (journalService.isEnabled()) {
+                    journalService.journalCommand(world, PLACE, next);
+                }
+
+                world.getWatchers().changed();
+                return Outcome.OK;
+            }
+        }
+    }
+
+    /**
+     * Perform "PLACE_OBSTACLE" command on a world without allocating.
+     *
+     * @param world
+     * @return Outcome of the command
+     */
+    public Outcome applyPlaceObstacle(World world) {
+        return applyPlaceObstacle(world, RobotState.ANY_VERSION);
+    }
+
+    /**
+     * Perform "PLACE_OBSTACLE" command on a world without allocating, provided the robot is still at the expected
+     * version.
+     *
+     * @param world
+     * @param expectedVersion or {@link RobotState#ANY_VERSION}
+     * @return Outcome of the command
+     */
+    public Outcome applyPlaceObstacle(World world, long expectedVersion) {
+        long startNanos = System.nanoTime();
+        Outcome outcome = performPlaceObstacle(world, expectedVersion);
+
+        metricsService.recordCommand(PLACE_OBSTACLE, startNanos);
+        return outcome;
+    }
+
+    private Outcome performPlaceObstacle(World world, long expectedVersion) {
+        synchronized (world) {
+            Robot robot = world.getRobot();
+            boolean exclusive = robot.beginExclusive();
+            boolean changed = false;
+
+            try {
+                long state = robot.getState();
+
+                if (!RobotState.matches(state, expectedVersion)) {
+                    return Outcome.VERSION_MISMATCH;
+                }
+
+                Outcome outcome = validationService.checkPlaceObstacle(world);
+
+                if (outcome == Outcome.OK) {
+                    Facing facing = RobotState.facing(state);
+                    int xCor = RobotState.xCor(state) + facing.getDx();
+                    int yCor = RobotState.yCor(state) + facing.getDy();
+
+                    world.getObstacle().place(xCor, yCor);
+                    long next = robot.touch();
+
+                    if (journalService.isEnabled()) {
+                        journalService.journalPlaceObstacle(world, next, xCor, yCor);
+                    }
+
+                    changed = true;
+                }
+
+                return outcome;
+            } finally {
+                robot.endExclusive(exclusive);
+
+                // Published once the exclusive operation has ended, see WatchService
+                if (changed) {
+                    world.getWatchers().changed();
+                }
+            }
+        }
+    }
+
+    /**
+     * Perform a parsed "GOTO" command on a world, i.e. the shortest sequence of MOVE/LEFT/RIGHT commands which takes
+     * the robot to the target around the obstacles, provided the robot is still at the expected version. No other
+     * command is performed on the world in between.
+     *
+     * @param world
+     * @param Parsed GOTO command
+     * @param expectedVersion or {@link RobotState#ANY_VERSION}
+     * @param route Builder to which the commands performed are appended, e.g. "LEFT, MOVE, MOVE"
+     * @return Outcome of the command
+     */
+    public Outcome applyGoto(World world, long command, long expectedVersion, StringBuilder route) {
+        long startNanos = System.nanoTime();
+        Outcome outcome = performGoto(world, command, expectedVersion, route);
+
+        metricsService.recordCommand(GOTO, startNanos);
+        return outcome;
+    }
+
+    private Outcome performGoto(World world, long command, long expectedVersion, StringBuilder route) {
+        // The target is validated like the location of a PLACE command
+        Outcome outcome = validationService.checkPlaceCommand(world, command);
+
+        if (outcome.isRejected()) {
+            return outcome;
+        }
+
+        synchronized (world) {
+            Robot robot = world.getRobot();
+            boolean exclusive = robot.beginExclusive();
+            boolean changed = false;
+
+            try {
+                long state = robot.getState();
+
+                if (!RobotState.matches(state, expectedVersion)) {
+                    return Outcome.VERSION_MISMATCH;
+                }
+
+                if (!RobotState.hasLocation(state)) {
+                    return Outcome.NO_LOCATION;
+                }
+
+                if (world.getObstacle().isAt(ParsedCommand.xCor(command), ParsedCommand.yCor(command))) {
+                    return Outcome.NO_PATH;
+                }
+
+                byte[] steps = pathfindingService.plan(world, RobotState.xCor(state), RobotState.yCor(state),
+                        RobotState.facingOrdinal(state), command);
+
+                if (steps == null) {
+                    return Outcome.NO_PATH;
+                }
+
+                int start = route.length();
+
+                for (byte step : steps) {
+                    long result = performTransition(world, step, RobotState.ANY_VERSION);
+
+                    if (RobotState.isRejected(result)) {
+                        return validationService.checkTransition(result);
+                    }
+
+                    changed = true;
+                    route.append(route.length() == start ? "" : ", ").append(COMMANDS[step].name());
+                }
+
+                return Outcome.OK;
+            } finally {
+                robot.endExclusive(exclusive);
+
+                // Published once the exclusive operation has ended, see WatchService
+                if (changed) {
+                    world.getWatchers().changed();
+                }
+            }
+        }
+    }
+
+    /**
+     * Perform a MOVE/LEFT/RIGHT command on a world without allocating, see {@link RobotState#transition}.
+     *
+     * @param world
+     * @param commandOrdinal
+     * @return New state of the robot, or one of the RobotState.REJECTED_* results if the command has been rejected
+     */
+    public long applyTransition(World world, int commandOrdinal) {
+        return applyTransition(world, commandOrdinal, RobotState.ANY_VERSION);
+    }
+
+    /**
+     * Perform a MOVE/LEFT/RIGHT command on a world without allocating, provided the robot is still at the expected
+     * version.
+     *
+     * @param world
+     * @param commandOrdinal
+     * @param expectedVersion or {@link RobotState#ANY_VERSION}
+     * @return New state of the robot, or one of the RobotState.REJECTED_* results if the command has been rejected
+     */
+    public long applyTransition(World world, int commandOrdinal, long expectedVersion) {
+        long startNanos = System.nanoTime();
+        long result = performTransition(world, commandOrdinal, expectedVersion);
+
+        metricsService.recordCommand(commandOrdinal, startNanos);
+        return result;
+    }
+
+    private long performTransition(World world, int commandOrdinal, long expectedVersion) {
+        Robot robot = world.getRobot();
+
+        for (;;) {
+            long current = robot.getState();
+
+            if (RobotState.isExclusive(current) && !Thread.holdsLock(world)) {
+                // Wait for the exclusive operation to finish
+                synchronized (world) {
+                    return performTransition(world, commandOrdinal, expectedVersion);
+                }
+            }
+
+            if (!RobotState.matches(current, expectedVersion)) {
+                return RobotState.REJECTED_VERSION_MISMATCH;
+            }
+
+            long location = RobotState.transition(current, commandOrdinal, world);
+
+            if (RobotState.isRejected(location)) {
+                // The obstacles may have been read while being changed, unless the state is still the same
+                if (robot.isStill(current)) {
+                    return location;
+                }
+            } else {
+                long next = RobotState.next(current, location);
+
+                if (robot.compareAndSetState(current, next)) {
+                    if (journalService.isEnabled()) {
+                        journalService.journalCommand(world, commandOrdinal, next);
+                    }
+
+                    world.getWatchers().changed();
+                    return next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Perform "MOVE" command on a world without allocating.
+     *
+     * @param world
+     * @return Whether the robot has been moved
+     */
+    public boolean applyMove(World world) {
+        return apply(world, MOVE);
+    }
+
+    /**
+     * Perform "LEFT" command on a world without allocating.
+     *
+     * @param world
+     * @return Whether the robot has been turned
+     */
+    public boolean applyLeft(World world) {
+        return apply(world, LEFT);
+    }
+
+    /**
+     * Perform "RIGHT" command on a world without allocating.
+     *
+     * @param world
+     * @return Whether the robot has been turned
+     */
+    public boolean applyRight(World world) {
+        return apply(world, RIGHT);
+    }
+
+    /**
+     * Perform "REPORT" command on a world, appending the report to the given builder. Does not allocate as long as
+     * the builder has enough capacity.
+     *
+     * @param world
+     * @param report
+     * @return Whether the report has been appended, i.e. whether the robot has a location
+     */
+    public boolean appendReport(World world, StringBuilder report) {
+        return !RobotState.isRejected(applyReport(world, report));
+    }
+
+    /**
+     * Perform "REPORT" command on a world, appending the report to the given builder. Does not allocate as long as
+     * the builder has enough capacity.
+     *
+     * @param world
+     * @param report
+     * @return Reported state of the robot, e.g. for its version, or {@link RobotState#REJECTED_NO_LOCATION}
+     */
+    public long applyReport(World world, StringBuilder report) {
+        long startNanos = System.nanoTime();
+        long reported = journalReport(world, performReport(world, report));
+
+        metricsService.recordCommand(REPORT, startNanos);
+        return reported;
+    }
+
+    /**
+     * Perform "REPORT" command on a world, reusing the report rendered for the current state of the robot, if any. The
+     * report is rendered only once per state and kept by the world, so that polling an unchanged world renders
+     * nothing.
+     *
+     * @param world
+     * @return Rendered report, or null if the robot has no location
+     */
+    public RenderedReport applyRenderedReport(World world) {
+        long startNanos = System.nanoTime();
+        RenderedReport report = getRenderedReport(world);
+
+        if (report != null) {
+            journalReport(world, report.getState());
+        }
+
+        metricsService.recordCommand(REPORT, startNanos);
+        return report;
+    }
+
+    /**
+     * Get the report of the current state of the robot of a world, rendered once per state like
+     * {@link #applyRenderedReport}, without performing a REPORT command, e.g. to publish a change.
+     *
+     * @param world
+     * @return Rendered report, or null if the robot has no location
+     */
+    public RenderedReport getRenderedReport(World world) {
+        RenderedReport report = world.getReport();
+
+        if (report != null && report.getState() == world.getRobot().getState()) {
+            return report;
+        }
+
+        return renderReport(world);
+    }
+
+    /**
+     * Append the report of a state of the robot of a world, e.g. the one a command has led to. If the state has been
+     * changed since, the report of the current state is appended instead, so that the report is never a mix of both.
+     *
+     * @param world
+     * @param state of the robot, see {@link #applyTransition}
+     * @param report
+     * @return Reported state of the robot, or {@link RobotState#REJECTED_NO_LOCATION}
+     */
+    public long appendReport(World world, long state, StringBuilder report) {
+        int length = report.length();
+
+        if (RobotState.hasLocation(state)) {
+            appendState(world, state, report);
+
+            if (world.getRobot().isStill(state)) {
+                return state;
+            }
+
+            report.setLength(length);
+        }
+
+        return performReport(world, report);
+    }
+
+    private long performReport(World world, StringBuilder report) {
+        Robot robot = world.getRobot();
+        int length = report.length();
+
+        for (;;) {
+            long state = robot.getState();
+
+            if (RobotState.isExclusive(state) && !Thread.holdsLock(world)) {
+                // Wait for the exclusive operation to finish
+                synchronized (world) {
+                    return performReport(world, report);
+                }
+            }
+
+            if (!RobotState.hasLocation(state)) {
+                return RobotState.REJECTED_NO_LOCATION;
+            }
+
+            appendState(world, state, report);
+
+            // The obstacles may have been read while being changed, unless the state is still the same
+            if (robot.isStill(state)) {
+                return state;
+            }
+
+            report.setLength(length);
+        }
+    }
+
+    private RenderedReport renderReport(World world) {
+        StringBuilder text = new StringBuilder(64);
+        long state = performReport(world, text);
+
+        if (RobotState.isRejected(state)) {
+            return null;
+        }
+
+        RenderedReport report = new RenderedReport(state, text.toString());
+
+        // Within an exclusive operation the obstacles may still change without a new version
+        if (!RobotState.isExclusive(state)) {
+            world.setReport(report);
+        }
+
+        return report;
+    }
+
+    private long journalReport(World world, long reported) {
+        if (journalService.isEnabled() && !RobotState.isRejected(reported)) {
+            journalService.journalCommand(world, REPORT, reported);
+        }
+
+        return reported;
+    }
+
+    private void appendState(World world, long state, StringBuilder report) {
+        report.append("Robot is at ").append(RobotState.xCor(state)).append(',').append(RobotState.yCor(state))
+                .append(',').append(RobotState.facing(state).name());
+
+        // Append obstacle location info as well, if any
+        world.getObstacle().appendTo(report);
+    }
+
+    private boolean apply(World world, int commandOrdinal) {
+        return !RobotState.isRejected(applyTransition(world, commandOrdinal));
     }
 }
@@ -5,10 +5,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Backend services for validating the user input.
+ * <p>
+ * The check* methods return the {@link Outcome} of a validation without throwing, and the message of an outcome is
+ * cached. The validate* methods are thin wrappers which throw an IllegalArgumentException with that message.
  *
  * @author N/A
  */
@@ -17,16 +28,13 @@ import org.springframework.stereotype.Service;
 public class ValidationService {
 
     @Autowired
-    @Qualifier("robot")
-    private Robot robot;
+    private SessionService sessionService;
 
     @Autowired
-    @Qualifier("obstacle")
-    private Obstacle obstacle;
+    private RejectionLogService rejectionLogService;
 
     @Autowired
-    @Qualifier("grid")
-    private Grid grid;
+    private MetricsService metricsService;
 
     @Value("${grid.width.minAllowedSize}")
     private int gridWidthMinAllowedSize;
@@ -61,6 +69,9 @@ public class ValidationService {
     @Value("${errorMsg.invalidNonPlaceCommandFormat}")
     private String ERROR_MSG_INVALID_NON_PLACE_COMMAND_FORMAT;
 
+    @Value("${errorMsg.invalidGotoCommandFormat}")
+    private String ERROR_MSG_INVALID_GOTO_COMMAND_FORMAT;
+
     @Value("${errorMsg.noLocation}")
     private String ERROR_MSG_NO_LOCATION;
 
@@ -88,6 +99,92 @@ public class ValidationService {
     @Value("${errorMsg.robotHitObstacle}")
     private String ERROR_MSG_ROBOT_HIT_OBSTACLE;
 
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_MSG_INVALID_API_PARAMS;
+
+    @Value("${errorMsg.obstacleAtRobotLocation}")
+    private String ERROR_MSG_OBSTACLE_AT_ROBOT_LOCATION;
+
+    @Value("${errorMsg.versionMismatch}")
+    private String ERROR_MSG_VERSION_MISMATCH;
+
+    @Value("${errorMsg.noPath}")
+    private String ERROR_MSG_NO_PATH;
+
+    @Value("${validation.stacklessExceptions}")
+    private boolean stacklessExceptions;
+
+    @Value("${watch.pollTimeoutMs}")
+    private long pollTimeoutMs;
+
+    @Value("${watch.maxPollTimeoutMs}")
+    private long maxPollTimeoutMs;
+
+    private static final Outcome[] INVALID_COMMAND_FORMATS = new Outcome[Command.values().length];
+
+    static {
+        INVALID_COMMAND_FORMATS[Command.PLACE.ordinal()] = Outcome.INVALID_PLACE_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.MOVE.ordinal()] = Outcome.INVALID_MOVE_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.LEFT.ordinal()] = Outcome.INVALID_LEFT_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.RIGHT.ordinal()] = Outcome.INVALID_RIGHT_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.REPORT.ordinal()] = Outcome.INVALID_REPORT_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.PLACE_OBSTACLE.ordinal()] = Outcome.INVALID_PLACE_OBSTACLE_COMMAND_FORMAT;
+        INVALID_COMMAND_FORMATS[Command.GOTO.ordinal()] = Outcome.INVALID_GOTO_COMMAND_FORMAT;
+    }
+
+    /**
+     * Cached messages of the outcomes. The out of bounce messages depend on the size of the grid, so they are cached
+     * per limit instead.
+     */
+    private final Map<Outcome, String> messages = new EnumMap<>(Outcome.class);
+
+    private String[] xCorOutOfBounceMessages;
+
+    private String[] yCorOutOfBounceMessages;
+
+    @PostConstruct
+    public void init() {
+        messages.put(Outcome.NULL_OR_EMPTY_USER_INPUT, ERROR_MSG_NULL_OR_EMPTY_USER_INPUT);
+        messages.put(Outcome.INVALID_COMMAND, ERROR_MSG_INVALID_COMMAND);
+        messages.put(Outcome.INVALID_PLACE_COMMAND_FORMAT, ERROR_MSG_INVALID_PLACE_COMMAND_FORMAT);
+        messages.put(Outcome.INVALID_GOTO_COMMAND_FORMAT, ERROR_MSG_INVALID_GOTO_COMMAND_FORMAT);
+
+        for (Command command : Command.values()) {
+            if (command != Command.PLACE && command != Command.GOTO) {
+                messages.put(INVALID_COMMAND_FORMATS[command.ordinal()],
+                        String.format(ERROR_MSG_INVALID_NON_PLACE_COMMAND_FORMAT, command.name()));
+            }
+        }
+
+        messages.put(Outcome.X_COR_NOT_INTEGER, ERROR_MSG_XCOR_NOT_INTEGER);
+        messages.put(Outcome.Y_COR_NOT_INTEGER, ERROR_MSG_YCOR_NOT_INTEGER);
+        messages.put(Outcome.INVALID_FACING, ERROR_MSG_INVALID_FACING);
+        messages.put(Outcome.NO_LOCATION, ERROR_MSG_NO_LOCATION);
+        messages.put(Outcome.ROBOT_FALL_OFF, ERROR_MSG_ROBOT_FALL_OFF);
+        messages.put(Outcome.ROBOT_HIT_OBSTACLE, ERROR_MSG_ROBOT_HIT_OBSTACLE);
+        messages.put(Outcome.PLACE_OBSTACLE_AT_NON_EXISTENT_LOCATION, ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
+        messages.put(Outcome.OBSTACLE_AT_ROBOT_LOCATION, ERROR_MSG_OBSTACLE_AT_ROBOT_LOCATION);
+        messages.put(Outcome.INVALID_API_PARAMS, ERROR_MSG_INVALID_API_PARAMS);
+        messages.put(Outcome.VERSION_MISMATCH, ERROR_MSG_VERSION_MISMATCH);
+        messages.put(Outcome.NO_PATH, ERROR_MSG_NO_PATH);
+
+        if (gridWidthMaxAllowedSize > RobotState.COORDINATE_MAX
+                || gridHeightMaxAllowedSize > RobotState.COORDINATE_MAX) {
+            // Coordinates beyond would not fit into the packed state of the robot
+            throw new IllegalStateException("The maximum allowed grid size is " + RobotState.COORDINATE_MAX);
+        }
+
+        xCorOutOfBounceMessages = new String[gridWidthMaxAllowedSize + 1];
+        for (int limit = 0; limit < xCorOutOfBounceMessages.length; limit++) {
+            xCorOutOfBounceMessages[limit] = String.format(ERROR_MSG_XCOR_OUT_OF_BOUNCE, limit);
+        }
+
+        yCorOutOfBounceMessages = new String[gridHeightMaxAllowedSize + 1];
+        for (int limit = 0; limit < yCorOutOfBounceMessages.length; limit++) {
+            yCorOutOfBounceMessages[limit] = String.format(ERROR_MSG_YCOR_OUT_OF_BOUNCE, limit);
+        }
+    }
+
     /**
      * Validate the grid size input from the console.
      *
@@ -141,98 +238,129 @@ public class ValidationService {
     }
 
     /**
-     * Validate the user input from the console.
+     * Get the message of an outcome.
      *
-     * @param Raw user input from the console
-     * @throws IllegalArgumentException
+     * @param outcome
+     * @param world   of which the grid limits the coordinates, may be null for outcomes which do not depend on it
+     * @return Cached message, or null for OK
      */
-    public void validateUserInput(String usrInput) throws IllegalArgumentException {
-        if (usrInput == null || usrInput.equals("")) {
-            // Null or empty input
-
-            log.error(ERROR_MSG_NULL_OR_EMPTY_USER_INPUT);
-            throw new IllegalArgumentException(ERROR_MSG_NULL_OR_EMPTY_USER_INPUT);
+    public String getMessage(Outcome outcome, World world) {
+        if (outcome == Outcome.X_COR_OUT_OF_BOUNCE) {
+            int limit = world.getGrid().getWidth();
+            return limit >= 0 && limit < xCorOutOfBounceMessages.length ? xCorOutOfBounceMessages[limit]
+                    : String.format(ERROR_MSG_XCOR_OUT_OF_BOUNCE, limit);
         }
 
-        String[] usrInputArr = usrInput.split(" ");
-
-        String command = usrInputArr[0].toUpperCase();
+        if (outcome == Outcome.Y_COR_OUT_OF_BOUNCE) {
+            int limit = world.getGrid().getHeight();
+            return limit >= 0 && limit < yCorOutOfBounceMessages.length ? yCorOutOfBounceMessages[limit]
+                    : String.format(ERROR_MSG_YCOR_OUT_OF_BOUNCE, limit);
+        }
 
-        if (command.equals(Command.PLACE.name())) {
-            // PLACE command
+        return messages.get(outcome);
+    }
 
-            validatePlaceUserInput(usrInputArr);
-        } else if (command.equals(Command.MOVE.name()) || command.equals(Command.LEFT.name())
-                || command.equals(Command.RIGHT.name()) || command.equals(Command.REPORT.name())
-                || command.equals(Command.PLACE_OBSTACLE.name())) {
-            // MOVE, LEFT, RIGHT and REPORT commands
+    /**
+     * Log and count a rejected command, see {@link RejectionLogService} and {@link MetricsService}.
+     *
+     * @param outcome
+     * @param world   see {@link #getMessage}
+     * @return Message of the outcome
+     */
+    public String logRejection(Outcome outcome, World world) {
+        String errorMsg = getMessage(outcome, world);
 
-            validateNonPlaceUserInput(usrInputArr);
-        } else {
-            // Invalid command
+        metricsService.countRejection(outcome);
+        rejectionLogService.log(outcome, errorMsg);
+        return errorMsg;
+    }
 
-            log.error(ERROR_MSG_INVALID_COMMAND);
-            throw new IllegalArgumentException(ERROR_MSG_INVALID_COMMAND);
+    /**
+     * Throw the exception of a rejected command, if any.
+     *
+     * @param outcome
+     * @param world   see {@link #getMessage}
+     * @throws IllegalArgumentException if the outcome is not OK
+     */
+    public void reject(Outcome outcome, World world) throws IllegalArgumentException {
+        if (outcome.isRejected()) {
+            throw new RejectedCommandException(outcome, logRejection(outcome, world), !stacklessExceptions);
         }
     }
 
     /**
-     * Validate the PLACE command.
+     * Validate the user input from the console.
      *
      * @param Raw user input from the console
      * @throws IllegalArgumentException
      */
-    public void validatePlaceUserInput(String[] usrInputArr) throws IllegalArgumentException {
+    public void validateUserInput(String usrInput) throws IllegalArgumentException {
+        validateCommand(ParsedCommand.parse(usrInput));
+    }
 
-        // PLACE command should have 1 part of params, e.g. "1,2,NORTH"
-        if (usrInputArr.length != 2) {
-            // Invalid PLACE command format
+    /**
+     * Validate the format of a parsed line of command, see {@link ParsedCommand#parse}.
+     *
+     * @param Parsed command
+     * @throws IllegalArgumentException
+     */
+    public void validateCommand(long command) throws IllegalArgumentException {
+        reject(checkCommand(command), null);
+    }
 
-            log.error(ERROR_MSG_INVALID_PLACE_COMMAND_FORMAT);
-            throw new IllegalArgumentException(ERROR_MSG_INVALID_PLACE_COMMAND_FORMAT);
+    /**
+     * Check the format of a parsed line of command, see {@link ParsedCommand#parse}.
+     *
+     * @param Parsed command
+     * @return Outcome
+     */
+    public Outcome checkCommand(long command) {
+        if (!ParsedCommand.isInvalid(command)) {
+            return Outcome.OK;
         }
 
-        String[] placeParamArr = usrInputArr[1].split(",");
-
-        // The param part should have 3 parts, e.g. "1","2" and "NORTH"
-        if (placeParamArr.length != 3) {
-            // Invalid PLACE command format
+        if (command == ParsedCommand.NULL_OR_EMPTY) {
+            // Null or empty input
+            return Outcome.NULL_OR_EMPTY_USER_INPUT;
+        }
 
-            log.error(ERROR_MSG_INVALID_PLACE_COMMAND_FORMAT);
-            throw new IllegalArgumentException(ERROR_MSG_INVALID_PLACE_COMMAND_FORMAT);
+        if (command == ParsedCommand.INVALID_COMMAND) {
+            // Invalid command
+            return Outcome.INVALID_COMMAND;
         }
+
+        // Invalid command format
+        return INVALID_COMMAND_FORMATS[ParsedCommand.commandOrdinal(command)];
     }
 
     /**
-     * Validate commands other than PLACE, i.e. MOVE/LEFT/RIGHT/REPORT.
+     * Validate the robot's location.
      *
-     * @param Raw user input from the console
      * @throws IllegalArgumentException
      */
-    public void validateNonPlaceUserInput(String[] usrInputArr) throws IllegalArgumentException {
-        // MOVE, LEFT, RIGHT and REPORT commands should have 1 part only
-        if (usrInputArr.length != 1) {
-            // Invalid MOVE/LEFT/RIGHT/REPORT command format
-
-            String errorMsg = String.format(ERROR_MSG_INVALID_NON_PLACE_COMMAND_FORMAT, usrInputArr[0].toUpperCase());
-
-            log.error(errorMsg);
-            throw new IllegalArgumentException(errorMsg);
-        }
+    public void validateRobotLocation() throws IllegalArgumentException {
+        validateRobotLocation(sessionService.getDefaultWorld());
     }
 
     /**
-     * Validate the robot's location.
+     * Validate the location of the robot of a world.
      *
+     * @param world
      * @throws IllegalArgumentException
      */
-    public void validateRobotLocation() throws IllegalArgumentException {
-        if (robot.getLocation() == null) {
-            // Robot has no location
+    public void validateRobotLocation(World world) throws IllegalArgumentException {
+        reject(checkRobotLocation(world), world);
+    }
 
-            log.error(ERROR_MSG_NO_LOCATION);
-            throw new IllegalArgumentException(ERROR_MSG_NO_LOCATION);
-        }
+    /**
+     * Check the location of the robot of a world.
+     *
+     * @param world
+     * @return Outcome
+     */
+    public Outcome checkRobotLocation(World world) {
+        // Robot has no location
+        return RobotState.hasLocation(world.getRobot().getState()) ? Outcome.OK : Outcome.NO_LOCATION;
     }
 
     /**
@@ -244,64 +372,79 @@ public class ValidationService {
      * @throws IllegalArgumentException
      */
     public void validatePlaceParams(String XCorStr, String YCorStr, String facing) throws IllegalArgumentException {
+        validatePlaceParams(sessionService.getDefaultWorld(), XCorStr, YCorStr, facing);
+    }
 
-        int xCorLimit = grid.getWidth();
-        int yCorLimit = grid.getHeight();
+    /**
+     * Validate on whether the parameters of PLACE command will cause the robot to be placed in an invalid location of
+     * a world.
+     *
+     * @param world
+     * @param x-coordinate
+     * @param y-coordinate
+     * @param facing
+     * @throws IllegalArgumentException
+     */
+    public void validatePlaceParams(World world, String XCorStr, String YCorStr, String facing)
+            throws IllegalArgumentException {
+        validatePlaceCommand(world, ParsedCommand.parsePlace(XCorStr, YCorStr, facing));
+    }
 
-        // Validate x-Coordinate
-        try {
-            int XCor = Integer.valueOf(XCorStr);
+    /**
+     * Validate on whether a parsed PLACE command will cause the robot to be placed in an invalid location of a world.
+     *
+     * @param world
+     * @param Parsed PLACE command
+     * @throws IllegalArgumentException
+     */
+    public void validatePlaceCommand(World world, long command) throws IllegalArgumentException {
+        reject(checkPlaceCommand(world, command), world);
+    }
 
-            if (XCor < 0 || XCor > xCorLimit) {
-                // x-Coordinate Distance out of bounce
+    /**
+     * Check on whether a parsed PLACE command will cause the robot to be placed in an invalid location of a world. The
+     * target of a GOTO command is checked the same way.
+     *
+     * @param world
+     * @param Parsed PLACE or GOTO command
+     * @return Outcome
+     */
+    public Outcome checkPlaceCommand(World world, long command) {
+        Grid grid = world.getGrid();
 
-                String errorMsg = String.format(ERROR_MSG_XCOR_OUT_OF_BOUNCE, xCorLimit);
+        // Validate x-Coordinate
+        int XCor = ParsedCommand.xCor(command);
 
-                log.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
-        } catch (NumberFormatException exception) {
+        if (XCor == ParsedCommand.COORDINATE_NOT_INTEGER) {
             // Cannot parse x-Coordinate to integer
+            return Outcome.X_COR_NOT_INTEGER;
+        }
 
-            log.error(ERROR_MSG_XCOR_NOT_INTEGER);
-            throw new IllegalArgumentException(ERROR_MSG_XCOR_NOT_INTEGER);
+        if (XCor > grid.getWidth()) {
+            // x-Coordinate Distance out of bounce
+            return Outcome.X_COR_OUT_OF_BOUNCE;
         }
 
         // Validate y-Coordinate
-        try {
-            int YCor = Integer.valueOf(YCorStr);
+        int YCor = ParsedCommand.yCor(command);
 
-            if (YCor < 0 || YCor > yCorLimit) {
-                // y-Coordinate Distance out of bounce
-
-                String errorMsg = String.format(ERROR_MSG_YCOR_OUT_OF_BOUNCE, yCorLimit);
-
-                log.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
-        } catch (NumberFormatException exception) {
+        if (YCor == ParsedCommand.COORDINATE_NOT_INTEGER) {
             // Cannot parse y-Coordinate to integer
-
-            log.error(ERROR_MSG_YCOR_NOT_INTEGER);
-            throw new IllegalArgumentException(ERROR_MSG_YCOR_NOT_INTEGER);
+            return Outcome.Y_COR_NOT_INTEGER;
         }
 
-        // Validate facing
-        boolean isValidFacing = false;
-        for (Facing f : Facing.values()) {
-            if (f.name().equals(facing.toUpperCase())) {
-                // Is a valid facing
-                isValidFacing = true;
-                break;
-            }
+        if (YCor > grid.getHeight()) {
+            // y-Coordinate Distance out of bounce
+            return Outcome.Y_COR_OUT_OF_BOUNCE;
         }
 
-        if (!isValidFacing) {
+        // Validate facing
+        if (ParsedCommand.facingOrdinal(command) == ParsedCommand.INVALID_FACING) {
             // Facing is invalid
-
-            log.error(ERROR_MSG_INVALID_FACING);
-            throw new IllegalArgumentException(ERROR_MSG_INVALID_FACING);
+            return Outcome.INVALID_FACING;
         }
+
+        return Outcome.OK;
     }
 
     /**
@@ -310,128 +453,270 @@ public class ValidationService {
      * @throws IllegalArgumentException
      */
     public void validatePlaceObstacle() throws IllegalArgumentException {
-        // Validate robot location
-        validateRobotLocation();
+        validatePlaceObstacle(sessionService.getDefaultWorld());
+    }
 
-        int XCor = robot.getLocation().getXCor();
-        int YCor = robot.getLocation().getYCor();
-        Facing facing = robot.getLocation().getFacing();
+    /**
+     * Validate on whether the PLACE_OBSTACLE command will place the obstacle at an non-existent location of a world.
+     *
+     * @param world
+     * @throws IllegalArgumentException
+     */
+    public void validatePlaceObstacle(World world) throws IllegalArgumentException {
+        reject(checkPlaceObstacle(world), world);
+    }
 
-        if (facing.equals(Facing.EAST)) {
-            if (XCor + 1 > 5) {
-                // Robot as most eastward location
+    /**
+     * Check on whether the PLACE_OBSTACLE command will place the obstacle at an non-existent location of a world.
+     *
+     * @param world
+     * @return Outcome
+     */
+    public Outcome checkPlaceObstacle(World world) {
+        long state = world.getRobot().getState();
 
-                log.error(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-                throw new IllegalArgumentException(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-            }
-        } else if (facing.equals(Facing.SOUTH)) {
-            if (YCor - 1 < 0) {
-                // Robot as most southward location
+        if (!RobotState.hasLocation(state)) {
+            // Robot has no location
+            return Outcome.NO_LOCATION;
+        }
 
-                log.error(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-                throw new IllegalArgumentException(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-            }
-        } else if (facing.equals(Facing.WEST)) {
-            if (XCor - 1 < 0) {
-                // Robot as most westward location
+        Facing facing = RobotState.facing(state);
+        int XCor = RobotState.xCor(state) + facing.getDx();
+        int YCor = RobotState.yCor(state) + facing.getDy();
+
+        if (XCor < 0 || XCor > world.getGrid().getWidth() || YCor < 0 || YCor > world.getGrid().getHeight()) {
+            // Robot is at the fringe it is facing
+            return Outcome.PLACE_OBSTACLE_AT_NON_EXISTENT_LOCATION;
+        }
+
+        return Outcome.OK;
+    }
+
+    /**
+     * Validate the locations of obstacles to be added to or removed from a world in bulk.
+     *
+     * @param world
+     * @param locations of the obstacles
+     * @throws IllegalArgumentException
+     */
+    public void validateObstacleLocations(World world, List<Location> locations) throws IllegalArgumentException {
+        reject(checkObstacleLocations(world, locations), world);
+    }
+
+    /**
+     * Check the locations of obstacles to be added to or removed from a world in bulk.
+     *
+     * @param world
+     * @param locations of the obstacles
+     * @return Outcome
+     */
+    public Outcome checkObstacleLocations(World world, List<Location> locations) {
+        if (locations == null) {
+            return Outcome.INVALID_API_PARAMS;
+        }
 
-                log.error(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-                throw new IllegalArgumentException(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
+        int xCorLimit = world.getGrid().getWidth();
+        int yCorLimit = world.getGrid().getHeight();
+
+        for (Location location : locations) {
+            if (location == null) {
+                return Outcome.INVALID_API_PARAMS;
             }
-        } else if (facing.equals(Facing.NORTH)) {
-            if (YCor + 1 > 5) {
-                // Robot as most morthhward location
 
-                log.error(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
-                throw new IllegalArgumentException(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION);
+            int XCor = location.getXCor();
+            int YCor = location.getYCor();
+
+            if (XCor < 0 || XCor > xCorLimit || YCor < 0 || YCor > yCorLimit) {
+                // Location is off the grid
+                return Outcome.PLACE_OBSTACLE_AT_NON_EXISTENT_LOCATION;
             }
         }
+
+        return Outcome.OK;
     }
 
     /**
-     * Validate on whether the MOVE command will cause the robot to fall off.
+     * Validate the locations of obstacles to be added to a world in bulk. Obstacles may not be placed at the location
+     * of the robot.
      *
+     * @param world
+     * @param locations of the obstacles
      * @throws IllegalArgumentException
      */
-    public void validateMove() throws IllegalArgumentException {
+    public void validateAddObstacles(World world, List<Location> locations) throws IllegalArgumentException {
+        reject(checkAddObstacles(world, locations), world);
+    }
 
-        int xCorLimit = grid.getWidth();
-        int yCorLimit = grid.getHeight();
+    /**
+     * Check the locations of obstacles to be added to a world in bulk.
+     *
+     * @param world
+     * @param locations of the obstacles
+     * @return Outcome
+     */
+    public Outcome checkAddObstacles(World world, List<Location> locations) {
+        Outcome outcome = checkObstacleLocations(world, locations);
 
-        // Validate robot location
-        validateRobotLocation();
+        if (outcome.isRejected()) {
+            return outcome;
+        }
 
-        int XCor = robot.getLocation().getXCor();
-        int YCor = robot.getLocation().getYCor();
-        Facing facing = robot.getLocation().getFacing();
+        long state = world.getRobot().getState();
 
-        int obstacleXCor = 0;
-        int obstacleYCor = 0;
+        for (Location location : locations) {
+            int XCor = location.getXCor();
+            int YCor = location.getYCor();
 
-        if (obstacle.getLocation() != null) {
-            // Obstacle has been placed
+            if (RobotState.hasLocation(state) && RobotState.xCor(state) == XCor && RobotState.yCor(state) == YCor) {
+                // Location is occupied by the robot
+                return Outcome.OBSTACLE_AT_ROBOT_LOCATION;
+            }
+        }
+
+        return Outcome.OK;
+    }
 
-            obstacleXCor = obstacle.getLocation().getXCor();
-            obstacleYCor = obstacle.getLocation().getYCor();
+    /**
+     * Validate on whether the MOVE command will cause the robot to fall off.
+     *
+     * @throws IllegalArgumentException
+     */
+    public void validateMove() throws IllegalArgumentException {
+        validateMove(sessionService.getDefaultWorld());
+    }
+
+    /**
+     * Validate on whether the MOVE command will cause the robot of a world to fall off.
+     *
+     * @param world
+     * @throws IllegalArgumentException
+     */
+    public void validateMove(World world) throws IllegalArgumentException {
+        validateTransition(RobotState.transition(world.getRobot().getState(), Command.MOVE.ordinal(), world));
+    }
+
+    /**
+     * Parse the expected version of the robot from an If-Match header, i.e. an entity tag as returned in the ETag
+     * header, see {@link #getETag}.
+     *
+     * @param world   the header is sent for
+     * @param ifMatch header, may be null
+     * @return Expected version, {@link RobotState#ANY_VERSION} if there is no header or it is "*", or a negative
+     * version which matches none if the header is not an entity tag of this world, e.g. one of an ended session
+     */
+    public long parseIfMatch(World world, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return RobotState.ANY_VERSION;
         }
 
+        String eTag = ifMatch.trim();
+        int separator = eTag.indexOf('-');
 
-        if (facing.equals(Facing.EAST)) {
-            if (XCor + 1 > xCorLimit) {
-                // x-Coordinate distance out of bounce
+        if (eTag.length() < 5 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"' || separator < 0) {
+            return RobotState.ANY_VERSION - 1;
+        }
 
-                log.error(ERROR_MSG_ROBOT_FALL_OFF);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_FALL_OFF);
+        try {
+            if (Long.parseUnsignedLong(eTag.substring(1, separator), 16) != world.getEpoch()) {
+                return RobotState.ANY_VERSION - 1;
             }
 
-            if (obstacle.getLocation() != null && obstacleXCor == XCor + 1 && obstacleYCor == YCor) {
-                // Obstacle exists in the direction the robot is facing
+            long version = Long.parseLong(eTag.substring(separator + 1, eTag.length() - 1));
+            return version < 0 ? RobotState.ANY_VERSION - 1 : version;
+        } catch (NumberFormatException exception) {
+            return RobotState.ANY_VERSION - 1;
+        }
+    }
 
-                log.error(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-            }
-        } else if (facing.equals(Facing.SOUTH)) {
-            if (YCor - 1 < 0) {
-                // y-Coordinate distance out of bounce
+    /**
+     * Parse the version of the robot which a long poll waits to be exceeded, see {@link WatchService#await}.
+     *
+     * @param sinceVersion request parameter
+     * @return Version, or -1 if the parameter is not a version
+     */
+    public long parseSinceVersion(String sinceVersion) {
+        try {
+            long version = Long.parseLong(sinceVersion.trim());
+            return version < 0 ? -1 : version;
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
 
-                log.error(ERROR_MSG_ROBOT_FALL_OFF);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_FALL_OFF);
-            }
+    /**
+     * Parse the timeout of a long poll, e.g. "30s", "500ms" or "PT1M". A plain number is in seconds.
+     *
+     * @param timeout request parameter, may be null for the default of "watch.pollTimeoutMs"
+     * @return Timeout, at most "watch.maxPollTimeoutMs", or null if the parameter is not a duration
+     */
+    public Duration parsePollTimeout(String timeout) {
+        if (timeout == null) {
+            return Duration.ofMillis(pollTimeoutMs);
+        }
 
-            if (obstacle.getLocation() != null && obstacleXCor == XCor && obstacleYCor == YCor - 1) {
-                // Obstacle exists in the direction the robot is facing
+        try {
+            Duration duration = DurationStyle.detectAndParse(timeout.trim(), ChronoUnit.SECONDS);
 
-                log.error(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_HIT_OBSTACLE);
+            if (duration.isNegative()) {
+                return null;
             }
-        } else if (facing.equals(Facing.WEST)) {
-            if (XCor - 1 < 0) {
-                // x-Coordinate distance out of bounce
 
-                log.error(ERROR_MSG_ROBOT_FALL_OFF);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_FALL_OFF);
-            }
+            return duration.toMillis() > maxPollTimeoutMs ? Duration.ofMillis(maxPollTimeoutMs) : duration;
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
 
-            if (obstacle.getLocation() != null && obstacleXCor == XCor - 1 && obstacleYCor == YCor) {
-                // Obstacle exists in the direction the robot is facing
+    /**
+     * Get the entity tag of a state of a robot, i.e. the epoch of its world (see {@link World#getEpoch()}) in hex and
+     * its version, in quotes. The epoch tells the worlds of the same session apart, whose versions both start at 0,
+     * e.g. after the session has been ended and started again, or after a restart.
+     *
+     * @param world of the robot
+     * @param state
+     * @return Entity tag, e.g. "\"5f3a2c1b9d-42\""
+     */
+    public String getETag(World world, long state) {
+        return "\"" + Long.toHexString(world.getEpoch()) + "-" + RobotState.version(state) + "\"";
+    }
 
-                log.error(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-            }
-        } else if (facing.equals(Facing.NORTH)) {
-            if (YCor + 1 > yCorLimit) {
-                // x-Coordinate distance out of bounce
+    /**
+     * Validate the result of a MOVE/LEFT/RIGHT transition, see {@link RobotState#transition}.
+     *
+     * @param result of the transition
+     * @throws IllegalArgumentException if the transition has been rejected
+     */
+    public void validateTransition(long result) throws IllegalArgumentException {
+        reject(checkTransition(result), null);
+    }
 
-                log.error(ERROR_MSG_ROBOT_FALL_OFF);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_FALL_OFF);
-            }
+    /**
+     * Check the result of a MOVE/LEFT/RIGHT transition, see {@link RobotState#transition}.
+     *
+     * @param result of the transition
+     * @return Outcome
+     */
+    public Outcome checkTransition(long result) {
+        if (!RobotState.isRejected(result)) {
+            return Outcome.OK;
+        }
 
-            if (obstacle.getLocation() != null && obstacleXCor == XCor && obstacleYCor == YCor + 1) {
-                // Obstacle exists in the direction the robot is facing
+        if (result == RobotState.REJECTED_NO_LOCATION) {
+            // Robot has no location
+            return Outcome.NO_LOCATION;
+        }
 
-                log.error(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-                throw new IllegalArgumentException(ERROR_MSG_ROBOT_HIT_OBSTACLE);
-            }
+        if (result == RobotState.REJECTED_FALL_OFF) {
+            // Robot will fall off
+            return Outcome.ROBOT_FALL_OFF;
         }
+
+        if (result == RobotState.REJECTED_VERSION_MISMATCH) {
+            // Robot has been changed since the expected version
+            return Outcome.VERSION_MISMATCH;
+        }
+
+        // Obstacle exists in the direction the robot is facing
+        return Outcome.ROBOT_HIT_OBSTACLE;
     }
 }
@@ -0,0 +1,173 @@
+package com.somecompany.service;
+
+import com.somecompany.model.RenderedReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.Watchers;
+import com.somecompany.model.World;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Services for watching the changes of a world, e.g. as Server-Sent Events or by long polls.
+ * <p>
+ * Commands only signal a change to the {@link Watchers} of their world. The report of the changed state is then
+ * rendered once on a parallel scheduler and handed to every subscriber, see {@link Watchers}. Each subscriber only
+ * keeps the latest report which it has not been able to take yet, so a slow subscriber skips the intermediate states
+ * instead of queuing them, and the memory taken per subscriber is bounded however fast the world changes.
+ * A long poll is a subscriber which is done with the first report past its version.
+ *
+ * @author N/A
+ */
+@Service
+public class WatchService {
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    /**
+     * Watch the REPORT of a world as Server-Sent Events, starting with the current one. The id of each event is the
+     * version of the robot.
+     *
+     * @param world
+     * @return Events of the REPORT of each new state, conflated to the latest one for a slow subscriber
+     */
+    public Flux<ServerSentEvent<String>> events(World world) {
+        return watch(world).map(report -> ServerSentEvent.builder(report.getText())
+                .id(String.valueOf(RobotState.version(report.getState()))).build());
+    }
+
+    /**
+     * Watch the REPORT of a world, starting with the current one.
+     *
+     * @param world
+     * @return Report of each new state, conflated to the latest one for a slow subscriber
+     */
+    public Flux<RenderedReport> watch(World world) {
+        Watchers watchers = getWatchers(world);
+
+        return Flux.create(sink -> {
+            Subscriber subscriber = new Subscriber(sink);
+
+            watchers.add(subscriber);
+            sink.onDispose(() -> watchers.remove(subscriber));
+
+            // Added before the current report is read, so that no change is missed
+            RenderedReport report = toyRobotService.getRenderedReport(world);
+
+            if (report != null) {
+                subscriber.test(report);
+            }
+        }, FluxSink.OverflowStrategy.LATEST);
+    }
+
+    /**
+     * Wait for the robot of a world to advance past a version, e.g. for a long poll, without holding a thread.
+     *
+     * @param world
+     * @param sinceVersion version to be exceeded, modulo 2^27, see {@link RobotState#isNewerVersion}
+     * @param timeout
+     * @return Report of the first state past the version, or empty if there is none within the timeout
+     */
+    public Mono<RenderedReport> await(World world, long sinceVersion, Duration timeout) {
+        Watchers watchers = getWatchers(world);
+
+        return Mono.<RenderedReport>create(sink -> {
+            Predicate<RenderedReport> waiter = report -> {
+                if (!RobotState.isNewerVersion(RobotState.version(report.getState()), sinceVersion)) {
+                    return true;
+                }
+
+                sink.success(report);
+                return false;
+            };
+
+            watchers.add(waiter);
+            sink.onDispose(() -> watchers.remove(waiter));
+
+            // Added before the current report is read, so that no change is missed
+            RenderedReport report = toyRobotService.getRenderedReport(world);
+
+            if (report != null) {
+                waiter.test(report);
+            }
+        }).timeout(timeout, Mono.empty(), scheduler);
+    }
+
+    /**
+     * Get the number of subscribers to a world.
+     *
+     * @param world
+     * @return Number of subscribers
+     */
+    public int getSubscriberCount(World world) {
+        return world.getWatchers().getCount();
+    }
+
+    private Watchers getWatchers(World world) {
+        Watchers watchers = world.getWatchers();
+
+        if (watchers.getPublisher() == null) {
+            watchers.setPublisher(() -> scheduler.schedule(() -> publish(world)));
+        }
+
+        return watchers;
+    }
+
+    private void publish(World world) {
+        Watchers watchers = world.getWatchers();
+        watchers.beginPublish();
+
+        // An exclusive operation signals its change once it has ended
+        if (RobotState.isExclusive(world.getRobot().getState())) {
+            return;
+        }
+
+        RenderedReport report = toyRobotService.getRenderedReport(world);
+
+        if (report != null) {
+            watchers.publish(report);
+        }
+    }
+
+    /**
+     * Subscriber of a stream of reports, which only passes on reports of a newer version than the last one, e.g. in
+     * case the current report on subscription is read after a publication. Versions are compared the way
+     * {@link RobotState#isNewer} does, so that the stream goes on once the version has wrapped around.
+     */
+    private static class Subscriber implements Predicate<RenderedReport> {
+
+        private final FluxSink<RenderedReport> sink;
+
+        private boolean received;
+
+        private long lastState;
+
+        private Subscriber(FluxSink<RenderedReport> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public synchronized boolean test(RenderedReport report) {
+            long state = report.getState();
+
+            if (!received || RobotState.isNewer(state, lastState)) {
+                received = true;
+                lastState = state;
+                sink.next(report);
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.somecompany;
+
+import com.somecompany.model.Location;
+
+/**
+ * Factory of the locations used by the tests, e.g. of obstacles.
+ *
+ * @author N/A
+ */
+public final class TestLocations {
+
+    private TestLocations() {
+    }
+
+    /**
+     * Create a location without a facing.
+     *
+     * @param x-coordinate
+     * @param y-coordinate
+     * @return Location
+     */
+    public static Location location(int xCor, int yCor) {
+        Location location = new Location();
+        location.setXCor(xCor);
+        location.setYCor(yCor);
+        return location;
+    }
+}
@@ -0,0 +1,162 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotBatchTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_INVALID_API_PARAMS;
+
+    @Value("${errorMsg.robotFallOff}")
+    private String ERROR_MSG_ROBOT_FALL_OFF;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToRunBatchOfCommands() {
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("PLACE 1,2,NORTH", "MOVE", "REPORT", "right", "PLACE_OBSTACLE", "REPORT"));
+
+        // Actual result
+        CommandBatchResult result = batchService.run(world, batch);
+
+        // Assertion
+        assertTrue(result.isSuccess());
+        assertNull(result.getFailedAt());
+        assertEquals(6, result.getResults().size());
+        assertEquals("Robot is at 1,3,NORTH", result.getResults().get(2).getOutput());
+        assertNull(result.getResults().get(3).getOutput());
+        assertEquals("Robot is at 1,3,EAST; Obstacle is at 2,3", result.getFinalState());
+    }
+
+    @Test
+    public void shouldBeAbleToRunBatchOfCommandsFromScript() {
+        CommandBatch batch = new CommandBatch();
+        batch.setScript("PLACE 0,0,EAST\r\nMOVE\nMOVE\nLEFT\n");
+        batch.setFinalStateOnly(true);
+
+        // Actual result
+        CommandBatchResult result = batchService.run(world, batch);
+
+        // Assertion
+        assertTrue(result.isSuccess());
+        assertNull(result.getResults());
+        assertEquals("Robot is at 2,0,NORTH", result.getFinalState());
+    }
+
+    @Test
+    public void shouldBeAbleToRestoreWorldIfAtomicBatchFails() {
+        toyRobotService.place("3", "4", "NORTH");
+
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("LEFT", "PLACE_OBSTACLE", "RIGHT", "MOVE", "MOVE", "REPORT"));
+
+        // Actual result
+        CommandBatchResult result = batchService.run(world, batch);
+
+        // Assertion
+        assertFalse(result.isSuccess());
+        assertEquals(4, result.getFailedAt());
+        assertEquals(5, result.getResults().size());
+        assertEquals(ERROR_MSG_ROBOT_FALL_OFF, result.getResults().get(4).getOutput());
+        assertEquals("Robot is at 3,4,NORTH", result.getFinalState());
+        assertEquals(0, obstacle.getCount());
+    }
+
+    @Test
+    public void shouldBeAbleToContinueIfNonAtomicBatchFails() {
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("MOVE", "PLACE 0,5,NORTH", "MOVE", "RIGHT"));
+        batch.setAtomic(false);
+
+        // Actual result
+        CommandBatchResult result = batchService.run(world, batch);
+
+        // Assertion
+        assertFalse(result.isSuccess());
+        assertEquals(0, result.getFailedAt());
+        assertFalse(result.getResults().get(2).isSuccess());
+        assertEquals("Robot is at 0,5,EAST", result.getFinalState());
+    }
+
+    @Test
+    public void shouldBeAbleToRunBatchOfCommandsOnAPICall() {
+        CommandBatch batch = new CommandBatch();
+        batch.setScript("PLACE 1,2,EAST\nMOVE\nREPORT");
+
+        webTestClient.post().uri("/api/toyrobot/commands").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(batch)).exchange().expectStatus().isOk()
+                .expectBody(CommandBatchResult.class).value(result -> {
+                    // Assertion
+                    assertTrue(result.isSuccess());
+                    assertEquals("Robot is at 2,2,EAST", result.getResults().get(2).getOutput());
+                    assertEquals("Robot is at 2,2,EAST", result.getFinalState());
+                });
+    }
+
+    @Test
+    public void shouldBeAbleToRejectAtomicBatchOnAPICall() {
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("PLACE 1,2,EAST", "JUMP"));
+
+        webTestClient.post().uri("/api/toyrobot/batcher/commands").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(batch)).exchange().expectStatus().isBadRequest()
+                .expectBody(CommandBatchResult.class).value(result -> {
+                    // Assertion
+                    assertFalse(result.isSuccess());
+                    assertEquals(1, result.getFailedAt());
+                    assertNull(result.getFinalState());
+                });
+
+        webTestClient.post().uri("/api/toyrobot/commands").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(new CommandBatch())).exchange().expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(ERROR_INVALID_API_PARAMS);
+    }
+}
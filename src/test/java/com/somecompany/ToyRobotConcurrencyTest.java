@@ -0,0 +1,222 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests of the lock-free robot state in the style of jcstress: two actors race on the same state for many
+ * rounds, and the outcome of every round has to be one of those of a sequential order of the actors.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotConcurrencyTest {
+
+    private static final int ROUNDS = 2000;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private World world;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void init() {
+        sessionService.removeSession("stress");
+        world = sessionService.getWorld("stress");
+
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void cleanUp() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        sessionService.removeSession("stress");
+    }
+
+    @Test
+    public void shouldNeverLetConcurrentMovesPushRobotOffGrid() throws Exception {
+        Map<String, Integer> results = stress(() -> {
+            world.getObstacle().clear();
+            toyRobotService.place(world, "0", "4", "NORTH");
+        }, () -> toyRobotService.applyCommand(world, Command.MOVE.ordinal(), null).name(),
+                () -> toyRobotService.applyCommand(world, Command.MOVE.ordinal(), null).name());
+
+        // Assertion
+        for (String result : results.keySet()) {
+            assertTrue(result.equals("OK, ROBOT_FALL_OFF, 0,5") || result.equals("ROBOT_FALL_OFF, OK, 0,5"), result);
+        }
+    }
+
+    @Test
+    public void shouldNeverLetRobotMoveOntoConcurrentlyPlacedObstacle() throws Exception {
+        Map<String, Integer> results = stress(() -> {
+            world.getObstacle().clear();
+            toyRobotService.place(world, "1", "1", "EAST");
+        }, () -> toyRobotService.applyCommand(world, Command.MOVE.ordinal(), null).name(),
+                () -> toyRobotService.applyCommand(world, Command.PLACE_OBSTACLE.ordinal(), null).name());
+
+        // Assertion
+        for (String result : results.keySet()) {
+            // Either the robot moves first and the obstacle is placed in front of it, or the obstacle blocks it
+            assertTrue(result.equals("OK, OK, 2,1; Obstacle is at 3,1")
+                    || result.equals("ROBOT_HIT_OBSTACLE, OK, 1,1; Obstacle is at 2,1"), result);
+        }
+    }
+
+    @Test
+    public void shouldLetOnlyOneCommandOfTheSameVersionSucceed() throws Exception {
+        long[] version = new long[1];
+
+        Map<String, Integer> results = stress(() -> {
+            toyRobotService.place(world, "2", "2", "NORTH");
+            version[0] = world.getRobot().getVersion();
+        }, () -> toyRobotService.applyPlace(world, ParsedCommand.parse("PLACE 0,0,SOUTH"), version[0]).name(),
+                () -> validationService.checkTransition(
+                        toyRobotService.applyTransition(world, Command.MOVE.ordinal(), version[0])).name());
+
+        // Assertion
+        for (String result : results.keySet()) {
+            assertTrue(result.equals("OK, VERSION_MISMATCH, 0,0") || result.equals("VERSION_MISMATCH, OK, 2,3"),
+                    result);
+        }
+    }
+
+    @Test
+    public void shouldNotLoseUpdatesUnderContention() throws Exception {
+        toyRobotService.place(world, "0", "0", "NORTH");
+        long version = world.getRobot().getVersion();
+
+        int turns = 100_000;
+        Future<?> left = executor.submit(() -> {
+            for (int i = 0; i < turns; i++) {
+                toyRobotService.applyLeft(world);
+            }
+        });
+        Future<?> right = executor.submit(() -> {
+            for (int i = 0; i < turns; i++) {
+                toyRobotService.applyRight(world);
+            }
+        });
+
+        left.get();
+        right.get();
+
+        // Assertion
+        assertEquals(Facing.NORTH, world.getRobot().getLocation().getFacing());
+        assertEquals(version + 2 * turns, world.getRobot().getVersion());
+    }
+
+    @Test
+    public void shouldBeAbleToUseIfMatchOnAPICall() {
+        toyRobotService.place(world, "1", "1", "NORTH");
+
+        String eTag = webTestClient.get().uri("/api/toyrobot/stress/report").exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // Assertion
+        assertEquals(validationService.getETag(world, world.getRobot().getState()), eTag);
+
+        String newETag = webTestClient.post().uri("/api/toyrobot/stress/move").header(HttpHeaders.IF_MATCH, eTag)
+                .exchange().expectStatus().isOk().returnResult(String.class).getResponseHeaders().getETag();
+        assertEquals(validationService.getETag(world, world.getRobot().getState()), newETag);
+
+        webTestClient.post().uri("/api/toyrobot/stress/move").header(HttpHeaders.IF_MATCH, eTag).exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.put().uri("/api/toyrobot/stress/placeObstacle").header(HttpHeaders.IF_MATCH, "\"x\"")
+                .exchange().expectStatus().isEqualTo(412);
+        webTestClient.post().uri("/api/toyrobot/stress/left").header(HttpHeaders.IF_MATCH, "*").exchange()
+                .expectStatus().isOk();
+
+        assertEquals("Robot is at 1,2,WEST", toyRobotService.report(world));
+    }
+
+    @Test
+    public void shouldNotMatchETagOfEndedSession() {
+        toyRobotService.place(world, "1", "1", "NORTH");
+
+        String eTag = webTestClient.get().uri("/api/toyrobot/stress/report").exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // The session is started again, with a robot of the same version
+        sessionService.removeSession("stress");
+        world = sessionService.getWorld("stress");
+        toyRobotService.place(world, "1", "1", "NORTH");
+
+        // Assertion
+        assertNotEquals(validationService.getETag(world, world.getRobot().getState()), eTag);
+
+        webTestClient.post().uri("/api/toyrobot/stress/move").header(HttpHeaders.IF_MATCH, eTag).exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.post().uri("/api/toyrobot/stress/move")
+                .header(HttpHeaders.IF_MATCH, validationService.getETag(world, world.getRobot().getState()))
+                .exchange().expectStatus().isOk();
+
+        assertEquals("Robot is at 1,2,NORTH", toyRobotService.report(world));
+    }
+
+    /**
+     * Run two actors concurrently for a number of rounds.
+     *
+     * @return Number of rounds per result, i.e. the results of the actors and the state of the world afterwards
+     */
+    private Map<String, Integer> stress(Runnable reset, Supplier<String> actor1, Supplier<String> actor2)
+            throws Exception {
+        Map<String, Integer> results = new TreeMap<>();
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            reset.run();
+
+            Future<String> result1 = executor.submit(() -> {
+                barrier.await();
+                return actor1.get();
+            });
+            Future<String> result2 = executor.submit(() -> {
+                barrier.await();
+                return actor2.get();
+            });
+
+            String result = result1.get() + ", " + result2.get() + ", "
+                    + toyRobotService.report(world).substring("Robot is at ".length()).replace(",NORTH", "")
+                    .replace(",EAST", "").replace(",SOUTH", "");
+
+            results.merge(result, 1, Integer::sum);
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,160 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotEngineTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToPackAndUnpackRobotState() {
+        long state = RobotState.pack(3, 4, Facing.WEST);
+
+        // Assertion
+        assertEquals(3, RobotState.xCor(state));
+        assertEquals(4, RobotState.yCor(state));
+        assertEquals(Facing.WEST, RobotState.facing(state));
+        assertTrue(RobotState.hasLocation(state));
+        assertFalse(RobotState.hasLocation(RobotState.NO_LOCATION));
+        assertNull(RobotState.toLocation(RobotState.NO_LOCATION));
+    }
+
+    @Test
+    public void shouldBeAbleToLookUpDirectionsOfFacings() {
+        for (Facing facing : Facing.values()) {
+            // Assertion
+            assertEquals(facing, facing.left().right());
+            assertEquals(facing, facing.right().right().right().right());
+            assertEquals(0, facing.getDx() + facing.left().left().getDx());
+            assertEquals(0, facing.getDy() + facing.left().left().getDy());
+        }
+
+        assertEquals(Facing.NORTH, Facing.EAST.left());
+        assertEquals(Facing.SOUTH, Facing.EAST.right());
+        assertEquals(1, Facing.NORTH.getDy());
+    }
+
+    @Test
+    public void shouldBeAbleToRejectTransitionsByReason() {
+        // Assertion
+        assertEquals(RobotState.REJECTED_NO_LOCATION,
+                RobotState.transition(RobotState.NO_LOCATION, Command.LEFT.ordinal(), world));
+        assertEquals(RobotState.REJECTED_FALL_OFF,
+                RobotState.transition(RobotState.pack(0, 3, Facing.WEST), Command.MOVE.ordinal(), world));
+
+        toyRobotService.place("1", "2", "SOUTH");
+        toyRobotService.placeObstacle();
+        assertEquals(RobotState.REJECTED_HIT_OBSTACLE,
+                RobotState.transition(robot.getState(), Command.MOVE.ordinal(), world));
+        assertEquals(RobotState.pack(1, 2, Facing.EAST),
+                RobotState.transition(robot.getState(), Command.LEFT.ordinal(), world));
+    }
+
+    @Test
+    public void shouldBeAbleToMoveAndTurnRobotOnEnginePath() {
+        toyRobotService.place("1", "2", "NORTH");
+
+        // Assertion
+        assertTrue(toyRobotService.applyMove(world));
+        assertTrue(toyRobotService.applyRight(world));
+        assertTrue(toyRobotService.applyMove(world));
+        assertTrue(toyRobotService.applyLeft(world));
+        assertTrue(toyRobotService.applyLeft(world));
+
+        StringBuilder report = new StringBuilder();
+        assertTrue(toyRobotService.appendReport(world, report));
+        assertEquals("Robot is at 2,3,WEST", report.toString());
+    }
+
+    @Test
+    public void shouldBeAbleToRejectCommandsOnEnginePath() {
+        StringBuilder report = new StringBuilder();
+
+        // Robot has no location
+        assertFalse(toyRobotService.applyMove(world));
+        assertFalse(toyRobotService.applyLeft(world));
+        assertFalse(toyRobotService.applyRight(world));
+        assertFalse(toyRobotService.appendReport(world, report));
+        assertEquals("", report.toString());
+
+        // Robot will fall off
+        toyRobotService.place("1", "5", "NORTH");
+        assertFalse(toyRobotService.applyMove(world));
+
+        // Robot will hit an obstacle
+        toyRobotService.place("1", "2", "EAST");
+        toyRobotService.placeObstacle();
+        assertFalse(toyRobotService.applyMove(world));
+
+        assertEquals("Robot is at 1,2,EAST; Obstacle is at 2,2", toyRobotService.report());
+    }
+
+    @Test
+    public void shouldBeAbleToRunEnginePathWithoutAllocating() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        toyRobotService.place("0", "0", "NORTH");
+        StringBuilder report = new StringBuilder(64);
+        int iterations = 1_000_000;
+
+        // Warm up
+        runCommands(report, iterations);
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        runCommands(report, iterations);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Assertion, allowing for the allocations of the measurement itself
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    private void runCommands(StringBuilder report, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            toyRobotService.applyMove(world);
+            toyRobotService.applyRight(world);
+            toyRobotService.applyMove(world);
+            toyRobotService.applyLeft(world);
+
+            report.setLength(0);
+            toyRobotService.appendReport(world, report);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.somecompany;
+
+import com.somecompany.model.World;
+import com.somecompany.service.FileIngestionService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotFileIngestionTest {
+
+    @Autowired
+    private FileIngestionService fileIngestionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    private File inputFile;
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        sessionService.removeSession("ingestion");
+        sessionService.removeSession("lineByLine");
+
+        if (inputFile != null) {
+            Files.deleteIfExists(inputFile.toPath());
+        }
+    }
+
+    @Test
+    public void shouldBeAbleToIngestFileAsIfReadLineByLine() throws IOException {
+        String content = "PLACE 1,2,EAST\nMOVE\nmove\nPLACE_OBSTACLE\nLEFT\nREPORT\nMOVE\r\nMOVE\nMOVE\nMOVE\n"
+                + "right\n\nREPORT \nPLACE 9,9,NORTH\nPLACE 1,2\nPLACE  1,2,NORTH\nJUMP\nMOVE 1\nPLACE 0,0,south\n"
+                + "MOVE\nPLACE 01,+2,WEST\nREPORT";
+
+        String ingested = ingest(content);
+
+        // Assertion
+        assertEquals(lineByLine(content), ingested);
+        assertTrue(ingested.contains("Robot is at 3,5,EAST; Obstacle is at 4,2"));
+    }
+
+    @Test
+    public void shouldBeAbleToIngestFileWithoutOutput() throws IOException {
+        // Assertion
+        assertEquals("", ingest(""));
+        assertEquals("", ingest("PLACE 0,0,NORTH\nMOVE\nRIGHT\n"));
+    }
+
+    private String ingest(String content) throws IOException {
+        inputFile = File.createTempFile("commands", ".txt");
+        Files.write(inputFile.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+
+        sessionService.removeSession("ingestion");
+        World world = sessionService.getWorld("ingestion");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long lines = fileIngestionService.ingest(world, inputFile, out);
+
+        assertEquals(content.isEmpty() ? 0 : content.split("\n", -1).length - (content.endsWith("\n") ? 1 : 0), lines);
+
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private String lineByLine(String content) {
+        World world = sessionService.getWorld("lineByLine");
+
+        StringBuilder output = new StringBuilder();
+
+        for (String usrInput : content.split("\r?\n")) {
+            try {
+                String result = toyRobotService.execute(world, usrInput);
+
+                if (result != null) {
+                    output.append(result).append(System.lineSeparator());
+                }
+            } catch (IllegalArgumentException exception) {
+                output.append(exception.getMessage()).append(System.lineSeparator());
+            }
+        }
+
+        return output.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.somecompany;
+
+import com.somecompany.model.DistanceField;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.ParsedCommand;
+import com.somecompany.model.World;
+import com.somecompany.service.PathfindingService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.somecompany.TestLocations.location;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotGotoTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private PathfindingService pathfindingService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.noPath}")
+    private String ERROR_MSG_NO_PATH;
+
+    private World world;
+
+    private StringBuilder report;
+
+    @BeforeEach
+    public void init() {
+        world = sessionService.getWorld("pathfinding");
+        report = new StringBuilder();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("pathfinding");
+    }
+
+    @Test
+    public void shouldBeAbleToGoAroundObstacles() {
+        toyRobotService.addObstacles(world, Collections.singletonList(location(0, 1)));
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        // Assertion
+        assertEquals(Outcome.OK, toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 0,2"), report));
+        assertEquals("RIGHT, MOVE, LEFT, MOVE, MOVE, LEFT, MOVE", report.toString());
+        assertEquals("Robot is at 0,2,WEST; Obstacle is at 0,1", toyRobotService.report(world));
+
+        report.setLength(0);
+        assertEquals(Outcome.OK, toyRobotService.applyCommand(world, ParsedCommand.parse("goto 0,0,south"), report));
+        assertEquals("LEFT, LEFT, MOVE, RIGHT, MOVE, MOVE, RIGHT, MOVE, LEFT", report.toString());
+        assertEquals("Robot is at 0,0,SOUTH; Obstacle is at 0,1", toyRobotService.report(world));
+
+        // Already there
+        report.setLength(0);
+        assertEquals(Outcome.OK, toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 0,0"), report));
+        assertEquals("", report.toString());
+    }
+
+    @Test
+    public void shouldBeAbleToExecuteGoto() {
+        toyRobotService.addObstacles(world, Collections.singletonList(location(0, 1)));
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        // Assertion
+        assertEquals("RIGHT, MOVE, LEFT, MOVE, MOVE, LEFT, MOVE", toyRobotService.execute(world, "GOTO 0,2"));
+        assertEquals("", toyRobotService.execute(world, "GOTO 0,2"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            toyRobotService.execute(world, "GOTO 0,1");
+        });
+
+        assertEquals(ERROR_MSG_NO_PATH, exception.getMessage());
+        assertEquals("Robot is at 0,2,WEST; Obstacle is at 0,1", toyRobotService.report(world));
+    }
+
+    @Test
+    public void shouldNotBeAbleToGoToUnreachableLocation() {
+        // Assertion
+        assertEquals(Outcome.NO_LOCATION,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 1,1"), report));
+
+        toyRobotService.addObstacles(world, Arrays.asList(location(0, 4), location(1, 5)));
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        assertEquals(Outcome.NO_PATH, toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 0,5"), report));
+        assertEquals(Outcome.NO_PATH, toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 0,4"), report));
+        assertEquals(Outcome.INVALID_GOTO_COMMAND_FORMAT,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 1"), report));
+        assertEquals(Outcome.INVALID_GOTO_COMMAND_FORMAT,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 1,1,NORTH,1"), report));
+        assertEquals(Outcome.X_COR_OUT_OF_BOUNCE,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 6,0"), report));
+        assertEquals(Outcome.INVALID_FACING,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 1,1,UP"), report));
+        assertEquals("Robot is at 0,0,NORTH; Obstacle is at 0,4; Obstacle is at 1,5", toyRobotService.report(world));
+        assertEquals(0, report.length());
+    }
+
+    @Test
+    public void shouldKeepDistanceFieldUnlessObstaclesChangeDistances() {
+        world.getGrid().setWidth(1000);
+        world.getGrid().setHeight(1000);
+
+        // A pocket at 10,10 which cannot be reached
+        toyRobotService.addObstacles(world,
+                Arrays.asList(location(9, 10), location(11, 10), location(10, 9), location(10, 11)));
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        long command = ParsedCommand.parse("GOTO 1000,1000");
+        DistanceField distanceField = pathfindingService.getDistanceField(world, command);
+
+        // Assertion
+        assertEquals(2001, distanceField.getDistance(0, 0, 3));
+        assertEquals(-1, distanceField.getDistance(10, 10, 3));
+
+        toyRobotService.addObstacles(world, Collections.singletonList(location(10, 10)));
+        assertSame(distanceField, pathfindingService.getDistanceField(world, command));
+
+        toyRobotService.removeObstacles(world, Collections.singletonList(location(10, 10)));
+        assertSame(distanceField, pathfindingService.getDistanceField(world, command));
+
+        // Opens up the pocket
+        toyRobotService.removeObstacles(world, Collections.singletonList(location(9, 10)));
+        DistanceField opened = pathfindingService.getDistanceField(world, command);
+
+        assertNotSame(distanceField, opened);
+        assertEquals(1985, opened.getDistance(10, 10, 3));
+
+        assertEquals(Outcome.OK, toyRobotService.applyCommand(world, ParsedCommand.parse("GOTO 1000,1000"), report));
+        assertEquals("Robot is at 1000,1000,EAST; Obstacle is at 10,9; Obstacle is at 11,10; Obstacle is at 10,11",
+                toyRobotService.report(world));
+        assertEquals(1, pathfindingService.getDistanceFieldCount(world));
+    }
+
+    @Test
+    public void shouldBeAbleToGoToLocationOnAPICall() {
+        toyRobotService.addObstacles(world, Collections.singletonList(location(0, 1)));
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        // Assertion
+        webTestClient.post().uri("/api/toyrobot/pathfinding/goto").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"xcor\":0,\"ycor\":2}").exchange().expectStatus().isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, validationService.getETag(world, world.getRobot().getState()))
+                .expectBody(String.class).isEqualTo("Successfully moved robot by RIGHT, MOVE, LEFT, MOVE, MOVE, LEFT, "
+                        + "MOVE, new location is Robot is at 0,2,WEST; Obstacle is at 0,1");
+
+        webTestClient.post().uri("/api/toyrobot/pathfinding/goto").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"xcor\":0,\"ycor\":1,\"facing\":\"EAST\"}").exchange().expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(ERROR_MSG_NO_PATH);
+
+        webTestClient.post().uri("/api/toyrobot/pathfinding/goto").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"1\"").bodyValue("{\"xcor\":0,\"ycor\":0}").exchange().expectStatus()
+                .isEqualTo(412);
+    }
+}
@@ -0,0 +1,193 @@
+package com.somecompany;
+
+import com.somecompany.model.CommandBatch;
+import com.somecompany.model.JournalRecord;
+import com.somecompany.model.Location;
+import com.somecompany.model.World;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.JournalService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.somecompany.TestLocations.location;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {"journal.enabled=true",
+        "journal.directory=target/journal-test/", "journal.segmentSize=1048576", "journal.fsync=ALWAYS"})
+@ActiveProfiles("test")
+public class ToyRobotJournalTest {
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @BeforeAll
+    public static void init() {
+        // Start from an empty journal, before the application recovers from it
+        FileSystemUtils.deleteRecursively(new File("target/journal-test/"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("journal");
+        sessionService.removeSession("journalEnded");
+    }
+
+    @Test
+    public void shouldBeAbleToRecoverWorldsFromJournal() {
+        World world = sessionService.getWorld("journal");
+        world.getGrid().setWidth(7);
+
+        toyRobotService.place(world, "1", "1", "NORTH");
+        toyRobotService.move(world);
+        toyRobotService.right(world);
+        toyRobotService.placeObstacle(world);
+        toyRobotService.addObstacles(world, Arrays.asList(location(0, 0), location(6, 5)));
+        toyRobotService.removeObstacles(world, Arrays.asList(location(0, 0)));
+        toyRobotService.report(world);
+
+        // Rolled back, so that neither the obstacle nor the move is recovered
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("LEFT", "PLACE_OBSTACLE", "MOVE"));
+        assertFalse(batchService.run(world, batch).isSuccess());
+
+        toyRobotService.place(sessionService.getWorld("journalEnded"), "3", "3", "SOUTH");
+        sessionService.removeSession("journalEnded");
+
+        String report = toyRobotService.report(world);
+        long version = world.getRobot().getVersion();
+
+        // Restart, i.e. discard the world without journaling it and recover it from the journal
+        journalService.close();
+        sessionService.removeSession("journal");
+        journalService.recover(sessionService);
+
+        World recovered = sessionService.getWorld("journal");
+
+        // Assertion
+        assertNotSame(world, recovered);
+        assertEquals("Robot is at 1,2,EAST; Obstacle is at 2,2; Obstacle is at 6,5", report);
+        assertEquals(report, toyRobotService.report(recovered));
+        assertEquals(version, recovered.getRobot().getVersion());
+        assertEquals(7, recovered.getGrid().getWidth());
+
+        assertEquals("Error: The robot does not have a Location yet! Make sure you have run PLACE command!",
+                assertThrows(IllegalArgumentException.class,
+                        () -> toyRobotService.report(sessionService.getWorld("journalEnded"))).getMessage());
+    }
+
+    @Test
+    public void shouldNotJournalCommandsOnWorldOfEndedSession() {
+        World world = sessionService.getWorld("journalEnded");
+        toyRobotService.place(world, "3", "3", "SOUTH");
+        sessionService.removeSession("journalEnded");
+
+        long lastSequence = journalService.getLastSequence();
+
+        // Still in flight on the world of the session when it has ended
+        toyRobotService.move(world);
+        toyRobotService.addObstacles(world, Arrays.asList(location(0, 0)));
+
+        // Assertion
+        assertTrue(world.isEnded());
+        assertEquals(lastSequence, journalService.getLastSequence());
+        assertNotSame(world, sessionService.getWorld("journalEnded"));
+    }
+
+    @Test
+    public void shouldStopRecoveryAtRecordWhichFailsItsChecksum() throws Exception {
+        World world = sessionService.getWorld("journal");
+        toyRobotService.place(world, "1", "1", "NORTH");
+        toyRobotService.move(world);
+        toyRobotService.move(world);
+
+        journalService.close();
+
+        // Tear the record of the last MOVE, as if one of its pages had not reached the disk before a crash
+        File[] segments = JournalService.listSegments(new File("target/journal-test/"));
+
+        try (RandomAccessFile file = new RandomAccessFile(segments[segments.length - 1], "rw")) {
+            ByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            int position = JournalRecord.SEGMENT_HEADER_SIZE;
+            int last = position;
+
+            while (buffer.get(position) != JournalRecord.END) {
+                last = position;
+                position += JournalRecord.size(buffer, position);
+            }
+
+            file.seek(last + 3 + 7);
+            file.write(buffer.get(last + 3 + 7) ^ 0x08);
+        }
+
+        sessionService.removeSession("journal");
+        journalService.recover(sessionService);
+
+        // Assertion
+        assertEquals("Robot is at 1,2,NORTH", toyRobotService.report(sessionService.getWorld("journal")));
+    }
+
+    @Test
+    public void shouldShareEachFsyncBetweenConcurrentWriters() throws Exception {
+        World world = sessionService.getWorld("journal");
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        int writers = 4;
+        int turns = 250;
+        long lastSequence = journalService.getLastSequence();
+        long syncCount = journalService.getSyncCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        try {
+            Future<?>[] futures = new Future<?>[writers];
+
+            for (int i = 0; i < writers; i++) {
+                futures[i] = executor.submit(() -> {
+                    for (int turn = 0; turn < turns; turn++) {
+                        toyRobotService.applyLeft(world);
+                    }
+                });
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        // Assertion
+        assertEquals(lastSequence + writers * turns, journalService.getLastSequence());
+        // Every command has waited for its record to be forced, but not every command has forced the journal itself
+        assertTrue(journalService.getSyncCount() > syncCount);
+        assertTrue(journalService.getSyncCount() - syncCount < writers * turns);
+    }
+}
@@ -0,0 +1,130 @@
+package com.somecompany;
+
+import com.somecompany.controller.ToyRobotLineServer;
+import com.somecompany.model.Grid;
+import com.somecompany.model.Obstacle;
+import com.somecompany.model.Robot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {"lineServer.enabled=true",
+        "lineServer.port=0", "lineServer.socketPath=target/toyrobot-test.sock"})
+@ActiveProfiles("test")
+public class ToyRobotLineServerTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private ToyRobotLineServer lineServer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${errorMsg.robotFallOff}")
+    private String ERROR_MSG_ROBOT_FALL_OFF;
+
+    @Value("${errorMsg.invalidCommand}")
+    private String ERROR_MSG_INVALID_COMMAND;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToPipelineCommandsOverTcp() throws Exception {
+        try (Socket socket = new Socket("localhost", lineServer.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+            // All commands in a single write
+            out.write("PLACE 0,4,NORTH\nMOVE\r\nREPORT\nMOVE\nJUMP\nRIGHT\nREPORT\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            // Assertion
+            assertEquals("Robot is at 0,5,NORTH", in.readLine());
+            assertEquals(ERROR_MSG_ROBOT_FALL_OFF, in.readLine());
+            assertEquals(ERROR_MSG_INVALID_COMMAND, in.readLine());
+            assertEquals("Robot is at 0,5,EAST", in.readLine());
+        }
+
+        assertTrue(meterRegistry.get("toyrobot.lineserver.latency").timer().count() >= 7);
+    }
+
+    @Test
+    public void shouldBeAbleToRunCommandsOverUnixDomainSocket() throws Exception {
+        Assumptions.assumeTrue(Epoll.isAvailable());
+
+        BlockingQueue<String> outputs = new LinkedBlockingQueue<>();
+        EventLoopGroup group = new EpollEventLoopGroup(1);
+
+        try {
+            Channel channel = new Bootstrap().group(group).channel(EpollDomainSocketChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            channel.pipeline().addLast(new LineBasedFrameDecoder(1024),
+                                    new SimpleChannelInboundHandler<ByteBuf>() {
+                                        @Override
+                                        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf line) {
+                                            outputs.add(line.toString(StandardCharsets.US_ASCII));
+                                        }
+                                    });
+                        }
+                    }).connect(new DomainSocketAddress("target/toyrobot-test.sock")).sync().channel();
+
+            channel.writeAndFlush(Unpooled.copiedBuffer("PLACE 1,2,WEST\nREPORT\n", StandardCharsets.US_ASCII));
+
+            // Assertion
+            assertEquals("Robot is at 1,2,WEST", outputs.poll(5, TimeUnit.SECONDS));
+
+            channel.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+}
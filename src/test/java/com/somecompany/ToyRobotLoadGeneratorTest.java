@@ -0,0 +1,70 @@
+package com.somecompany;
+
+import com.somecompany.model.LoadReport;
+import com.somecompany.service.LoadGeneratorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotLoadGeneratorTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadGeneratorService loadGeneratorService;
+
+    @Test
+    public void shouldBeAbleToGenerateLoadAndRecordLatency() {
+        LoadReport report = loadGeneratorService.run(WebClient.create("http://localhost:" + port), 500, 8, 0,
+                "MOVE:50,LEFT:15,RIGHT:15,REPORT:20");
+
+        // Assertion
+        assertEquals(500, report.getRequests());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getRejected() > 0, "Some moves should make the robots fall off");
+        assertTrue(report.getP50Micros() > 0);
+        assertTrue(report.getP50Micros() <= report.getP99Micros());
+        assertTrue(report.getP99Micros() <= report.getP999Micros());
+        assertTrue(report.getP999Micros() <= report.getMaxMicros());
+    }
+
+    @Test
+    public void shouldBeAbleToGenerateLoadAtFixedRate() {
+        LoadReport report = loadGeneratorService.run(WebClient.create("http://localhost:" + port), 100, 4, 500,
+                "PLACE:1,PLACE_OBSTACLE:1,REPORT:8");
+
+        // Assertion, 100 requests at 500 requests/sec take at least 198 ms
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getElapsedMillis() >= 198, "Elapsed " + report.getElapsedMillis() + " ms");
+    }
+
+    @Test
+    public void shouldBeAbleToGenerateLoadOfGoto() {
+        LoadReport report = loadGeneratorService.run(WebClient.create("http://localhost:" + port), 100, 4, 0,
+                "GOTO:1");
+
+        // Assertion, only a target which another test has put an obstacle on is rejected
+        assertEquals(100, report.getRequests());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getRejected() < 50, "Rejected " + report.getRejected());
+    }
+
+    @Test
+    public void shouldBeAbleToThrowErrorIfCommandMixIsInvalid() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+
+        // Assertion
+        assertThrows(IllegalArgumentException.class, () -> loadGeneratorService.run(client, 1, 1, 0, "JUMP:1"));
+        assertThrows(IllegalArgumentException.class, () -> loadGeneratorService.run(client, 1, 1, 0, "MOVE"));
+        assertThrows(IllegalArgumentException.class, () -> loadGeneratorService.run(client, 1, 1, 0, "MOVE:0"));
+    }
+}
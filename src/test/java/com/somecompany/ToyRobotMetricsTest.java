@@ -0,0 +1,106 @@
+package com.somecompany;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.CommandBatch;
+import com.somecompany.model.CommandBatchResult;
+import com.somecompany.model.Outcome;
+import com.somecompany.model.World;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.MetricsService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureMetrics
+public class ToyRobotMetricsTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("metrics");
+    }
+
+    @Test
+    public void shouldBeAbleToCountCommandsAndRejectionsOnce() {
+        World world = sessionService.getWorld("metrics");
+
+        long moves = metricsService.getCommandCount(Command.MOVE);
+        long reports = metricsService.getCommandCount(Command.REPORT);
+        long fallOffs = metricsService.getRejectionCount(Outcome.ROBOT_FALL_OFF);
+
+        toyRobotService.place(world, "0", "5", "NORTH");
+        assertThrows(IllegalArgumentException.class, () -> toyRobotService.move(world));
+        toyRobotService.report(world);
+
+        // Assertion
+        assertEquals(moves + 1, metricsService.getCommandCount(Command.MOVE));
+        assertEquals(reports + 1, metricsService.getCommandCount(Command.REPORT));
+        assertEquals(fallOffs + 1, metricsService.getRejectionCount(Outcome.ROBOT_FALL_OFF));
+    }
+
+    @Test
+    public void shouldBeAbleToNotCountFinalStateOfBatchAsReport() {
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("PLACE 1,2,NORTH", "MOVE", "REPORT"));
+
+        long reports = metricsService.getCommandCount(Command.REPORT);
+
+        CommandBatchResult result = batchService.run(sessionService.getWorld("metrics"), batch);
+
+        // Assertion
+        assertEquals("Robot is at 1,3,NORTH", result.getFinalState());
+        assertEquals(reports + 1, metricsService.getCommandCount(Command.REPORT));
+    }
+
+    @Test
+    public void shouldBeAbleToExposeMetrics() {
+        toyRobotService.place(sessionService.getWorld("metrics"), "1", "1", "EAST");
+
+        webTestClient.put().uri("/api/toyrobot/metrics/placeObstacle").exchange().expectStatus().isOk();
+        webTestClient.post().uri("/api/toyrobot/metrics/move").exchange().expectStatus().isBadRequest();
+
+        // Assertion
+        webTestClient.get().uri("/actuator/metrics/toyrobot.commands?tag=command:place_obstacle").exchange()
+                .expectStatus().isOk().expectBody().jsonPath("$.measurements[0].value").isNumber();
+
+        webTestClient.get().uri("/actuator/metrics/toyrobot.obstacles").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.measurements[0].value").isNumber();
+
+        String prometheus = webTestClient.get().uri("/actuator/prometheus").exchange().expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertNotNull(prometheus);
+        assertTrue(prometheus.contains("toyrobot_commands_seconds_count{command=\"move\",}"));
+        assertTrue(prometheus.contains("toyrobot_rejections_total{reason=\"robotHitObstacle\",}"));
+        assertTrue(prometheus.contains("toyrobot_rejections_total{reason=\"robotFallOff\",}"));
+        assertTrue(prometheus.contains("toyrobot_sessions "));
+        assertTrue(prometheus.contains("toyrobot_obstacles "));
+    }
+}
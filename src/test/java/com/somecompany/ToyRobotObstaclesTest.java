@@ -0,0 +1,171 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.somecompany.TestLocations.location;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotObstaclesTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.placeObstacleAtNonExistentLocation}")
+    private String ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION;
+
+    @Value("${errorMsg.obstacleAtRobotLocation}")
+    private String ERROR_MSG_OBSTACLE_AT_ROBOT_LOCATION;
+
+    @Value("${errorMsg.robotHitObstacle}")
+    private String ERROR_MSG_ROBOT_HIT_OBSTACLE;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToKeepMultipleObstacles() {
+        toyRobotService.place("1", "2", "EAST");
+        toyRobotService.placeObstacle();
+        toyRobotService.left();
+        toyRobotService.placeObstacle();
+
+        // Assertion
+        assertEquals(2, obstacle.getCount());
+        assertTrue(obstacle.isAt(2, 2));
+        assertTrue(obstacle.isAt(1, 3));
+        assertEquals("Robot is at 1,2,NORTH; Obstacle is at 2,2; Obstacle is at 1,3", toyRobotService.report());
+    }
+
+    @Test
+    public void shouldBeAbleToAddAndRemoveObstaclesOnLargeGrid() {
+        grid.setWidth(1000);
+        grid.setHeight(1000);
+
+        List<Location> locations = new ArrayList<>();
+
+        for (int i = 0; i <= 1000; i += 7) {
+            locations.add(location(i, 1000 - i));
+            locations.add(location(1000 - i, i));
+        }
+
+        toyRobotService.addObstacles(world, locations);
+
+        // Assertion
+        for (Location location : locations) {
+            assertTrue(obstacle.isAt(location.getXCor(), location.getYCor()));
+        }
+
+        assertFalse(obstacle.isAt(1, 1));
+        assertEquals(locations.size(), obstacle.getCount() + countDuplicates(locations));
+
+        assertEquals(obstacle.getCount(), toyRobotService.removeObstacles(world, locations));
+        assertEquals(0, obstacle.getCount());
+        assertTrue(obstacle.getLocations().isEmpty());
+    }
+
+    @Test
+    public void shouldBeAbleToStopRobotAtAnyObstacle() {
+        toyRobotService.addObstacles(world, Arrays.asList(location(1, 4), location(3, 3)));
+        toyRobotService.place("1", "2", "NORTH");
+        toyRobotService.move();
+
+        // Assertion
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            toyRobotService.move();
+        });
+
+        assertEquals(ERROR_MSG_ROBOT_HIT_OBSTACLE, exception.getMessage());
+        assertEquals("Robot is at 1,3,NORTH; Obstacle is at 3,3; Obstacle is at 1,4", toyRobotService.report());
+    }
+
+    @Test
+    public void shouldBeAbleToThrowErrorIfObstacleIsOffGrid() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            toyRobotService.addObstacles(world, Arrays.asList(location(1, 1), location(6, 1)));
+        });
+
+        // Assertion
+        assertEquals(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION, exception.getMessage());
+        assertEquals(0, obstacle.getCount());
+    }
+
+    @Test
+    public void shouldBeAbleToThrowErrorIfObstacleIsAtRobotLocation() {
+        toyRobotService.place("1", "2", "NORTH");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            toyRobotService.addObstacles(world, Arrays.asList(location(1, 2)));
+        });
+
+        // Assertion
+        assertEquals(ERROR_MSG_OBSTACLE_AT_ROBOT_LOCATION, exception.getMessage());
+    }
+
+    @Test
+    public void shouldBeAbleToAddAndRemoveObstaclesOnAPICall() {
+        toyRobotService.place("0", "0", "NORTH");
+
+        webTestClient.put().uri("/api/toyrobot/obstacles").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(location(2, 2), location(3, 3), location(2, 2))))
+                .exchange().expectStatus().isOk().expectBody(String.class)
+                .value(result -> assertEquals("Successfully added 2 obstacle(s).", result));
+
+        webTestClient.method(HttpMethod.DELETE).uri("/api/toyrobot/obstacles").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(location(3, 3)))).exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/api/toyrobot/report").exchange().expectStatus().isOk().expectBody(String.class)
+                .value(result -> assertEquals("Robot is at 0,0,NORTH; Obstacle is at 2,2", result));
+    }
+
+    @Test
+    public void shouldBeAbleToThrowErrorIfObstacleIsOffGridOnAPICall() {
+        webTestClient.put().uri("/api/toyrobot/obstacles").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(Arrays.asList(location(-1, 2)))).exchange().expectStatus()
+                .isBadRequest().expectBody(String.class)
+                .value(result -> assertEquals(ERROR_MSG_PLACE_ROBOT_AT_NON_EXISTENT_LOCATION, result));
+    }
+
+    private static int countDuplicates(List<Location> locations) {
+        return (int) (locations.size() - locations.stream().map(l -> l.getXCor() + "," + l.getYCor()).distinct().count());
+    }
+}
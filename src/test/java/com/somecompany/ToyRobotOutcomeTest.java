@@ -0,0 +1,127 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.RejectedCommandException;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotOutcomeTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ReflectionTestUtils.setField(validationService, "stacklessExceptions", false);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnOutcomesWithCachedMessages() {
+        StringBuilder report = new StringBuilder(64);
+
+        // Assertion
+        assertEquals(Outcome.NO_LOCATION, toyRobotService.applyCommand(world, ParsedCommand.parse("MOVE"), report));
+        assertEquals(Outcome.INVALID_REPORT_COMMAND_FORMAT,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("REPORT 1"), report));
+        assertEquals(Outcome.X_COR_OUT_OF_BOUNCE,
+                toyRobotService.applyCommand(world, ParsedCommand.parse("PLACE 6,0,NORTH"), report));
+        assertEquals(Outcome.OK, toyRobotService.applyCommand(world, ParsedCommand.parse("PLACE 0,5,NORTH"), report));
+        assertEquals(Outcome.ROBOT_FALL_OFF, toyRobotService.applyCommand(world, ParsedCommand.parse("MOVE"), report));
+        assertEquals(0, report.length());
+
+        assertEquals("Error: Invalid input! REPORT command should have the format 'REPORT'!",
+                validationService.getMessage(Outcome.INVALID_REPORT_COMMAND_FORMAT, world));
+        assertEquals("Error: Invalid input! x-coordinate should have a value between 0 and 5!",
+                validationService.getMessage(Outcome.X_COR_OUT_OF_BOUNCE, world));
+        assertSame(validationService.getMessage(Outcome.ROBOT_FALL_OFF, world),
+                validationService.getMessage(Outcome.ROBOT_FALL_OFF, world));
+        assertNull(validationService.getMessage(Outcome.OK, world));
+    }
+
+    @Test
+    public void shouldBeAbleToThrowWithOrWithoutStackTrace() {
+        // Assertion
+        RejectedCommandException exception = assertThrows(RejectedCommandException.class,
+                () -> toyRobotService.move());
+        assertEquals(Outcome.NO_LOCATION, exception.getOutcome());
+        assertEquals("Error: The robot does not have a Location yet! Make sure you have run PLACE command!",
+                exception.getMessage());
+        assertTrue(exception.getStackTrace().length > 0);
+
+        ReflectionTestUtils.setField(validationService, "stacklessExceptions", true);
+
+        exception = assertThrows(RejectedCommandException.class, () -> toyRobotService.move());
+        assertEquals(Outcome.NO_LOCATION, exception.getOutcome());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    public void shouldBeAbleToRejectWithoutAllocating() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        toyRobotService.place("0", "5", "NORTH");
+        long[] commands = {ParsedCommand.parse("MOVE"), ParsedCommand.parse("PLACE 9,0,EAST"),
+                ParsedCommand.parse("JUMP"), ParsedCommand.parse("LEFT 1")};
+        int iterations = 200_000;
+
+        // Warm up
+        runCommands(commands, iterations);
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        runCommands(commands, iterations);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Assertion, allowing for the allocations of the measurement itself
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    private void runCommands(long[] commands, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            for (long command : commands) {
+                Outcome outcome = toyRobotService.applyCommand(world, command, null);
+                validationService.getMessage(outcome, world);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotParserTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToParseCommandsCaseInsensitively() {
+        long command = ParsedCommand.parse("place 1,2,north");
+
+        // Assertion
+        assertEquals(Command.PLACE.ordinal(), ParsedCommand.commandOrdinal(command));
+        assertEquals(1, ParsedCommand.xCor(command));
+        assertEquals(2, ParsedCommand.yCor(command));
+        assertEquals(Facing.NORTH.ordinal(), ParsedCommand.facingOrdinal(command));
+
+        assertEquals(Command.MOVE.ordinal(), ParsedCommand.parse("Move"));
+        assertEquals(Command.PLACE_OBSTACLE.ordinal(), ParsedCommand.parse("place_OBSTACLE"));
+        assertEquals(Command.REPORT.ordinal(), ParsedCommand.parse("REPORT  "));
+    }
+
+    @Test
+    public void shouldBeAbleToTokenizeAsBefore() {
+        // Assertion
+        assertEquals(ParsedCommand.NULL_OR_EMPTY, ParsedCommand.parse(null));
+        assertEquals(ParsedCommand.NULL_OR_EMPTY, ParsedCommand.parse(""));
+        assertEquals(ParsedCommand.INVALID_COMMAND, ParsedCommand.parse(" MOVE"));
+        assertEquals(ParsedCommand.INVALID_COMMAND, ParsedCommand.parse("JUMP"));
+        assertEquals(ParsedCommand.invalidFormat(Command.MOVE.ordinal()), ParsedCommand.parse("MOVE 1"));
+        assertEquals(ParsedCommand.invalidFormat(Command.PLACE.ordinal()), ParsedCommand.parse("PLACE"));
+        assertEquals(ParsedCommand.invalidFormat(Command.PLACE.ordinal()), ParsedCommand.parse("PLACE  1,2,NORTH"));
+        assertEquals(ParsedCommand.invalidFormat(Command.PLACE.ordinal()), ParsedCommand.parse("PLACE 1,2"));
+        assertEquals(ParsedCommand.invalidFormat(Command.PLACE.ordinal()), ParsedCommand.parse("PLACE 1,2,NORTH,X"));
+
+        // Trailing commas are ignored, like String.split does
+        assertEquals(ParsedCommand.place(1, 2, Facing.NORTH.ordinal()), ParsedCommand.parse("PLACE 1,2,NORTH,,"));
+
+        // Coordinates are parsed like Integer.valueOf does
+        assertEquals(ParsedCommand.place(1, 0, Facing.WEST.ordinal()), ParsedCommand.parse("PLACE +01,-0,WEST"));
+        assertEquals(ParsedCommand.COORDINATE_OUT_OF_RANGE, ParsedCommand.xCor(ParsedCommand.parse("PLACE -1,2,WEST")));
+        assertEquals(ParsedCommand.COORDINATE_OUT_OF_RANGE,
+                ParsedCommand.yCor(ParsedCommand.parse("PLACE 1,2147483647,WEST")));
+        assertEquals(ParsedCommand.COORDINATE_NOT_INTEGER,
+                ParsedCommand.yCor(ParsedCommand.parse("PLACE 1,2147483648,WEST")));
+        assertEquals(ParsedCommand.COORDINATE_NOT_INTEGER, ParsedCommand.xCor(ParsedCommand.parse("PLACE ,2,WEST")));
+        assertEquals(ParsedCommand.INVALID_FACING, ParsedCommand.facingOrdinal(ParsedCommand.parse("PLACE 1,2,UP")));
+    }
+
+    @Test
+    public void shouldBeAbleToValidateParsedCommandsInOrder() {
+        // Assertion
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> validationService.validateUserInput("LEFT RIGHT"));
+        assertEquals("Error: Invalid input! LEFT command should have the format 'LEFT'!", exception.getMessage());
+
+        // x-coordinate out of bounds is reported before y-coordinate not being an integer
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> toyRobotService.execute("PLACE 6,a,NORTH"));
+        assertEquals("Error: Invalid input! x-coordinate should have a value between 0 and 5!",
+                exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> toyRobotService.execute("PLACE 1,2,UP"));
+        assertEquals("Error: Invalid input! Facing is invalid", exception.getMessage());
+        assertNull(robot.getLocation());
+    }
+
+    @Test
+    public void shouldBeAbleToParseAndDispatchWithoutAllocating() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        String[] lines = {"PLACE 0,0,NORTH", "MOVE", "right", "MOVE", "LEFT", "PLACE_OBSTACLE", "REPORT"};
+        StringBuilder report = new StringBuilder(128);
+        int iterations = 200_000;
+
+        // Warm up
+        runLines(lines, report, iterations);
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        runLines(lines, report, iterations);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Assertion, allowing for the allocations of the measurement itself
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+        assertEquals("Robot is at 1,1,NORTH; Obstacle is at 1,2", report.toString());
+    }
+
+    private void runLines(String[] lines, StringBuilder report, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            for (String line : lines) {
+                report.setLength(0);
+                toyRobotService.applyCommand(world, ParsedCommand.parse(line), report);
+            }
+        }
+    }
+}
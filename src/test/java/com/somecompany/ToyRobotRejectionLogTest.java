@@ -0,0 +1,84 @@
+package com.somecompany;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.somecompany.model.Outcome;
+import com.somecompany.service.RejectionLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotRejectionLogTest {
+
+    private static final Pattern SUMMARY = Pattern.compile("(\\d+) (\\w+) rejects suppressed in last second");
+
+    @Autowired
+    private RejectionLogService rejectionLogService;
+
+    private Logger logger;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    public void init() {
+        logger = (Logger) LoggerFactory.getLogger(RejectionLogService.class);
+
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+
+        // Start a new second
+        rejectionLogService.summarize();
+        appender.list.clear();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    public void shouldBeAbleToRateLimitRejectionsPerReason() {
+        int rejections = 1000;
+
+        for (int i = 0; i < rejections; i++) {
+            rejectionLogService.log(Outcome.ROBOT_FALL_OFF, "Error: The robot will fall of the grid after this move!");
+        }
+        rejectionLogService.log(Outcome.NO_LOCATION, "Error: The robot does not have a Location yet!");
+
+        rejectionLogService.summarize();
+
+        // Assertion, allowing for a new second having started in between
+        int logged = 0;
+        long suppressed = 0;
+
+        for (ILoggingEvent event : appender.list) {
+            Matcher matcher = SUMMARY.matcher(event.getFormattedMessage());
+
+            if (matcher.matches()) {
+                assertEquals("robotFallOff", matcher.group(2));
+                suppressed += Long.parseLong(matcher.group(1));
+            } else if (event.getFormattedMessage().contains("fall of the grid")) {
+                logged++;
+            }
+        }
+
+        assertTrue(logged < rejections / 2, "Logged " + logged + " rejections");
+        assertEquals(rejections, logged + suppressed);
+        assertTrue(appender.list.stream()
+                .anyMatch(event -> event.getFormattedMessage().contains("does not have a Location")));
+    }
+}
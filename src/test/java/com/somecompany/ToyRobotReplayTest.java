@@ -0,0 +1,183 @@
+package com.somecompany;
+
+import com.somecompany.model.Command;
+import com.somecompany.model.CommandBatch;
+import com.somecompany.model.Facing;
+import com.somecompany.model.ReplayReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import com.somecompany.service.BatchService;
+import com.somecompany.service.JournalService;
+import com.somecompany.service.ReplayService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static com.somecompany.TestLocations.location;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {"journal.enabled=true",
+        "journal.directory=target/replay-test/", "journal.segmentSize=1048576", "journal.fsync=OS"})
+@ActiveProfiles("test")
+public class ToyRobotReplayTest {
+
+    private static final File JOURNAL = new File("target/replay-test/");
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @BeforeAll
+    public static void init() {
+        // Start from an empty journal
+        FileSystemUtils.deleteRecursively(JOURNAL);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("replay");
+    }
+
+    @Test
+    public void shouldReplayJournalUpToSequence() throws Exception {
+        // The journal is shared with the other tests
+        ReplayReport before = replayService.replay(JOURNAL, 0, true);
+
+        World world = sessionService.getWorld("replay");
+        world.getGrid().setWidth(7);
+
+        toyRobotService.place(world, "1", "1", "NORTH");
+        toyRobotService.move(world);
+        toyRobotService.right(world);
+        toyRobotService.placeObstacle(world);
+        toyRobotService.addObstacles(world, Arrays.asList(location(0, 0), location(6, 5)));
+
+        String report = toyRobotService.report(world);
+        long version = world.getRobot().getVersion();
+        long sequence = journalService.getLastSequence();
+
+        toyRobotService.left(world);
+        toyRobotService.move(world);
+        toyRobotService.removeObstacles(world, Arrays.asList(location(0, 0)));
+
+        // Rolled back, so that neither the obstacle nor the move is replayed
+        CommandBatch batch = new CommandBatch();
+        batch.setCommands(Arrays.asList("LEFT", "PLACE_OBSTACLE", "MOVE", "MOVE", "MOVE", "MOVE", "MOVE", "MOVE"));
+        assertFalse(batchService.run(world, batch).isSuccess());
+
+        String finalReport = toyRobotService.report(world);
+
+        ReplayReport untilReport = replayService.replay(JOURNAL, sequence, true);
+        ReplayReport fullReplay = replayService.replay(JOURNAL, 0, true);
+
+        World replayedUntil = untilReport.getWorlds().get("replay");
+        World replayed = fullReplay.getWorlds().get("replay");
+
+        // Assertion
+        assertEquals(sequence, untilReport.getLastSequence());
+        assertEquals(report, toyRobotService.report(replayedUntil));
+        assertEquals(version, replayedUntil.getRobot().getVersion());
+        assertEquals(7, replayedUntil.getGrid().getWidth());
+
+        assertEquals(before.getMismatches(), fullReplay.getMismatches());
+        // The final state of the batch is not journaled as a REPORT
+        assertEquals(before.getVerifiedReports() + 2, fullReplay.getVerifiedReports());
+        assertEquals(journalService.getLastSequence(), fullReplay.getLastSequence());
+        assertEquals("Robot is at 1,3,NORTH; Obstacle is at 2,2; Obstacle is at 6,5", finalReport);
+        assertEquals(finalReport, toyRobotService.report(replayed));
+        assertEquals(world.getRobot().getVersion(), replayed.getRobot().getVersion());
+        assertNotSame(world, replayed);
+    }
+
+    @Test
+    public void shouldReportMismatchOfRecordedReport() throws Exception {
+        ReplayReport before = replayService.replay(JOURNAL, 0, true);
+
+        World world = sessionService.getWorld("replay");
+        toyRobotService.place(world, "0", "0", "EAST");
+
+        // Moved behind the back of the journal, so that the REPORT differs on replay
+        world.getRobot().restore(RobotState.withVersion(RobotState.pack(3, 3, Facing.NORTH),
+                world.getRobot().getVersion()));
+        toyRobotService.report(world);
+        toyRobotService.move(world);
+
+        ReplayReport report = replayService.replay(JOURNAL, 0, true);
+
+        // Assertion
+        assertEquals(before.getMismatches() + 1, report.getMismatches());
+        assertTrue(report.getMismatchDetails().stream().anyMatch(detail -> detail.contains(
+                "of session replay: REPORT recorded as 3,3,NORTH (version 1), replayed as 0,0,EAST (version 1)")));
+        // Replay has gone on from the recorded state
+        assertEquals(toyRobotService.report(world), toyRobotService.report(report.getWorlds().get("replay")));
+    }
+
+    @Test
+    public void shouldReplayRecordsInOrderOfVersion() throws Exception {
+        ReplayReport before = replayService.replay(JOURNAL, 0, true);
+
+        World world = sessionService.getWorld("replay");
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        // Two concurrent commands whose records have been appended in the reverse order of their versions
+        long moved = RobotState.next(world.getRobot().getState(), RobotState.pack(0, 1, Facing.NORTH));
+        long turned = RobotState.next(moved, RobotState.pack(0, 1, Facing.WEST));
+        world.getRobot().restore(turned);
+        journalService.journalCommand(world, Command.REPORT.ordinal(), turned);
+        journalService.journalCommand(world, Command.LEFT.ordinal(), turned);
+        journalService.journalCommand(world, Command.REPORT.ordinal(), moved);
+        journalService.journalCommand(world, Command.MOVE.ordinal(), moved);
+        toyRobotService.right(world);
+
+        ReplayReport report = replayService.replay(JOURNAL, 0, true);
+
+        // Assertion
+        assertEquals(before.getMismatches(), report.getMismatches());
+        assertEquals(before.getVerifiedReports() + 2, report.getVerifiedReports());
+        assertEquals(toyRobotService.report(world), toyRobotService.report(report.getWorlds().get("replay")));
+        assertEquals(world.getRobot().getVersion(), report.getWorlds().get("replay").getRobot().getVersion());
+    }
+
+    @Test
+    public void shouldReportMismatchOfRecordedTransition() throws Exception {
+        ReplayReport before = replayService.replay(JOURNAL, 0, true);
+
+        World world = sessionService.getWorld("replay");
+        toyRobotService.place(world, "0", "0", "NORTH");
+
+        // Accepted on replay, but recorded at another location
+        long moved = RobotState.next(world.getRobot().getState(), RobotState.pack(2, 2, Facing.NORTH));
+        world.getRobot().restore(moved);
+        journalService.journalCommand(world, Command.MOVE.ordinal(), moved);
+        toyRobotService.move(world);
+
+        ReplayReport report = replayService.replay(JOURNAL, 0, true);
+
+        // Assertion
+        assertEquals(before.getMismatches() + 1, report.getMismatches());
+        assertTrue(report.getMismatchDetails().stream().anyMatch(detail -> detail.contains(
+                "of session replay: MOVE recorded as 2,2,NORTH (version 2), replayed as 0,1,NORTH (version 2)")));
+        assertEquals("Robot is at 2,3,NORTH", toyRobotService.report(report.getWorlds().get("replay")));
+    }
+}
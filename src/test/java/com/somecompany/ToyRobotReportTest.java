@@ -2,12 +2,14 @@ package com.somecompany;
 
 import com.somecompany.model.*;
 import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -27,9 +29,15 @@ public class ToyRobotReportTest {
     @Autowired
     private Grid grid;
 
+    @Autowired
+    private World world;
+
     @Autowired
     private ToyRobotService toyRobotService;
 
+    @Autowired
+    private ValidationService validationService;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -126,6 +134,36 @@ public class ToyRobotReportTest {
                 .value(result -> assertEquals("Robot is at 1,2,NORTH; Obstacle is at 1,3", result));
     }
 
+    @Test
+    public void shouldBeAbleToAnswerNotModifiedOnAPICall() {
+        Location location = new Location();
+        location.setXCor(1);
+        location.setYCor(2);
+        location.setFacing(Facing.NORTH);
+
+        robot.setLocation(location);
+
+        String eTag = webTestClient.get().uri("/api/toyrobot/report").exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // Assertion
+        assertEquals(validationService.getETag(world, robot.getState()), eTag);
+
+        webTestClient.get().uri("/api/toyrobot/report").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified().expectHeader().valueEquals(HttpHeaders.ETAG, eTag).expectBody()
+                .isEmpty();
+        webTestClient.get().uri("/api/toyrobot/report").header(HttpHeaders.IF_NONE_MATCH, "\"0\", " + eTag)
+                .exchange().expectStatus().isNotModified();
+
+        // A new version, e.g. of a turn, is reported again
+        toyRobotService.left();
+
+        webTestClient.get().uri("/api/toyrobot/report").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isOk().expectHeader()
+                .valueEquals(HttpHeaders.ETAG, validationService.getETag(world, robot.getState()))
+                .expectBody(String.class).isEqualTo("Robot is at 1,2,WEST");
+    }
+
     @Test
     public void shouldBeAbleToThrowErrorIfRobotDoesNotHaveLocationOnAPICall() {
         webTestClient.get().uri("/api/toyrobot/report").exchange().expectStatus().isBadRequest()
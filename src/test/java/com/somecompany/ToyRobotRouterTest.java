@@ -0,0 +1,223 @@
+package com.somecompany;
+
+import com.somecompany.model.CommandBatchResult;
+import com.somecompany.model.CommandResult;
+import com.somecompany.service.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.server.ReactiveWebServerFactory;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("test")
+public class ToyRobotRouterTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ReactiveWebServerFactory webServerFactory;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_INVALID_API_PARAMS;
+
+    @Value("${errorMsg.robotFallOff}")
+    private String ERROR_MSG_ROBOT_FALL_OFF;
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("router");
+    }
+
+    @Test
+    public void shouldBeAbleToServeOnNetty() {
+        // Assertion
+        assertTrue(webServerFactory instanceof NettyReactiveWebServerFactory);
+    }
+
+    @Test
+    public void shouldBeAbleToPlaceMoveAndReportOnAPICall() {
+        String body = "{\n" + "\"facing\":\"NORTH\",\n" + "\"xcor\":1,\n" + "\"ycor\":4\n" + "}";
+
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body).exchange().expectStatus().isOk().expectBody(String.class)
+                .isEqualTo("Successfully placed robot on grid.");
+
+        webTestClient.post().uri("/api/toyrobot/router/move").exchange().expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Successfully moved robot, new location is Robot is at 1,5,NORTH");
+
+        webTestClient.post().uri("/api/toyrobot/router/move").exchange().expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(ERROR_MSG_ROBOT_FALL_OFF);
+
+        webTestClient.get().uri("/api/toyrobot/router/report").exchange().expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Robot is at 1,5,NORTH");
+    }
+
+    @Test
+    public void shouldBeAbleToAnswerNotModifiedOnAPICall() {
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"EAST\",\"xcor\":0,\"ycor\":0}").exchange().expectStatus().isOk();
+
+        String eTag = webTestClient.get().uri("/api/toyrobot/router/report").exchange().expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // Assertion
+        webTestClient.get().uri("/api/toyrobot/router/report").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified().expectHeader().valueEquals(HttpHeaders.ETAG, eTag).expectBody()
+                .isEmpty();
+
+        webTestClient.post().uri("/api/toyrobot/router/move").exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/api/toyrobot/router/report").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isOk().expectHeader().contentType("text/plain;charset=UTF-8").expectBody(String.class)
+                .isEqualTo("Robot is at 1,0,EAST");
+    }
+
+    @Test
+    public void shouldBeAbleToStreamEventsOnAPICall() {
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"NORTH\",\"xcor\":2,\"ycor\":2}").exchange().expectStatus().isOk();
+
+        Flux<String> events = webTestClient.get().uri("/api/toyrobot/router/events")
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange().expectStatus().isOk().returnResult(String.class)
+                .getResponseBody();
+
+        // Assertion
+        StepVerifier.create(events)
+                .expectNext("Robot is at 2,2,NORTH")
+                .then(() -> webTestClient.post().uri("/api/toyrobot/router/right").exchange().expectStatus().isOk())
+                .expectNext("Robot is at 2,2,EAST")
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void shouldBeAbleToLongPollOnAPICall() {
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"SOUTH\",\"xcor\":3,\"ycor\":3}").exchange().expectStatus().isOk();
+
+        long version = sessionService.getWorld("router").getRobot().getVersion();
+        String uri = "/api/toyrobot/router/report?sinceVersion=" + version + "&timeout=10s";
+
+        // Assertion
+        webTestClient.get().uri("/api/toyrobot/router/report?sinceVersion=" + version + "&timeout=100ms")
+                .exchange().expectStatus().isNotModified();
+
+        Mono.delay(Duration.ofMillis(300))
+                .subscribe(tick -> webTestClient.post().uri("/api/toyrobot/router/move").exchange());
+
+        webTestClient.get().uri(uri).exchange().expectStatus().isOk().expectBody(String.class)
+                .isEqualTo("Robot is at 3,2,SOUTH");
+    }
+
+    @Test
+    public void shouldBeAbleToGoToLocationOnAPICall() {
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"NORTH\",\"xcor\":0,\"ycor\":0}").exchange().expectStatus().isOk();
+
+        // Assertion
+        webTestClient.post().uri("/api/toyrobot/router/goto").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"facing\":\"SOUTH\",\"xcor\":1,\"ycor\":1}").exchange().expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Successfully moved robot by MOVE, RIGHT, MOVE, RIGHT, new location "
+                        + "is Robot is at 1,1,SOUTH");
+
+        webTestClient.post().uri("/api/toyrobot/router/goto").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"xcor\":6,\"ycor\":1}").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void shouldBeAbleToThrowErrorIfBodyCannotBeParsedOnAPICall() {
+        String body = "{\n" + "\"facing\":\"NORTH\",\n" + "\"xcor\":a,\n" + "\"ycor\":2\n" + "}";
+
+        // Assertion
+        webTestClient.put().uri("/api/toyrobot/router/place").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body).exchange().expectStatus().isBadRequest().expectBody(String.class)
+                .isEqualTo(ERROR_INVALID_API_PARAMS);
+    }
+
+    @Test
+    public void shouldBeAbleToRunBatchAndStreamOnAPICall() {
+        String batch = "{\"commands\":[\"PLACE 0,0,EAST\",\"MOVE\",\"REPORT\"]}";
+
+        CommandBatchResult result = webTestClient.post().uri("/api/toyrobot/router/commands")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(batch).exchange().expectStatus().isOk()
+                .expectBody(CommandBatchResult.class).returnResult().getResponseBody();
+
+        // Assertion
+        assertTrue(result.isSuccess());
+        assertEquals("Robot is at 1,0,EAST", result.getFinalState());
+
+        webTestClient.post().uri("/api/toyrobot/router/commands").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"commands\":[]}").exchange().expectStatus().isBadRequest().expectBody(String.class)
+                .isEqualTo(ERROR_INVALID_API_PARAMS);
+
+        List<CommandResult> results = webTestClient.post().uri("/api/toyrobot/router/stream")
+                .contentType(MediaType.TEXT_PLAIN).bodyValue("MOVE\nREPORT\nLEFT\nREPORT\n").exchange()
+                .expectStatus().isOk().expectHeader().contentType("application/x-ndjson")
+                .returnResult(CommandResult.class).getResponseBody().collectList().block();
+
+        assertEquals(2, results.size());
+        assertEquals("Robot is at 2,0,EAST", results.get(0).getOutput());
+        assertEquals("Robot is at 2,0,NORTH", results.get(1).getOutput());
+    }
+
+    @Test
+    public void shouldBeAbleToRunCommandsOverWebSocket() {
+        List<String> replies = new ArrayList<>();
+
+        new ReactorNettyWebSocketClient().execute(URI.create("ws://localhost:" + port + "/api/toyrobot/ws"),
+                session -> session.send(Flux.just("PLACE 0,4,NORTH", "MOVE", "REPORT", "MOVE").map(session::textMessage))
+                        .thenMany(session.receive().map(WebSocketMessage::getPayloadAsText).take(2)
+                                .doOnNext(replies::add))
+                        .then())
+                .block(Duration.ofSeconds(5));
+
+        // Assertion
+        assertEquals(Arrays.asList("Robot is at 0,5,NORTH", "ROBOT_FALL_OFF"), replies);
+    }
+
+    @Test
+    public void shouldBeAbleToEndSessionOnAPICall() {
+        sessionService.getWorld("router");
+
+        webTestClient.delete().uri("/api/toyrobot/router").exchange().expectStatus().isOk();
+
+        // Assertion
+        webTestClient.delete().uri("/api/toyrobot/router").exchange().expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo(ERROR_INVALID_API_PARAMS);
+
+        webTestClient.get().uri("/api/toyrobot/router/report").exchange().expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo(ERROR_INVALID_API_PARAMS);
+        webTestClient.get().uri("/api/toyrobot/router/events").accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isNotFound();
+        assertNull(sessionService.findWorld("router"));
+    }
+}
@@ -0,0 +1,174 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotSessionTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.noLocation}")
+    private String ERROR_MSG_NO_LOCATION;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+
+        sessionService.removeSession("alice");
+        sessionService.removeSession("bob");
+    }
+
+    @Test
+    public void shouldBeAbleToKeepSessionsIndependent() {
+        World alice = sessionService.getWorld("alice");
+        World bob = sessionService.getWorld("bob");
+
+        toyRobotService.place(alice, "1", "2", "NORTH");
+        toyRobotService.place(bob, "3", "4", "WEST");
+        toyRobotService.move(alice);
+
+        // Assertion
+        assertEquals("Robot is at 1,3,NORTH", toyRobotService.report(alice));
+        assertEquals("Robot is at 3,4,WEST", toyRobotService.report(bob));
+        assertNull(robot.getLocation());
+    }
+
+    @Test
+    public void shouldBeAbleToUseDefaultSessionByName() {
+        toyRobotService.place("1", "2", "NORTH");
+
+        // Assertion
+        assertSame(sessionService.getDefaultWorld(), sessionService.getWorld(SessionService.DEFAULT_SESSION_ID));
+        assertEquals("Robot is at 1,2,NORTH", toyRobotService.report(sessionService.getDefaultWorld()));
+    }
+
+    @Test
+    public void shouldBeAbleToNotEndDefaultSession() {
+        assertFalse(sessionService.removeSession(SessionService.DEFAULT_SESSION_ID));
+        assertTrue(sessionService.getSessionCount() >= 1);
+    }
+
+    @Test
+    public void shouldBeAbleToMoveRobotConcurrentlyWithinGrid() throws Exception {
+        World alice = sessionService.getWorld("alice");
+        toyRobotService.place(alice, "0", "0", "NORTH");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    toyRobotService.move(alice);
+                } catch (IllegalArgumentException exception) {
+                    // Robot would fall off
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        executor.shutdown();
+
+        // Assertion
+        assertEquals("Robot is at 0,5,NORTH", toyRobotService.report(alice));
+    }
+
+    @Test
+    public void shouldBeAbleToPlaceAndMoveRobotOfSessionOnAPICall() {
+        Location location = new Location();
+        location.setXCor(1);
+        location.setYCor(2);
+        location.setFacing(Facing.EAST);
+
+        webTestClient.put().uri("/api/toyrobot/alice/place").contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(location)).exchange().expectStatus().isOk();
+
+        webTestClient.post().uri("/api/toyrobot/alice/move").exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/api/toyrobot/alice/report").exchange().expectStatus().isOk().expectBody(String.class)
+                .value(result -> assertEquals("Robot is at 2,2,EAST", result));
+
+        // Default session should not have been affected
+        webTestClient.get().uri("/api/toyrobot/report").exchange().expectStatus().isBadRequest()
+                .expectBody(String.class).value(result -> assertEquals(ERROR_MSG_NO_LOCATION, result));
+    }
+
+    @Test
+    public void shouldBeAbleToEndSessionOnAPICall() {
+        toyRobotService.place(sessionService.getWorld("bob"), "1", "2", "NORTH");
+
+        webTestClient.delete().uri("/api/toyrobot/bob").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/toyrobot/bob").exchange().expectStatus().isNotFound();
+
+        // Reading does not create the session again, only the next command does
+        webTestClient.get().uri("/api/toyrobot/bob/report").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/toyrobot/bob/report?sinceVersion=0&timeout=100ms").exchange().expectStatus()
+                .isNotFound();
+        webTestClient.get().uri("/api/toyrobot/bob/events").accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isNotFound();
+        assertNull(sessionService.findWorld("bob"));
+
+        webTestClient.post().uri("/api/toyrobot/bob/move").exchange().expectStatus().isBadRequest()
+                .expectBody(String.class).value(result -> assertEquals(ERROR_MSG_NO_LOCATION, result));
+        assertNotNull(sessionService.findWorld("bob"));
+    }
+
+    @Test
+    public void shouldBeAbleToEndIdleSessions() {
+        World alice = sessionService.getWorld("alice");
+        World bob = sessionService.getWorld("bob");
+        alice.setLastAccessMillis(System.currentTimeMillis() - 3600000);
+        sessionService.getDefaultWorld().setLastAccessMillis(0);
+
+        // Assertion
+        assertEquals(1, sessionService.evictIdleSessions());
+        assertNull(sessionService.findWorld("alice"));
+        assertSame(bob, sessionService.findWorld("bob"));
+        assertSame(sessionService.getDefaultWorld(), sessionService.findWorld(SessionService.DEFAULT_SESSION_ID));
+    }
+}
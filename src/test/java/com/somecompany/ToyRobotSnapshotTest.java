@@ -0,0 +1,154 @@
+package com.somecompany;
+
+import com.somecompany.model.Location;
+import com.somecompany.model.World;
+import com.somecompany.service.JournalService;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.SnapshotService;
+import com.somecompany.service.ToyRobotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.somecompany.TestLocations.location;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {"snapshot.enabled=true",
+        "snapshot.directory=target/snapshot-test/", "snapshot.intervalMs=3600000", "journal.enabled=true",
+        "journal.directory=target/snapshot-test/journal/", "journal.segmentSize=1048576"})
+@ActiveProfiles("test")
+public class ToyRobotSnapshotTest {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    public static void init() {
+        // Start without snapshots and journal, before the application recovers from them
+        FileSystemUtils.deleteRecursively(new File("target/snapshot-test/"));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        sessionService.removeSession("snapshot");
+    }
+
+    @Test
+    public void shouldBeAbleToRestoreWorldsFromSnapshotAndJournal() throws Exception {
+        World world = sessionService.getWorld("snapshot");
+        world.getGrid().setWidth(1000);
+        world.getGrid().setHeight(1000);
+
+        // A full row of obstacles
+        List<Location> row = new ArrayList<>();
+
+        for (int xCor = 0; xCor < 1000; xCor++) {
+            row.add(location(xCor, 500));
+        }
+
+        toyRobotService.addObstacles(world, row);
+        toyRobotService.place(world, "1", "1", "EAST");
+        toyRobotService.placeObstacle(world);
+
+        File snapshot = snapshotService.takeSnapshot();
+
+        // Only replayed from the journal
+        toyRobotService.left(world);
+        toyRobotService.move(world);
+        toyRobotService.right(world);
+        toyRobotService.removeObstacles(world, Arrays.asList(location(999, 500)));
+
+        String report = toyRobotService.report(world);
+        long version = world.getRobot().getVersion();
+
+        // Restart, i.e. discard the world without journaling it and restore it from the snapshot and the journal
+        journalService.close();
+        sessionService.removeSession("snapshot");
+        snapshotService.recover();
+
+        World restored = sessionService.getWorld("snapshot");
+
+        // Assertion
+        assertTrue(snapshot.isFile());
+        // A thousand obstacles are a single run
+        assertTrue(snapshot.length() < 200);
+        assertNotSame(world, restored);
+        assertEquals(report, toyRobotService.report(restored));
+        assertTrue(report.startsWith("Robot is at 1,2,EAST; Obstacle is at 2,1; Obstacle is at 0,500;"));
+        assertFalse(report.contains("999,500"));
+        assertEquals(version, restored.getRobot().getVersion());
+        assertEquals(1000, restored.getGrid().getWidth());
+        assertEquals(1000, restored.getObstacle().getCount());
+    }
+
+    @Test
+    public void shouldDeleteJournalSegmentsBeforeOldestSnapshotKept() throws Exception {
+        File journal = new File("target/snapshot-test/journal/");
+
+        toyRobotService.place(sessionService.getWorld("snapshot"), "0", "0", "NORTH");
+
+        // Restart, which starts a new segment
+        journalService.close();
+        sessionService.removeSession("snapshot");
+        snapshotService.recover();
+
+        File[] segments = JournalService.listSegments(journal);
+        File current = segments[segments.length - 1];
+        World world = sessionService.getWorld("snapshot");
+
+        // As many snapshots as are kept, i.e. "snapshot.retain", all in the current segment
+        toyRobotService.move(world);
+        snapshotService.takeSnapshot();
+        toyRobotService.move(world);
+        snapshotService.takeSnapshot();
+
+        String report = toyRobotService.report(world);
+
+        // Restart again, from the snapshots and the current segment only
+        journalService.close();
+        sessionService.removeSession("snapshot");
+        snapshotService.recover();
+
+        // Assertion
+        assertTrue(segments.length > 1);
+        assertFalse(segments[0].exists());
+        assertTrue(current.exists());
+        assertEquals(current, JournalService.listSegments(journal)[0]);
+        assertEquals("Robot is at 0,2,NORTH", report);
+        assertEquals(report, toyRobotService.report(sessionService.getWorld("snapshot")));
+    }
+
+    @Test
+    public void shouldBeAbleToTakeSnapshotByApi() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/toyrobot/snapshots", null, String.class);
+
+        // Assertion
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Successfully taken snapshot.", response.getBody());
+    }
+}
@@ -0,0 +1,101 @@
+package com.somecompany;
+
+import com.somecompany.model.*;
+import com.somecompany.service.CommandStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotStreamTest {
+
+    @Autowired
+    private Robot robot;
+
+    @Autowired
+    private Obstacle obstacle;
+
+    @Autowired
+    private Grid grid;
+
+    @Autowired
+    private World world;
+
+    @Autowired
+    private CommandStreamService commandStreamService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.robotFallOff}")
+    private String ERROR_MSG_ROBOT_FALL_OFF;
+
+    @BeforeEach
+    public void init() {
+        grid.setWidth(5);
+        grid.setHeight(5);
+
+        robot.setLocation(null);
+
+        obstacle.setLocation(null);
+    }
+
+    @Test
+    public void shouldBeAbleToPipeCommands() {
+        Flux<CommandResult> results = commandStreamService.pipe(world,
+                Flux.just("PLACE 0,4,NORTH", "MOVE", "REPORT", "MOVE", "RIGHT", "REPORT"));
+
+        // Assertion
+        StepVerifier.create(results)
+                .assertNext(result -> assertEquals("Robot is at 0,5,NORTH", result.getOutput()))
+                .assertNext(result -> {
+                    assertFalse(result.isSuccess());
+                    assertEquals(ERROR_MSG_ROBOT_FALL_OFF, result.getOutput());
+                })
+                .assertNext(result -> assertEquals("Robot is at 0,5,EAST", result.getOutput()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldBeAbleToPullCommandsOnlyOnDemand() {
+        Flux<String> commands = Flux.range(0, 1_000_000).map(i -> i == 0 ? "PLACE 0,0,NORTH" : "REPORT");
+
+        // Assertion
+        StepVerifier.create(commandStreamService.pipe(world, commands), 2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void shouldBeAbleToStreamCommandsOnAPICall() {
+        StringBuilder script = new StringBuilder("PLACE 1,1,EAST\n");
+
+        for (int i = 0; i < 1000; i++) {
+            script.append(i % 2 == 0 ? "LEFT\n" : "RIGHT\n").append("REPORT\n");
+        }
+
+        List<CommandResult> results = webTestClient.post().uri("/api/toyrobot/streamer/stream")
+                .contentType(MediaType.TEXT_PLAIN).bodyValue(script.toString()).exchange().expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .returnResult(CommandResult.class).getResponseBody().collectList().block();
+
+        // Assertion
+        assertEquals(1000, results.size());
+        assertEquals("Robot is at 1,1,NORTH", results.get(0).getOutput());
+        assertEquals("Robot is at 1,1,EAST", results.get(999).getOutput());
+    }
+}
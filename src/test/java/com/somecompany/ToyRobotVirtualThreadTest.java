@@ -0,0 +1,59 @@
+package com.somecompany;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "threads.virtual=true")
+@ActiveProfiles("test")
+public class ToyRobotVirtualThreadTest {
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ExecutorService jobExecutor;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void shouldBeAbleToRunJobsOnVirtualThreadsIfAvailable() throws Exception {
+        Thread thread = jobExecutor.submit(Thread::currentThread).get();
+
+        // Assertion, virtual threads are only available from JDK 21 onwards
+        assertNotSame(Thread.currentThread(), thread);
+        assertEquals(hasVirtualThreads(), isVirtual(thread));
+    }
+
+    @Test
+    public void shouldBeAbleToServeRequestsInVirtualThreadMode() {
+        // Assertion
+        webTestClient.delete().uri("/api/toyrobot/virtual").exchange().expectStatus().isNotFound();
+    }
+
+    private boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("isVirtual");
+            return true;
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    private boolean isVirtual(Thread thread) throws Exception {
+        if (!hasVirtualThreads()) {
+            return false;
+        }
+
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+        return (Boolean) isVirtual.invoke(thread);
+    }
+}
@@ -0,0 +1,206 @@
+package com.somecompany;
+
+import com.somecompany.model.Facing;
+import com.somecompany.model.RenderedReport;
+import com.somecompany.model.RobotState;
+import com.somecompany.model.World;
+import com.somecompany.service.SessionService;
+import com.somecompany.service.ToyRobotService;
+import com.somecompany.service.ValidationService;
+import com.somecompany.service.WatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotWatchTest {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT =
+            new ParameterizedTypeReference<ServerSentEvent<String>>() {
+            };
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ToyRobotService toyRobotService;
+
+    @Autowired
+    private WatchService watchService;
+
+    @Autowired
+    private ValidationService validationService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${errorMsg.invalidApiParams}")
+    private String ERROR_INVALID_API_PARAMS;
+
+    private ScheduledExecutorService executor;
+
+    private World world;
+
+    @BeforeEach
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        world = sessionService.getWorld("watch");
+        toyRobotService.place(world, "0", "0", "NORTH");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        executor.shutdownNow();
+        sessionService.removeSession("watch");
+    }
+
+    @Test
+    public void shouldBeAbleToWatchChanges() {
+        long version = world.getRobot().getVersion();
+
+        // Assertion
+        StepVerifier.create(watchService.watch(world))
+                .assertNext(report -> assertEquals("Robot is at 0,0,NORTH", report.getText()))
+                .then(() -> toyRobotService.move(world))
+                .assertNext(report -> {
+                    assertEquals("Robot is at 0,1,NORTH", report.getText());
+                    assertEquals(version + 1, RobotState.version(report.getState()));
+                })
+                .then(() -> toyRobotService.placeObstacle(world))
+                .assertNext(report -> assertEquals("Robot is at 0,1,NORTH; Obstacle is at 0,2", report.getText()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertEquals(0, watchService.getSubscriberCount(world));
+    }
+
+    @Test
+    public void shouldKeepWatchingWhenVersionWrapsAround() {
+        // The last version before the 27 bits of the version wrap around
+        world.getRobot().restore(RobotState.pack(0, 0, Facing.NORTH) | (((1L << 27) - 1) << 36));
+
+        // Assertion
+        StepVerifier.create(watchService.watch(world))
+                .assertNext(report -> assertEquals((1L << 27) - 1, RobotState.version(report.getState())))
+                .then(() -> toyRobotService.move(world))
+                .assertNext(report -> {
+                    assertEquals("Robot is at 0,1,NORTH", report.getText());
+                    assertEquals(0, RobotState.version(report.getState()));
+                })
+                .then(() -> toyRobotService.move(world))
+                .assertNext(report -> assertEquals("Robot is at 0,2,NORTH", report.getText()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void shouldConflateChangesForSlowSubscriber() {
+        Flux<RenderedReport> reports = watchService.watch(world);
+
+        // Assertion
+        StepVerifier.create(reports, 1)
+                .assertNext(report -> assertEquals("Robot is at 0,0,NORTH", report.getText()))
+                .then(() -> {
+                    for (int i = 0; i < 10_001; i++) {
+                        toyRobotService.applyRight(world);
+                    }
+                })
+                .thenAwait(Duration.ofMillis(500))
+                // Only the latest report is left, not the 10001 intermediate ones
+                .thenRequest(Long.MAX_VALUE)
+                .assertNext(report -> {
+                    assertEquals("Robot is at 0,0,EAST", report.getText());
+                    assertEquals(world.getRobot().getVersion(), RobotState.version(report.getState()));
+                })
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void shouldLongPollWhenVersionWrapsAround() {
+        long lastVersion = (1L << 27) - 1;
+        world.getRobot().restore(RobotState.pack(0, 0, Facing.NORTH) | (lastVersion << 36));
+
+        // Assertion
+        StepVerifier.create(watchService.await(world, lastVersion, Duration.ofSeconds(10)))
+                .then(() -> toyRobotService.move(world))
+                .assertNext(report -> assertEquals(0, RobotState.version(report.getState())))
+                .verifyComplete();
+
+        // Version 0 is past the last one before the wrap, so it is answered right away
+        StepVerifier.create(watchService.await(world, lastVersion, Duration.ofSeconds(10)))
+                .assertNext(report -> assertEquals("Robot is at 0,1,NORTH", report.getText()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldBeAbleToLongPollOnAPICall() throws Exception {
+        long version = world.getRobot().getVersion();
+        String uri = "/api/toyrobot/watch/report?sinceVersion=" + version + "&timeout=10s";
+
+        Future<?> move = executor.schedule(() -> toyRobotService.move(world), 300, TimeUnit.MILLISECONDS);
+        long startNanos = System.nanoTime();
+
+        // Assertion
+        webTestClient.get().uri(uri).exchange().expectStatus().isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, validationService.getETag(world, world.getRobot().getState()))
+                .expectBody(String.class).isEqualTo("Robot is at 0,1,NORTH");
+
+        assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5));
+        move.get();
+
+        // Answered right away, since the version has been exceeded already
+        webTestClient.get().uri(uri).exchange().expectStatus().isOk().expectBody(String.class)
+                .isEqualTo("Robot is at 0,1,NORTH");
+
+        webTestClient.get().uri("/api/toyrobot/watch/report?sinceVersion=" + (version + 1) + "&timeout=200ms")
+                .exchange().expectStatus().isNotModified();
+        webTestClient.get().uri("/api/toyrobot/watch/report?sinceVersion=x").exchange().expectStatus()
+                .isBadRequest().expectBody(String.class).isEqualTo(ERROR_INVALID_API_PARAMS);
+        webTestClient.get().uri("/api/toyrobot/watch/report?sinceVersion=1&timeout=-1s").exchange().expectStatus()
+                .isBadRequest();
+
+        assertEquals(0, watchService.getSubscriberCount(world));
+    }
+
+    @Test
+    public void shouldBeAbleToStreamEventsOnAPICall() {
+        Flux<ServerSentEvent<String>> events = webTestClient.get().uri("/api/toyrobot/watch/events")
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange().expectStatus().isOk()
+                .returnResult(EVENT).getResponseBody();
+
+        // Assertion
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertEquals("Robot is at 0,0,NORTH", event.data());
+                    assertEquals(String.valueOf(world.getRobot().getVersion()), event.id());
+                })
+                .then(() -> toyRobotService.left(world))
+                .assertNext(event -> assertEquals("Robot is at 0,0,WEST", event.data()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,80 @@
+package com.somecompany;
+
+import com.somecompany.service.SessionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ToyRobotWebSocketTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Test
+    public void shouldBeAbleToRunCommandsOverWebSocket() throws Exception {
+        BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+        WebSocketSession session = connect(replies);
+
+        session.sendMessage(new TextMessage("PLACE 0,4,NORTH"));
+        session.sendMessage(new TextMessage("MOVE"));
+        session.sendMessage(new TextMessage("REPORT\n"));
+        session.sendMessage(new TextMessage("MOVE"));
+        session.sendMessage(new TextMessage("JUMP"));
+
+        // Assertion
+        assertEquals("Robot is at 0,5,NORTH", replies.poll(5, TimeUnit.SECONDS));
+        assertEquals("ROBOT_FALL_OFF", replies.poll(5, TimeUnit.SECONDS));
+        assertEquals("INVALID_COMMAND", replies.poll(5, TimeUnit.SECONDS));
+
+        session.close();
+    }
+
+    @Test
+    public void shouldBeAbleToKeepWorldPerConnection() throws Exception {
+        int sessionCount = sessionService.getSessionCount();
+
+        BlockingQueue<String> aliceReplies = new LinkedBlockingQueue<>();
+        BlockingQueue<String> bobReplies = new LinkedBlockingQueue<>();
+        WebSocketSession alice = connect(aliceReplies);
+        WebSocketSession bob = connect(bobReplies);
+
+        alice.sendMessage(new TextMessage("PLACE 1,2,EAST"));
+        bob.sendMessage(new TextMessage("REPORT"));
+        alice.sendMessage(new TextMessage("REPORT"));
+
+        // Assertion
+        assertEquals("NO_LOCATION", bobReplies.poll(5, TimeUnit.SECONDS));
+        assertEquals("Robot is at 1,2,EAST", aliceReplies.poll(5, TimeUnit.SECONDS));
+        assertEquals(sessionCount, sessionService.getSessionCount());
+
+        alice.close();
+        bob.close();
+    }
+
+    private WebSocketSession connect(BlockingQueue<String> replies) throws Exception {
+        return new StandardWebSocketClient().doHandshake(new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                replies.add(message.getPayload());
+            }
+        }, "ws://localhost:" + port + "/api/toyrobot/ws").get(5, TimeUnit.SECONDS);
+    }
+}